@@ -0,0 +1,29 @@
+package model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+
+// DateRangeTotals interface, implemented by classes that can total their recorded minutes over a range of dates.
+// Weeks, months and years are answered as ranges so implementations only need minutesBetween
+public interface DateRangeTotals {
+    // EFFECTS: returns the minutes recorded from from to to, both inclusive; returns 0 if to is before from
+    int minutesBetween(LocalDate from, LocalDate to);
+
+    // EFFECTS: returns the minutes recorded in the Monday to Sunday week containing date
+    default int minutesInWeek(LocalDate date) {
+        LocalDate monday = date.with(DayOfWeek.MONDAY);
+        return minutesBetween(monday, monday.plusDays(6));
+    }
+
+    // EFFECTS: returns the minutes recorded in the given month
+    default int minutesInMonth(YearMonth month) {
+        return minutesBetween(month.atDay(1), month.atEndOfMonth());
+    }
+
+    // EFFECTS: returns the minutes recorded in the given year
+    default int minutesInYear(Year year) {
+        return minutesBetween(year.atDay(1), year.atMonth(12).atEndOfMonth());
+    }
+}
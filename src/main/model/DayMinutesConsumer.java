@@ -0,0 +1,7 @@
+package model;
+
+// DayMinutesConsumer interface, receives the entries of a HistoryStore without boxing.
+// E is the checked exception the consumer may throw, it is inferred as RuntimeException for consumers that throw none
+public interface DayMinutesConsumer<E extends Exception> {
+    void accept(int epochDay, int minutes) throws E;
+}
@@ -0,0 +1,162 @@
+package model;
+
+import java.util.Arrays;
+
+// Represents a history store held on the heap as a dense int array of minutes indexed by day.
+// Index 0 holds baseEpochDay, days without an entry hold NO_ENTRY. The array grows in either direction,
+// at least doubling each time, so recording and lookup are a bounds check and an array access,
+// and iteration walks the days in ascending order without hashing or boxing.
+// The dense array never spans more than MAX_DENSE_DAYS, a history with outlier dates further apart than that
+// moves to a sparse pair of sorted arrays of days and minutes instead, looked up by binary search,
+// so its memory follows the number of days with an entry rather than the distance between them
+public class DayMinutesMap implements HistoryStore {
+    // About 90 years, a dense array of this many days takes 128 KiB
+    public static final int MAX_DENSE_DAYS = 1 << 15;
+    private static final int INITIAL_CAPACITY = 32;
+    private static final int[] EMPTY = new int[0];
+
+    private int baseEpochDay;
+    private int[] minutes;
+    private int size;
+    // Sorted days with an entry and their minutes once sparse, null while dense
+    private int[] sparseDays;
+    private int[] sparseMinutes;
+
+    // EFFECTS: constructs an empty map
+    public DayMinutesMap() {
+        this.minutes = EMPTY;
+    }
+
+    @Override
+    public int get(int epochDay) {
+        if (sparseDays != null) {
+            int index = Arrays.binarySearch(sparseDays, 0, size, epochDay);
+            return (index < 0) ? NO_ENTRY : sparseMinutes[index];
+        }
+        int index = epochDay - baseEpochDay;
+        if (index < 0 || index >= minutes.length) {
+            return NO_ENTRY;
+        }
+        return minutes[index];
+    }
+
+    @Override
+    public void add(int epochDay, int minutesCompleted) {
+        if (sparseDays == null && !fitsDense(epochDay)) {
+            toSparse();
+        }
+        if (sparseDays != null) {
+            addSparse(epochDay, minutesCompleted);
+            return;
+        }
+        ensureRange(epochDay);
+        int index = epochDay - baseEpochDay;
+        if (minutes[index] == NO_ENTRY) {
+            minutes[index] = minutesCompleted;
+            size++;
+        } else {
+            minutes[index] += minutesCompleted;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public <E extends Exception> void forEach(DayMinutesConsumer<E> consumer) throws E {
+        if (sparseDays != null) {
+            for (int i = 0; i < size; i++) {
+                consumer.accept(sparseDays[i], sparseMinutes[i]);
+            }
+            return;
+        }
+        for (int i = 0; i < minutes.length; i++) {
+            if (minutes[i] != NO_ENTRY) {
+                consumer.accept(baseEpochDay + i, minutes[i]);
+            }
+        }
+    }
+
+    // EFFECTS: returns true if the map has moved to sorted arrays because its days span too many days
+    public boolean isSparse() {
+        return sparseDays != null;
+    }
+
+    // EFFECTS: returns true if the dense array can cover epochDay without spanning more than MAX_DENSE_DAYS
+    private boolean fitsDense(int epochDay) {
+        if (minutes.length == 0) {
+            return true;
+        }
+        long first = Math.min(baseEpochDay, epochDay);
+        long last = Math.max((long) baseEpochDay + minutes.length - 1, epochDay);
+        return last - first < MAX_DENSE_DAYS;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: grows the array so that it covers epochDay, at least doubling it to keep growth amortized
+    // but never beyond MAX_DENSE_DAYS. Extra room is added on the side the range grew towards
+    private void ensureRange(int epochDay) {
+        int capacity = minutes.length;
+        if (capacity == 0) {
+            baseEpochDay = epochDay;
+            resize(0, INITIAL_CAPACITY);
+        } else if (epochDay < baseEpochDay) {
+            int newCapacity = Math.min(MAX_DENSE_DAYS, Math.max(capacity * 2, baseEpochDay + capacity - epochDay));
+            int shift = newCapacity - capacity;
+            baseEpochDay -= shift;
+            resize(shift, newCapacity);
+        } else if (epochDay >= baseEpochDay + capacity) {
+            resize(0, Math.min(MAX_DENSE_DAYS, Math.max(capacity * 2, epochDay - baseEpochDay + 1)));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: replaces the array with one of newCapacity days, placing the existing days at index shift
+    private void resize(int shift, int newCapacity) {
+        int[] resized = new int[newCapacity];
+        Arrays.fill(resized, NO_ENTRY);
+        System.arraycopy(minutes, 0, resized, shift, minutes.length);
+        minutes = resized;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves the entries from the dense array to sorted arrays of days and minutes
+    private void toSparse() {
+        int capacity = Math.max(INITIAL_CAPACITY, size * 2);
+        int[] days = new int[capacity];
+        int[] dayMinutes = new int[capacity];
+        int count = 0;
+        for (int i = 0; i < minutes.length; i++) {
+            if (minutes[i] != NO_ENTRY) {
+                days[count] = baseEpochDay + i;
+                dayMinutes[count] = minutes[i];
+                count++;
+            }
+        }
+        sparseDays = days;
+        sparseMinutes = dayMinutes;
+        minutes = EMPTY;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds minutes to the day in the sorted arrays, inserting the day in order if it has no entry
+    private void addSparse(int epochDay, int minutesCompleted) {
+        int index = Arrays.binarySearch(sparseDays, 0, size, epochDay);
+        if (index >= 0) {
+            sparseMinutes[index] += minutesCompleted;
+            return;
+        }
+        int insertAt = -index - 1;
+        if (size == sparseDays.length) {
+            sparseDays = Arrays.copyOf(sparseDays, size * 2);
+            sparseMinutes = Arrays.copyOf(sparseMinutes, size * 2);
+        }
+        System.arraycopy(sparseDays, insertAt, sparseDays, insertAt + 1, size - insertAt);
+        System.arraycopy(sparseMinutes, insertAt, sparseMinutes, insertAt + 1, size - insertAt);
+        sparseDays[insertAt] = epochDay;
+        sparseMinutes[insertAt] = minutesCompleted;
+        size++;
+    }
+}
@@ -0,0 +1,30 @@
+package model;
+
+import java.time.LocalDate;
+
+// Converts dates to epoch days (LocalDate.toEpochDay) through a table of the first epoch day of every month
+// from 1900 to 2155, so the conversion done for every history lookup by date is two field reads and an array
+// access instead of the calendar arithmetic of toEpochDay. Dates outside the table use toEpochDay
+public final class EpochDays {
+    private static final int FIRST_YEAR = 1900;
+    private static final int YEARS = 256;
+    private static final int[] MONTH_STARTS = new int[YEARS * 12];
+
+    static {
+        for (int month = 0; month < MONTH_STARTS.length; month++) {
+            MONTH_STARTS[month] = (int) LocalDate.of(FIRST_YEAR + month / 12, month % 12 + 1, 1).toEpochDay();
+        }
+    }
+
+    private EpochDays() {
+    }
+
+    // EFFECTS: Returns date.toEpochDay() as an int
+    public static int of(LocalDate date) {
+        int month = (date.getYear() - FIRST_YEAR) * 12 + date.getMonthValue() - 1;
+        if (month < 0 || month >= MONTH_STARTS.length) {
+            return (int) date.toEpochDay();
+        }
+        return MONTH_STARTS[month] + date.getDayOfMonth() - 1;
+    }
+}
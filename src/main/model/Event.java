@@ -1,17 +1,25 @@
 package model;
 
-import java.util.Calendar;
 import java.util.Date;
 
 // Code influenced by AlarmSystem: https://github.students.cs.ubc.ca/CPSC210/AlarmSystem
 
 /**
  * Represents a task timer system event.
+ * An event stores its type, the task name and numeric arguments it concerns and the
+ * time it was logged in epoch milliseconds. Its description is only rendered, once,
+ * when it is first read, so logging an event costs a single small allocation.
  */
 public class Event {
     private static final int HASH_CONSTANT = 13;
-    private final Date dateLogged;
-    private  final String description;
+    private final long timestamp;
+    private final EventType type;
+    // the task name, the project name for restored tasks, or the text of a free text event
+    private final String subject;
+    private final int arg0;
+    private final int arg1;
+    private final int arg2;
+    private String description;
 
     /**
      * Creates an event with the given description
@@ -20,8 +28,51 @@ public class Event {
      * @param description a description of the event
      */
     public Event(String description) {
-        dateLogged = Calendar.getInstance().getTime();
-        this.description = description;
+        this(EventType.MESSAGE, description, 0, 0, 0);
+    }
+
+    /**
+     * Creates an event of the given type about the given task
+     * with the current date/time stamp.
+     */
+    private Event(EventType type, String subject, int arg0, int arg1, int arg2) {
+        this.timestamp = System.currentTimeMillis();
+        this.type = type;
+        this.subject = subject;
+        this.arg0 = arg0;
+        this.arg1 = arg1;
+        this.arg2 = arg2;
+    }
+
+    // EFFECTS: Returns an event recording that a task with the given name was created
+    public static Event taskCreated(String taskName) {
+        return new Event(EventType.TASK_CREATED, taskName, 0, 0, 0);
+    }
+
+    // EFFECTS: Returns an event recording that a task with the given name was added to a project
+    public static Event taskAdded(String taskName) {
+        return new Event(EventType.TASK_ADDED, taskName, 0, 0, 0);
+    }
+
+    // EFFECTS: Returns an event recording that minutes were recorded in a task on the given epoch day
+    public static Event timeRecorded(String taskName, int minutes, int epochDay) {
+        return new Event(EventType.TIME_RECORDED, taskName, minutes, epochDay, 0);
+    }
+
+    // EFFECTS: Returns an event recording a task's new timer durations
+    public static Event durationsChanged(String taskName, int workDuration, int breakDuration,
+                                         int longBreakDuration) {
+        return new Event(EventType.DURATIONS_CHANGED, taskName, workDuration, breakDuration, longBreakDuration);
+    }
+
+    // EFFECTS: Returns an event recording that tasks holding the given total minutes were restored into a project
+    public static Event tasksRestored(String projectName, int taskCount, int totalMinutes) {
+        return new Event(EventType.TASKS_RESTORED, projectName, taskCount, totalMinutes, 0);
+    }
+
+    // EFFECTS: Returns an event recording that the event log was cleared
+    public static Event logCleared() {
+        return new Event(EventType.LOG_CLEARED, null, 0, 0, 0);
     }
 
     /**
@@ -30,16 +81,63 @@ public class Event {
      * @return the date of the event
      */
     public Date getDate() {
-        return dateLogged;
+        return new Date(timestamp);
     }
 
     /**
-     * Gets the description of this event.
+     * Gets the time this event was logged in milliseconds since the epoch.
+     *
+     * @return the timestamp of the event
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public EventType getType() {
+        return type;
+    }
+
+    // EFFECTS: Returns the name of the task this event concerns, or null if it does not concern a single task
+    public String getTaskName() {
+        return (type == EventType.MESSAGE || type == EventType.TASKS_RESTORED) ? null : subject;
+    }
+
+    // REQUIRES: 0 <= index <= 2
+    // EFFECTS: Returns the numeric argument at the given index, the meaning of each argument depends on the type
+    public int getArgument(int index) {
+        switch (index) {
+            case 0:
+                return arg0;
+            case 1:
+                return arg1;
+            default:
+                return arg2;
+        }
+    }
+
+    // EFFECTS: Returns the text of a free text event
+    String getText() {
+        return (type == EventType.MESSAGE) ? subject : null;
+    }
+
+    // EFFECTS: Returns the name of the project tasks were restored into
+    String getProjectName() {
+        return (type == EventType.TASKS_RESTORED) ? subject : null;
+    }
+
+    /**
+     * Gets the description of this event, rendering it on first use.
      *
      * @return the description of the event
      */
     public String getDescription() {
-        return description;
+        String rendered = description;
+        if (rendered == null) {
+            // a racing reader at worst renders the same description twice
+            rendered = type.describe(this);
+            description = rendered;
+        }
+        return rendered;
     }
 
     @Override
@@ -54,17 +152,17 @@ public class Event {
 
         Event otherEvent = (Event) other;
 
-        return (this.dateLogged.equals(otherEvent.dateLogged)
-                && this.description.equals(otherEvent.description));
+        return (this.timestamp == otherEvent.timestamp
+                && this.getDescription().equals(otherEvent.getDescription()));
     }
 
     @Override
     public int hashCode() {
-        return (HASH_CONSTANT * dateLogged.hashCode() + description.hashCode());
+        return (HASH_CONSTANT * Long.hashCode(timestamp) + getDescription().hashCode());
     }
 
     @Override
     public String toString() {
-        return dateLogged.toString() + "\n" + description;
+        return getDate().toString() + "\n" + getDescription();
     }
-}
\ No newline at end of file
+}
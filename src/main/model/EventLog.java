@@ -1,8 +1,12 @@
 package model;
 
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 // Code influenced by AlarmSystem: https://github.students.cs.ubc.ca/CPSC210/AlarmSystem
 
@@ -11,18 +15,38 @@ import java.util.Iterator;
  * We use the Singleton Design Pattern to ensure that there is only
  * one EventLog in the system and that the system has global access
  * to the single instance of the EventLog.
+ * The log holds at most a fixed number of events in a ring buffer that many threads
+ * may log to at once without locking. Every event claims the next sequence number and the
+ * slot at that sequence modulo the capacity; each slot also records the sequence of the event
+ * it holds, which doubles as a per-slot seqlock so readers never see a half written slot.
+ * Once the log is full, the overflow policy decides whether old events are overwritten or
+ * new events are dropped, and both kinds of loss are counted.
+ * Iteration is weakly consistent: it never fails because of concurrent logging, and may skip
+ * events that are overwritten while it runs.
+ * Every logged event is also handed to the registered sinks, e.g. to keep it on disk.
  */
 public class EventLog implements Iterable<Event> {
-    /** the only EventLog in the system (Singleton Design Pattern) */
-    private static EventLog theLog;
-    private Collection<Event> events;
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final OverflowPolicy DEFAULT_OVERFLOW_POLICY = OverflowPolicy.OVERWRITE_OLDEST;
+    private static final long EMPTY = -1;
+
+    private volatile Ring ring;
+    private final List<EventSink> sinks = new CopyOnWriteArrayList<>();
+
+    /**
+     * Lazily holds the only EventLog in the system, the JVM creates it
+     * on first use without any locking (Singleton Design Pattern).
+     */
+    private static class Holder {
+        private static final EventLog THE_LOG = new EventLog();
+    }
 
     /**
      * Prevent external construction.
      * (Singleton Design Pattern).
      */
     private EventLog() {
-        events = new ArrayList<>();
+        ring = new Ring(DEFAULT_CAPACITY, DEFAULT_OVERFLOW_POLICY);
     }
 
     /**
@@ -32,11 +56,21 @@ public class EventLog implements Iterable<Event> {
      * @return  instance of EventLog
      */
     public static EventLog getInstance() {
-        if (theLog == null) {
-            theLog = new EventLog();
-        }
+        return Holder.THE_LOG;
+    }
 
-        return theLog;
+    /**
+     * Replaces the log with an empty one of the given capacity and overflow policy.
+     * The capacity is rounded up to a power of two. Events logged so far and the drop
+     * counters are discarded.
+     * @param capacity the minimum number of events the log keeps, at least 1
+     * @param policy what happens to new events once the log is full
+     */
+    public void configure(int capacity, OverflowPolicy policy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+        }
+        ring = new Ring(capacity, policy);
     }
 
     /**
@@ -44,19 +78,179 @@ public class EventLog implements Iterable<Event> {
      * @param e the event to be added
      */
     public void logEvent(Event e) {
-        events.add(e);
+        ring.add(e);
+        for (EventSink sink : sinks) {
+            sink.accept(e);
+        }
+    }
+
+    /**
+     * Registers a sink that receives every event logged from now on.
+     * @param sink the sink to add
+     */
+    public void addSink(EventSink sink) {
+        sinks.add(sink);
+    }
+
+    /**
+     * Stops handing events to the given sink.
+     * @param sink the sink to remove
+     */
+    public void removeSink(EventSink sink) {
+        sinks.remove(sink);
     }
 
     /**
      * Clears the event log and logs the event.
      */
     public void clear() {
-        events.clear();
-        logEvent(new Event("Event log cleared."));
+        Ring current = ring;
+        current.start.set(current.next.get());
+        logEvent(Event.logCleared());
     }
 
+    // EFFECTS: returns a weakly consistent iterator over the events currently in the log, oldest first
     @Override
     public Iterator<Event> iterator() {
-        return events.iterator();
+        return ring.iterator();
+    }
+
+    public int getCapacity() {
+        return ring.slots.length();
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return ring.policy;
+    }
+
+    // EFFECTS: returns the number of logged events that were overwritten by newer events
+    public long getOverwrittenCount() {
+        return ring.overwritten.get();
+    }
+
+    // EFFECTS: returns the number of events that were dropped because the log was full
+    public long getRejectedCount() {
+        return ring.rejected.get();
+    }
+
+    // EFFECTS: returns the number of events lost to overflow in any way
+    public long getDroppedCount() {
+        Ring current = ring;
+        return current.overwritten.get() + current.rejected.get();
+    }
+
+    /**
+     * Represents the ring buffer behind the log. A slot's sequence is EMPTY before its first
+     * event, the event's sequence once it is readable, and -(sequence + 2) while it is being written.
+     */
+    private static class Ring {
+        private final AtomicReferenceArray<Event> slots;
+        private final AtomicLongArray sequences;
+        private final int mask;
+        private final OverflowPolicy policy;
+        private final AtomicLong next;
+        private final AtomicLong start;
+        private final AtomicLong overwritten;
+        private final AtomicLong rejected;
+
+        // EFFECTS: constructs an empty ring with capacity rounded up to a power of two
+        Ring(int capacity, OverflowPolicy policy) {
+            int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << (capacity > 1 ? 1 : 0);
+            this.slots = new AtomicReferenceArray<>(size);
+            this.sequences = new AtomicLongArray(size);
+            for (int i = 0; i < size; i++) {
+                sequences.set(i, EMPTY);
+            }
+            this.mask = size - 1;
+            this.policy = policy;
+            this.next = new AtomicLong();
+            this.start = new AtomicLong();
+            this.overwritten = new AtomicLong();
+            this.rejected = new AtomicLong();
+        }
+
+        // MODIFIES: this
+        // EFFECTS: claims the next sequence and writes the event into its slot,
+        // or counts the event as dropped if the policy rejects it
+        void add(Event e) {
+            long sequence;
+            if (policy == OverflowPolicy.DROP_NEWEST) {
+                do {
+                    sequence = next.get();
+                    if (sequence - start.get() > mask) {
+                        rejected.incrementAndGet();
+                        return;
+                    }
+                } while (!next.compareAndSet(sequence, sequence + 1));
+            } else {
+                sequence = next.getAndIncrement();
+            }
+            write((int) (sequence & mask), sequence, e);
+        }
+
+        // MODIFIES: this
+        // EFFECTS: takes the slot over from an older event and publishes e in it; a slot that is being written is
+        // waited for, and if a newer event already owns the slot then e is counted as overwritten straight away
+        private void write(int index, long sequence, Event e) {
+            while (true) {
+                long current = sequences.get(index);
+                if (current < EMPTY) {
+                    if (-current - 2 > sequence) {
+                        overwritten.incrementAndGet();
+                        return;
+                    }
+                    Thread.onSpinWait();
+                } else if (current > sequence) {
+                    overwritten.incrementAndGet();
+                    return;
+                } else if (sequences.compareAndSet(index, current, -sequence - 2)) {
+                    if (current != EMPTY && current >= start.get()) {
+                        overwritten.incrementAndGet();
+                    }
+                    slots.set(index, e);
+                    sequences.set(index, sequence);
+                    return;
+                }
+            }
+        }
+
+        // EFFECTS: returns the event with the given sequence, or null if its slot does not hold it right now
+        private Event read(long sequence) {
+            int index = (int) (sequence & mask);
+            if (sequences.get(index) != sequence) {
+                return null;
+            }
+            Event e = slots.get(index);
+            return (sequences.get(index) == sequence) ? e : null;
+        }
+
+        // EFFECTS: returns an iterator over the sequences that may still be in the ring,
+        // reading each slot only when the iterator reaches it
+        Iterator<Event> iterator() {
+            long end = next.get();
+            long first = Math.max(start.get(), end - slots.length());
+            return new Iterator<>() {
+                private long sequence = first;
+                private Event upcoming;
+
+                @Override
+                public boolean hasNext() {
+                    while (upcoming == null && sequence < end) {
+                        upcoming = read(sequence++);
+                    }
+                    return upcoming != null;
+                }
+
+                @Override
+                public Event next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Event e = upcoming;
+                    upcoming = null;
+                    return e;
+                }
+            };
+        }
     }
 }
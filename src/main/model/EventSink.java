@@ -0,0 +1,9 @@
+package model;
+
+// Represents a destination that receives every event logged to the EventLog.
+// Events are handed over on the logging thread, which may be a timer or UI thread, so accept must not block
+public interface EventSink {
+
+    // EFFECTS: takes the event, without blocking the caller
+    void accept(Event e);
+}
@@ -0,0 +1,64 @@
+package model;
+
+import java.time.LocalDate;
+
+// Represents the kinds of events in the EventLog, each kind renders its own description from the
+// task name and numeric arguments stored in the Event, so nothing is formatted unless the description is read
+public enum EventType {
+    // A free text event, the text is the event's description
+    MESSAGE {
+        @Override
+        String describe(Event e) {
+            return e.getText();
+        }
+    },
+    // A task was constructed
+    TASK_CREATED {
+        @Override
+        String describe(Event e) {
+            return "Created new task (" + e.getTaskName() + ")";
+        }
+    },
+    // A task was added to a project
+    TASK_ADDED {
+        @Override
+        String describe(Event e) {
+            return "Added task (" + e.getTaskName() + ") to project";
+        }
+    },
+    // Minutes were recorded in a task, the arguments are the minutes and the epoch day they were recorded on
+    TIME_RECORDED {
+        @Override
+        String describe(Event e) {
+            return "Logged " + e.getArgument(0) + " minutes in task(" + e.getTaskName()
+                    + ") mapped to " + LocalDate.ofEpochDay(e.getArgument(1));
+        }
+    },
+    // A task's timer durations were edited, the arguments are the work, break and long break durations
+    DURATIONS_CHANGED {
+        @Override
+        String describe(Event e) {
+            return "Edited timer durations in task(" + e.getTaskName()
+                    + ") work duration: " + e.getArgument(0) + " break duration: " + e.getArgument(1)
+                    + " long break duration: " + e.getArgument(2);
+        }
+    },
+    // Tasks were restored into a project in bulk, the arguments are the number of tasks and their total minutes
+    TASKS_RESTORED {
+        @Override
+        String describe(Event e) {
+            return "Restored " + e.getArgument(0) + " task(s) with " + e.getArgument(1)
+                    + " minute(s) into project (" + e.getProjectName() + ")";
+        }
+    },
+    // The event log was cleared
+    LOG_CLEARED {
+        @Override
+        String describe(Event e) {
+            return "Event log cleared.";
+        }
+    };
+
+    // EFFECTS: Returns the description of the given event of this type
+    abstract String describe(Event e);
+}
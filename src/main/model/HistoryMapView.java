@@ -0,0 +1,54 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Supplier;
+
+// Represents a read-only Map view of a HistoryStore keyed by date.
+// Lookups go straight to the store, only iterating the entry set copies entries out of it.
+// The store is looked up on every access, so the view follows a task that replaces its store
+class HistoryMapView extends AbstractMap<LocalDate, Integer> {
+    private final Supplier<HistoryStore> history;
+
+    // EFFECTS: constructs a view over the store returned by history
+    HistoryMapView(Supplier<HistoryStore> history) {
+        this.history = history;
+    }
+
+    @Override
+    public Integer get(Object key) {
+        if (!(key instanceof LocalDate)) {
+            return null;
+        }
+        int minutes = history.get().get(EpochDays.of((LocalDate) key));
+        return (minutes == HistoryStore.NO_ENTRY) ? null : minutes;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return history.get().size();
+    }
+
+    @Override
+    public Set<Entry<LocalDate, Integer>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<LocalDate, Integer>> iterator() {
+                List<Entry<LocalDate, Integer>> entries = new ArrayList<>(history.get().size());
+                history.get().forEach((epochDay, minutes) ->
+                        entries.add(new SimpleImmutableEntry<>(LocalDate.ofEpochDay(epochDay), minutes)));
+                return Collections.unmodifiableList(entries).iterator();
+            }
+
+            @Override
+            public int size() {
+                return history.get().size();
+            }
+        };
+    }
+}
@@ -0,0 +1,102 @@
+package model;
+
+import java.util.Arrays;
+
+// Represents a Fenwick (binary indexed) tree of daily minutes over a fixed range of epoch days.
+// Each node holds the sum of a power of two sized block of days, so the total of any range of days
+// and adding minutes to a day both take O(log D) for a range of D days.
+// Like DayMinutesMap, the tree only covers every day of the range while the range spans at most
+// DayMinutesMap.MAX_DENSE_DAYS, a history with outlier dates further apart than that is indexed over
+// its sorted days with an entry instead, found by binary search, so memory follows the number of entries
+public class HistoryRangeIndex {
+    private static final int SPARE_DAYS = 366;
+
+    private final int baseEpochDay;
+    private final int[] tree;
+    // Sorted days with an entry once sparse, null while dense
+    private final int[] sparseDays;
+
+    // EFFECTS: builds an index over every day in history, leaving room for a year of days after the last entry,
+    // or over only the days with an entry if the history spans more than DayMinutesMap.MAX_DENSE_DAYS
+    public HistoryRangeIndex(HistoryStore history) {
+        int[] bounds = {Integer.MAX_VALUE, Integer.MIN_VALUE};
+        history.forEach((epochDay, minutes) -> {
+            bounds[0] = Math.min(bounds[0], epochDay);
+            bounds[1] = Math.max(bounds[1], epochDay);
+        });
+        if (history.size() == 0) {
+            bounds[0] = 0;
+            bounds[1] = -1;
+        }
+        this.baseEpochDay = bounds[0];
+        if ((long) bounds[1] - bounds[0] < DayMinutesMap.MAX_DENSE_DAYS) {
+            this.sparseDays = null;
+            this.tree = new int[bounds[1] - bounds[0] + 1 + SPARE_DAYS + 1];
+            history.forEach((epochDay, minutes) -> tree[epochDay - baseEpochDay + 1] += minutes);
+        } else {
+            this.sparseDays = sortedDays(history);
+            this.tree = new int[sparseDays.length + 1];
+            history.forEach((epochDay, minutes) -> tree[Arrays.binarySearch(sparseDays, epochDay) + 1] += minutes);
+        }
+        for (int i = 1; i < tree.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds minutes to the given day and returns true,
+    // returns false without changing anything if the day is outside the indexed range
+    // or, once sparse, has no entry in the index
+    public boolean add(int epochDay, int minutes) {
+        int index;
+        if (sparseDays == null) {
+            index = epochDay - baseEpochDay + 1;
+        } else {
+            index = Arrays.binarySearch(sparseDays, epochDay) + 1;
+        }
+        if (index < 1 || index >= tree.length) {
+            return false;
+        }
+        for (; index < tree.length; index += index & -index) {
+            tree[index] += minutes;
+        }
+        return true;
+    }
+
+    // EFFECTS: returns the minutes recorded from fromDay to toDay, both inclusive
+    public int minutesBetween(int fromDay, int toDay) {
+        if (toDay < fromDay) {
+            return 0;
+        }
+        return prefixSum(toDay) - prefixSum(fromDay - 1);
+    }
+
+    // EFFECTS: returns the minutes recorded on every indexed day up to and including epochDay
+    private int prefixSum(int epochDay) {
+        int index;
+        if (sparseDays == null) {
+            index = Math.min(epochDay - baseEpochDay + 1, tree.length - 1);
+        } else {
+            // the number of indexed days up to and including epochDay
+            int found = Arrays.binarySearch(sparseDays, epochDay);
+            index = (found >= 0) ? found + 1 : -found - 1;
+        }
+        int sum = 0;
+        for (; index > 0; index -= index & -index) {
+            sum += tree[index];
+        }
+        return sum;
+    }
+
+    // EFFECTS: returns the days with an entry in history in ascending order
+    private static int[] sortedDays(HistoryStore history) {
+        int[] days = new int[history.size()];
+        int[] count = {0};
+        history.forEach((epochDay, minutes) -> days[count[0]++] = epochDay);
+        Arrays.sort(days, 0, count[0]);
+        return (count[0] == days.length) ? days : Arrays.copyOf(days, count[0]);
+    }
+}
@@ -0,0 +1,52 @@
+package model;
+
+// HistoryStore interface, required for classes that store the minutes a task was worked on per day.
+// Days are identified by their epoch day (LocalDate.toEpochDay) so implementations can avoid boxing
+public interface HistoryStore {
+    // Returned by get for days without an entry
+    int NO_ENTRY = -1;
+    // Returned by knownMinutesBetween when the minutes cannot be summed without reading entries
+    int UNKNOWN = -1;
+
+    // EFFECTS: returns the minutes recorded on the given day, or NO_ENTRY if the day has no entry
+    int get(int epochDay);
+
+    // REQUIRES: minutes >= 0
+    // MODIFIES: this
+    // EFFECTS: adds minutes to the given day, creating the entry if the day has none
+    void add(int epochDay, int minutes);
+
+    // EFFECTS: returns the number of days with an entry
+    int size();
+
+    // EFFECTS: calls consumer once with every day that has an entry and its minutes, in ascending day order;
+    // rethrows any exception thrown by consumer
+    <E extends Exception> void forEach(DayMinutesConsumer<E> consumer) throws E;
+
+    // EFFECTS: returns the minutes recorded from fromEpochDay to toEpochDay, both inclusive, if they can be summed
+    // without reading entries that are not in memory, otherwise UNKNOWN. The default returns UNKNOWN and leaves
+    // the sum to the task's range index, stores that have not read their entries may answer from a summary
+    default int knownMinutesBetween(int fromEpochDay, int toEpochDay) {
+        return UNKNOWN;
+    }
+
+    // EFFECTS: calls consumer with every entry on or after fromEpochDay in ascending day order and returns
+    // fromEpochDay; rethrows any exception thrown by consumer. Stores that have not read their entries may instead
+    // give the entries on or after a later day that they hold without reading, and return that day
+    default <E extends Exception> int forEachSince(int fromEpochDay, DayMinutesConsumer<E> consumer) throws E {
+        this.<E>forEach((epochDay, minutes) -> {
+            if (epochDay >= fromEpochDay) {
+                consumer.accept(epochDay, minutes);
+            }
+        });
+        return fromEpochDay;
+    }
+
+    // EFFECTS: returns an independent copy of this store held on the heap,
+    // stores that have not read their entries yet may override this to copy without reading them
+    default HistoryStore copy() {
+        DayMinutesMap copy = new DayMinutesMap();
+        forEach(copy::add);
+        return copy;
+    }
+}
@@ -0,0 +1,9 @@
+package model;
+
+// Represents what the EventLog does with a new event once it holds as many events as its capacity
+public enum OverflowPolicy {
+    // The new event replaces the oldest event in the log
+    OVERWRITE_OLDEST,
+    // The new event is dropped and the log keeps its oldest events
+    DROP_NEWEST
+}
@@ -2,53 +2,215 @@ package model;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.json.JSONWriter;
+import persistence.BinaryWritable;
+import persistence.MigrationPipeline;
+import persistence.StreamingWritable;
+import persistence.VarInts;
 import persistence.Writable;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.text.Normalizer;
+import java.util.*;
 
 // Represents a project, a project can hold multiple tasks
-public class Project implements Writable {
+// Tasks are kept in insertion order alongside an index from task name to position in the list.
+// The total minutes and the most worked on task are kept up to date as tasks are added and time is recorded,
+// since task totals only ever grow the most worked on task only needs comparing against the task that changed.
+// Adding a task increments the project's modification count, changes within a task are counted by the task.
+// Each constructed project has its own identity token that its copies share, so stores can tell copies of a project
+// they saved apart from a different project that happens to have the same name and tasks
+public class Project implements Writable, StreamingWritable, BinaryWritable, DateRangeTotals {
     private String name;
+    private boolean caseInsensitiveNames;
     private List<Task> tasks;
+    private Map<String, Integer> taskIndex;
+    private List<ProjectObserver> observers;
+    private int totalMinutes;
+    private Task mostWorkedOnTask;
+    private int modCount;
+    private Object identity;
 
-    // EFFECTS: constructs a project with a name and an empty list of tasks
+    // EFFECTS: constructs a project with a name, an empty list of tasks and no observers,
+    // task names are matched exactly
     public Project(String name) {
+        this(name, false);
+    }
+
+    // EFFECTS: constructs a project with a name, an empty list of tasks and no observers,
+    // if caseInsensitiveNames is true task names are matched ignoring case, surrounding whitespace
+    // and differences in unicode normalization
+    public Project(String name, boolean caseInsensitiveNames) {
         this.name = name;
+        this.caseInsensitiveNames = caseInsensitiveNames;
         this.tasks = new ArrayList<>();
+        this.taskIndex = new HashMap<>();
+        this.observers = new ArrayList<>();
+        this.identity = new Object();
     }
 
     // MODIFIES: this
     // EFFECTS: Appends a task to the list of tasks,
     // only if the task has a unique name
     public boolean addTask(Task task) {
-        for (Task curTask : tasks) {
-            if (curTask.getName().equals(task.getName())) {
-                return false;
-            }
+        if (!insertTask(task)) {
+            return false;
+        }
+        EventLog.getInstance().logEvent(Event.taskAdded(task.getName()));
+        for (ProjectObserver observer : observers) {
+            observer.taskAdded(task);
+        }
+        return true;
+    }
+
+    // MODIFIES: this, task
+    // EFFECTS: Appends the task to the list, index and aggregates without logging or notifying observers,
+    // only if the task has a unique name
+    private boolean insertTask(Task task) {
+        if (taskIndex.putIfAbsent(keyOf(task.getName()), tasks.size()) != null) {
+            return false;
         }
         this.tasks.add(task);
-        EventLog.getInstance().logEvent(new Event("Added task (" + task.getName() + ") to project"));
+        task.setProject(this);
+        totalMinutes += task.getTotalMinutes();
+        updateMostWorkedOnTask(task);
+        modCount++;
         return true;
     }
 
     // MODIFIES: this
-    // EFFECTS: Iterates through the task list and calculates
-    // the total minutes across all tasks.
-    public int calculateTotalMinutes() {
-        int totalMinutes = 0;
-        for (int i = 0; i < tasks.size(); i++) {
-            totalMinutes += tasks.get(i).getTotalMinutes();
+    // EFFECTS: Returns a copy of this project and its tasks without any observers,
+    // so that a consistent snapshot can be handed to another thread while this project keeps changing.
+    // Each task copy shares its history with the original until either records time, so copying takes time in
+    // the number of tasks rather than the length of their histories.
+    // The copy keeps this project's identity, and the copy and its tasks keep the modification counts of the originals
+    public Project copy() {
+        Project copy = new Project(name, caseInsensitiveNames);
+        for (Task task : tasks) {
+            copy.insertTask(task.copy());
+        }
+        copy.modCount = modCount;
+        copy.identity = identity;
+        return copy;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Appends every task with a unique name in a single pass, skipping tasks whose name is
+    // already taken (including by an earlier task in the collection); returns the number of tasks added
+    public int addTasks(Collection<Task> newTasks) {
+        int added = 0;
+        for (Task task : newTasks) {
+            if (addTask(task)) {
+                added++;
+            }
         }
+        return added;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Appends restored tasks, e.g. tasks read from a file, skipping tasks whose name is already taken.
+    // Instead of an event per task a single summary event is logged; observers are still told of each task.
+    // Returns the number of tasks added
+    public int restoreTasks(Collection<Task> restoredTasks) {
+        int added = 0;
+        int minutes = 0;
+        for (Task task : restoredTasks) {
+            if (insertTask(task)) {
+                added++;
+                minutes += task.getTotalMinutes();
+                for (ProjectObserver observer : observers) {
+                    observer.taskAdded(task);
+                }
+            }
+        }
+        EventLog.getInstance().logEvent(Event.tasksRestored(name, added, minutes));
+        return added;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Adds an observer that is notified of tasks being added and of changes to any task in the project
+    public void addObserver(ProjectObserver observer) {
+        observers.add(observer);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Removes the given observer if present
+    public void removeObserver(ProjectObserver observer) {
+        observers.remove(observer);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Updates the project aggregates and notifies observers that time was recorded
+    // in one of this project's tasks
+    void notifyTimeRecorded(Task task, LocalDate date, int minutesCompleted) {
+        totalMinutes += minutesCompleted;
+        updateMostWorkedOnTask(task);
+        for (ProjectObserver observer : observers) {
+            observer.timeRecorded(task, date, minutesCompleted);
+        }
+    }
+
+    // EFFECTS: Notifies observers that the durations of one of this project's tasks were edited
+    void notifyDurationsChanged(Task task) {
+        for (ProjectObserver observer : observers) {
+            observer.durationsChanged(task);
+        }
+    }
+
+    // EFFECTS: Returns the total minutes across all tasks
+    public int calculateTotalMinutes() {
         return totalMinutes;
     }
 
+    // EFFECTS: Returns the minutes recorded across all tasks from from to to, both inclusive
+    @Override
+    public int minutesBetween(LocalDate from, LocalDate to) {
+        int minutes = 0;
+        for (Task task : tasks) {
+            minutes += task.minutesBetween(from, to);
+        }
+        return minutes;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Makes the given task the most worked on task if it now has more minutes than the current one,
+    // or as many minutes and was added earlier
+    private void updateMostWorkedOnTask(Task task) {
+        if (mostWorkedOnTask == null || task.getTotalMinutes() > mostWorkedOnTask.getTotalMinutes()
+                || (task.getTotalMinutes() == mostWorkedOnTask.getTotalMinutes()
+                && positionOf(task) < positionOf(mostWorkedOnTask))) {
+            mostWorkedOnTask = task;
+        }
+    }
+
+    // EFFECTS: Returns the position of a task of this project in the task list
+    private int positionOf(Task task) {
+        return taskIndex.get(keyOf(task.getName()));
+    }
+
     public String getName() {
         return name;
     }
 
+    // EFFECTS: Returns a read-only view of the tasks in insertion order
     public List<Task> getTaskList() {
-        return tasks;
+        return Collections.unmodifiableList(tasks);
+    }
+
+    // EFFECTS: Returns the number of tasks added since construction, changes within tasks are not counted
+    public int getModCount() {
+        return modCount;
+    }
+
+    // EFFECTS: Returns the token identifying this project, shared by its copies and by no other project
+    public Object getIdentity() {
+        return identity;
+    }
+
+    public boolean hasCaseInsensitiveNames() {
+        return caseInsensitiveNames;
     }
 
     // REQUIRES: index <= tasks.size()
@@ -60,14 +222,19 @@ public class Project implements Writable {
     // EFFECTS: Returns a task present in the task list based on given string
     // returns null if not present
     public Task getTaskFromString(String query) {
-        Task curTask = null;
-        for (int i = 0; i < tasks.size(); i++) {
-            curTask = tasks.get(i);
-            if (query.equals(curTask.getName())) {
-                return curTask;
-            }
+        if (query == null) {
+            return null;
         }
-        return null;
+        Integer index = taskIndex.get(keyOf(query));
+        return (index == null) ? null : tasks.get(index);
+    }
+
+    // EFFECTS: Returns the key a task name is indexed under
+    private String keyOf(String taskName) {
+        if (!caseInsensitiveNames) {
+            return taskName;
+        }
+        return Normalizer.normalize(taskName.trim(), Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
     }
 
     // EFFECTS: Creates a string of all tasks and their total minutes
@@ -93,16 +260,8 @@ public class Project implements Writable {
     }
 
     // EFFECTS: returns the task that has the greatest total minutes
+    // returns null if the project has no tasks, ties go to the task added first
     public Task determineMostWorkedOnTask() {
-        if (tasks.size() == 0) {
-            return null;
-        }
-        Task mostWorkedOnTask = tasks.get(0);
-        for (Task task : tasks) {
-            if (task.getTotalMinutes() > mostWorkedOnTask.getTotalMinutes()) {
-                mostWorkedOnTask = task;
-            }
-        }
         return mostWorkedOnTask;
     }
 
@@ -110,6 +269,7 @@ public class Project implements Writable {
     @Override
     public JSONObject toJson() {
         JSONObject json = new JSONObject();
+        json.put(MigrationPipeline.VERSION_KEY, MigrationPipeline.CURRENT_VERSION);
         json.put("project_name", name);
         json.put("tasks", tasksToJson());
         return json;
@@ -125,4 +285,27 @@ public class Project implements Writable {
 
         return jsonArray;
     }
+
+    // EFFECTS: Emits the same JSON as toJson to writer, schema version first, streaming each task in turn
+    @Override
+    public void toJson(JSONWriter writer) {
+        writer.object()
+                .key(MigrationPipeline.VERSION_KEY).value(MigrationPipeline.CURRENT_VERSION)
+                .key("project_name").value(name)
+                .key("tasks").array();
+        for (Task t : tasks) {
+            t.toJson(writer);
+        }
+        writer.endArray().endObject();
+    }
+
+    // EFFECTS: Writes the project to out in the binary snapshot format: name and task count followed by each task
+    @Override
+    public void toBinary(DataOutput out) throws IOException {
+        out.writeUTF(name);
+        VarInts.writeVarInt(out, tasks.size());
+        for (Task t : tasks) {
+            t.toBinary(out);
+        }
+    }
 }
@@ -0,0 +1,13 @@
+package model;
+
+import java.time.LocalDate;
+
+// ProjectObserver interface, required for classes that need to observe changes to a project and its tasks.
+// Observers are notified after the change has been applied
+public interface ProjectObserver {
+    void taskAdded(Task task);
+
+    void timeRecorded(Task task, LocalDate date, int minutesCompleted);
+
+    void durationsChanged(Task task);
+}
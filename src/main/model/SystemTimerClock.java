@@ -0,0 +1,43 @@
+package model;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Represents the production TimerClock, reading System.nanoTime and running scheduled tasks on a single
+// daemon thread shared by every timer session. Tasks run on that thread, so UI code has to hand results
+// over to its own thread. We use the Singleton Design Pattern so all sessions share the one scheduler thread
+public class SystemTimerClock implements TimerClock {
+    private static SystemTimerClock theClock;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    // EFFECTS: constructs a clock with a single daemon scheduler thread
+    // (Singleton Design Pattern)
+    private SystemTimerClock() {
+        scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "timer-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    // EFFECTS: Returns the only SystemTimerClock, creating it if it doesn't already exist
+    public static synchronized SystemTimerClock getInstance() {
+        if (theClock == null) {
+            theClock = new SystemTimerClock();
+        }
+        return theClock;
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public Cancellable schedule(Runnable task, long delayNanos) {
+        ScheduledFuture<?> future = scheduler.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+        return () -> future.cancel(false);
+    }
+}
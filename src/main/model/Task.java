@@ -2,43 +2,70 @@ package model;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.json.JSONWriter;
+import persistence.BinaryWritable;
+import persistence.MigrationPipeline;
+import persistence.StreamingWritable;
+import persistence.VarInts;
 import persistence.Writable;
 
+import java.io.DataOutput;
+import java.io.IOException;
 import java.time.LocalDate;
-import java.util.HashMap;
 import java.util.Map;
 
 // Represents a task, a task holds timer options (work duration and break duration)
-// A task also holds daily history of total minutes completed
-public class Task implements Writable {
+// A task also holds daily history of total minutes completed.
+// Every change to the durations or history increments a modification count, so that a store can tell
+// which tasks have changed since it last saved them.
+// A copy shares the history store with the task it was copied from, whichever of the two records time next
+// copies the store first, so snapshotting a project for a save does not copy every history
+public class Task implements Writable, StreamingWritable, BinaryWritable, DateRangeTotals {
     private String name;
     private int workDurationMinutes;
     private int breakDurationMinutes;
     private int longBreakDurationMinutes;
     private int totalMinutes;
+    private HistoryStore history;
+    private boolean historyShared;
     private Map<LocalDate, Integer> historyMap;
+    private HistoryRangeIndex rangeIndex;
+    private Project project;
+    private int modCount;
 
     // EFFECTS: Constructs a task with a given name, a map that holds dates:minutes
     // and default durations of work and break minutes
     public Task(String name) {
-        this.name = name;
-        this.workDurationMinutes = 25;
-        this.breakDurationMinutes = 5;
-        this.longBreakDurationMinutes = 15;
-        this.totalMinutes = 0;
-        this.historyMap = new HashMap<>();
-        EventLog.getInstance().logEvent(new Event("Created new task (" + name + ")"));
+        this(name, 25, 5, 15);
+        EventLog.getInstance().logEvent(Event.taskCreated(name));
     }
 
     // EFFECTS: Constructs a task with a given name and work/break durations,
     // and a map that holds dates:minutes
     public Task(String name, int workDurationMinutes, int breakDurationMinutes, int longBreakDurationMinutes) {
+        this(name, workDurationMinutes, breakDurationMinutes, longBreakDurationMinutes, new DayMinutesMap());
+    }
+
+    // EFFECTS: Constructs a task with a given name and work/break durations whose daily history
+    // is kept in the given store, the total minutes are summed from the entries already in the store
+    public Task(String name, int workDurationMinutes, int breakDurationMinutes, int longBreakDurationMinutes,
+                HistoryStore history) {
+        this(name, workDurationMinutes, breakDurationMinutes, longBreakDurationMinutes, history, 0);
+        history.forEach((epochDay, minutes) -> totalMinutes += minutes);
+    }
+
+    // REQUIRES: totalMinutes is the sum of the minutes in history
+    // EFFECTS: Constructs a task with a given name and work/break durations whose daily history
+    // is kept in the given store and whose total is already known, so the store is not read
+    public Task(String name, int workDurationMinutes, int breakDurationMinutes, int longBreakDurationMinutes,
+                HistoryStore history, int totalMinutes) {
         this.name = name;
         this.workDurationMinutes = workDurationMinutes;
         this.breakDurationMinutes = breakDurationMinutes;
         this.longBreakDurationMinutes = longBreakDurationMinutes;
-        this.totalMinutes = 0;
-        this.historyMap = new HashMap<>();
+        this.totalMinutes = totalMinutes;
+        this.history = history;
+        this.historyMap = new HistoryMapView(() -> this.history);
     }
 
     // REQUIRES: minutesCompleted >= 0
@@ -46,27 +73,92 @@ public class Task implements Writable {
     // EFFECTS: Adds minutesCompleted from a timer to the total minutes field.
     // Also adds the minutesCompleted to its associated date in the history dictionary.
     public void recordTime(LocalDate date, int minutesCompleted) {
+        int epochDay = EpochDays.of(date);
+        if (historyShared) {
+            history = history.copy();
+            historyShared = false;
+        }
+        history.add(epochDay, minutesCompleted);
         totalMinutes += minutesCompleted;
-        Integer dailyMinutes = historyMap.get(date);
-        if (dailyMinutes == null) {
-            dailyMinutes = minutesCompleted;
-        } else {
-            dailyMinutes += minutesCompleted;
+        if (rangeIndex != null && !rangeIndex.add(epochDay, minutesCompleted)) {
+            rangeIndex = null;
+        }
+        modCount++;
+        EventLog.getInstance().logEvent(Event.timeRecorded(name, minutesCompleted, epochDay));
+        if (project != null) {
+            project.notifyTimeRecorded(this, date, minutesCompleted);
         }
-        historyMap.put(date, dailyMinutes);
-        EventLog.getInstance().logEvent(new Event("Logged " + minutesCompleted + " minutes in task(" + getName()
-                + ") mapped to " + date));
     }
 
     public void setDurations(int workDurationMinutes, int breakDurationMinutes, int longBreakDurationMinutes) {
         this.workDurationMinutes = workDurationMinutes;
         this.breakDurationMinutes = breakDurationMinutes;
         this.longBreakDurationMinutes = longBreakDurationMinutes;
-        EventLog.getInstance().logEvent(new Event("Edited timer durations in task(" + getName()
-                + ") work duration: " + workDurationMinutes + " break duration: " + breakDurationMinutes
-                + " long break duration: " + longBreakDurationMinutes));
+        modCount++;
+        EventLog.getInstance().logEvent(Event.durationsChanged(name, workDurationMinutes,
+                breakDurationMinutes, longBreakDurationMinutes));
+        if (project != null) {
+            project.notifyDurationsChanged(this);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Returns a copy of this task that belongs to no project, the copy keeps this task's
+    // modification count. The two share the history store until either records time
+    public Task copy() {
+        historyShared = true;
+        Task copy = new Task(name, workDurationMinutes, breakDurationMinutes, longBreakDurationMinutes,
+                history, totalMinutes);
+        copy.historyShared = true;
+        copy.modCount = modCount;
+        return copy;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Sets the project this task belongs to, the project is notified of every change to this task
+    void setProject(Project project) {
+        this.project = project;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Returns the minutes recorded from from to to, both inclusive.
+    // Ranges the history can sum without reading entries that are not in memory are answered by it, otherwise
+    // the range index is built on first use and kept up to date by recordTime,
+    // it is rebuilt if time is recorded outside the range it covers
+    @Override
+    public int minutesBetween(LocalDate from, LocalDate to) {
+        int fromDay = clampToDay(from);
+        int toDay = clampToDay(to);
+        if (rangeIndex == null) {
+            int known = history.knownMinutesBetween(fromDay, toDay);
+            if (known != HistoryStore.UNKNOWN) {
+                return known;
+            }
+            rangeIndex = new HistoryRangeIndex(history);
+        }
+        return rangeIndex.minutesBetween(fromDay, toDay);
+    }
+
+    // EFFECTS: Returns the epoch day of date, clamped so that day arithmetic on it cannot overflow
+    private static int clampToDay(LocalDate date) {
+        long bound = Integer.MAX_VALUE / 2;
+        return (int) Math.max(-bound, Math.min(bound, date.toEpochDay()));
     }
 
+    // EFFECTS: Calls consumer with every day of the history and its minutes in ascending day order, without boxing;
+    // rethrows any exception thrown by consumer
+    public <E extends Exception> void forEachDay(DayMinutesConsumer<E> consumer) throws E {
+        history.forEach(consumer);
+    }
+
+    // EFFECTS: Calls consumer with every day of the history on or after fromEpochDay and its minutes in ascending day
+    // order and returns fromEpochDay, or gives only the days on or after a later day that the history holds without
+    // reading entries that are not in memory and returns that day; rethrows any exception thrown by consumer
+    public <E extends Exception> int forEachDaySince(int fromEpochDay, DayMinutesConsumer<E> consumer) throws E {
+        return history.forEachSince(fromEpochDay, consumer);
+    }
+
+    // EFFECTS: Returns a read-only view of the daily history keyed by date
     public Map<LocalDate, Integer> getHistoryMap() {
         return historyMap;
     }
@@ -87,6 +179,11 @@ public class Task implements Writable {
         return this.longBreakDurationMinutes;
     }
 
+    // EFFECTS: Returns the number of times the durations or history have changed since construction
+    public int getModCount() {
+        return modCount;
+    }
+
     public int getTotalMinutes() {
         return this.totalMinutes;
     }
@@ -105,17 +202,60 @@ public class Task implements Writable {
         return json;
     }
 
-    // EFFECTS: Iterates through every key value pair in historyMap and adds them to a JSONArray
+    // EFFECTS: Iterates through every day in the history and adds the date and minutes to a JSONArray
     private JSONArray historyMapToJson() {
         JSONArray jsonArray = new JSONArray();
-        JSONObject pair;
 
-        for (LocalDate key : historyMap.keySet()) {
-            pair = new JSONObject();
-            pair.put("date", key.toString());
-            pair.put("minutes_completed", historyMap.get(key));
+        history.forEach((epochDay, minutes) -> {
+            JSONObject pair = new JSONObject();
+            pair.put("date", LocalDate.ofEpochDay(epochDay).toString());
+            pair.put("minutes_completed", minutes);
             jsonArray.put(pair);
-        }
+        });
         return jsonArray;
     }
+
+    // EFFECTS: Emits the same JSON as toJson to writer, one history day at a time
+    @Override
+    public void toJson(JSONWriter writer) {
+        writeFields(writer.object());
+    }
+
+    // EFFECTS: Emits the task to writer as a document of its own, the same JSON as toJson
+    // starting with the schema version it is written in
+    public void toVersionedJson(JSONWriter writer) {
+        writeFields(writer.object().key(MigrationPipeline.VERSION_KEY).value(MigrationPipeline.CURRENT_VERSION));
+    }
+
+    // EFFECTS: Emits the task's fields and history to writer and closes the object they are in
+    private void writeFields(JSONWriter writer) {
+        writer.key("task_name").value(name)
+                .key("workDurationMinutes").value(workDurationMinutes)
+                .key("breakDurationMinutes").value(breakDurationMinutes)
+                .key("longBreakDurationMinutes").value(longBreakDurationMinutes)
+                .key("totalMinutes").value(totalMinutes)
+                .key("historyMap").array();
+        history.forEach((epochDay, minutes) -> writer.object()
+                .key("date").value(LocalDate.ofEpochDay(epochDay).toString())
+                .key("minutes_completed").value(minutes)
+                .endObject());
+        writer.endArray().endObject();
+    }
+
+    // EFFECTS: Writes the task to out in the binary snapshot format: name, durations and the number of
+    // history days, followed by each day in ascending order as an epoch day delta and its minutes
+    @Override
+    public void toBinary(DataOutput out) throws IOException {
+        out.writeUTF(name);
+        VarInts.writeVarInt(out, workDurationMinutes);
+        VarInts.writeVarInt(out, breakDurationMinutes);
+        VarInts.writeVarInt(out, longBreakDurationMinutes);
+        VarInts.writeVarInt(out, history.size());
+        int[] previousDay = {0};
+        history.forEach((epochDay, minutes) -> {
+            VarInts.writeSignedVarInt(out, epochDay - previousDay[0]);
+            VarInts.writeVarInt(out, minutes);
+            previousDay[0] = epochDay;
+        });
+    }
 }
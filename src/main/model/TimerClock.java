@@ -0,0 +1,20 @@
+package model;
+
+// Represents a monotonic clock that can also run a task once after a delay.
+// TimerSession measures and schedules all of its time through a TimerClock, so sessions do not depend on
+// any particular thread or UI toolkit, and tests can drive them with a clock they control
+public interface TimerClock {
+
+    // EFFECTS: Returns the current value of the clock in nanoseconds, only differences between values are meaningful
+    long nanoTime();
+
+    // EFFECTS: Runs task once, no earlier than delayNanos from now, and returns a handle that cancels it
+    Cancellable schedule(Runnable task, long delayNanos);
+
+    // Represents a task scheduled on a TimerClock that has not necessarily run yet
+    interface Cancellable {
+
+        // EFFECTS: Prevents the task from running if it has not started yet
+        void cancel();
+    }
+}
@@ -1,68 +1,97 @@
 package model;
 
-import javax.swing.Timer;
 import java.util.concurrent.CountDownLatch;
-
-// Represents a TimerSession, a TimerSession holds a java swing timer
-// A timer is set with a given amount of minutes and performs an operation every second.
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Represents a TimerSession, a TimerSession measures a given amount of minutes against a monotonic TimerClock.
+// Remaining and completed time are always computed from the clock, a tick is only scheduled for the deadline
+// (and once per displayed second for sessions that show a clock), so late ticks never slow the session down.
+// Ticks run on the clock's thread while controls are usually called from another. The whole state is packed
+// into one atomically updated word, the time value shifted left by two bits with the state in the low bits:
+// while running the value is the deadline (relative to the session's creation), otherwise it is the time remaining.
+// Start, pause, cancel and complete are compare-and-set transitions on that word, so any thread can read a
+// consistent state without locking.
 // The object is also given a latch to notify the main thread when it is complete
 public class TimerSession {
-    private final int timerDurationMinutes;
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    // Ticks land just after a second boundary so the displayed second has already changed
+    private static final long TICK_SLACK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final int STATE_BITS = 2;
+    private static final long STATE_MASK = (1L << STATE_BITS) - 1;
+    private static final int PAUSED = 0;
+    private static final int RUNNING = 1;
+    private static final int COMPLETE = 2;
+    private static final int CANCELLED = 3;
+
+    private final long durationNanos;
     private final CountDownLatch latch;
-
-    private int minutesRemaining;
-    private int secondsRemaining;
-    private int secondsCompleted;
-    private Timer timer;
-    private Boolean timerCancelled;
-    private Boolean timerComplete;
+    private final TimerClock clock;
+    private final long originNanos;
+    private final AtomicLong state;
+    private final AtomicReference<TimerClock.Cancellable> nextTick;
 
 
-    // EFFECTS: constructs a timerSession with the given duration,
-    // Instantiates a new latch and initializes the timerCancelled and timerComplete boolean values
-    // Instantiates a timer that triggers tick every 1000ms
+    // EFFECTS: constructs a timerSession with the given duration measured by the system clock
     public TimerSession(int minutes) {
-        this.timerDurationMinutes = minutes;
-        this.minutesRemaining = minutes;
-        this.secondsRemaining = 0;
-        this.secondsCompleted = 0;
-        this.timerCancelled = false;
-        this.timerComplete = false;
+        this(minutes, SystemTimerClock.getInstance());
+    }
+
+    // EFFECTS: constructs a paused timerSession with the given duration measured and scheduled by the given clock,
+    // Instantiates a new latch
+    public TimerSession(int minutes, TimerClock clock) {
+        this.durationNanos = TimeUnit.MINUTES.toNanos(minutes);
+        this.clock = clock;
+        this.originNanos = clock.nanoTime();
+        this.state = new AtomicLong(pack(durationNanos, PAUSED));
+        this.nextTick = new AtomicReference<>();
         this.latch = new CountDownLatch(1);
-        this.timer = new Timer(1000, e -> {
-            tick();
-        });
     }
 
     // MODIFIES: this
-    // EFFECTS: increments secondsCompleted, and reduces secondsRemaining if >=1
-    // Otherwise reduces minutesRemaining and sets secondsRemaining to 59
-    // Once complete, the timer is marked complete and the latch is counted down in order to notify awaiting threads
+    // EFFECTS: Once the deadline has passed, the timer is marked complete and the latch is counted down
+    // in order to notify awaiting threads. Otherwise the next tick is scheduled
     public void tick() {
-        secondsCompleted++;
-        if (secondsRemaining >= 1) {
-            secondsRemaining--;
-            if (secondsRemaining <= 0 && minutesRemaining <= 0) {
-                timer.stop();
-                timerComplete = true;
-                this.latch.countDown();
+        long current = state.get();
+        if (stateOf(current) != RUNNING) {
+            return;
+        }
+        if (valueOf(current) <= now()) {
+            if (state.compareAndSet(current, pack(0, COMPLETE))) {
+                nextTick.set(null);
+                latch.countDown();
             }
         } else {
-            minutesRemaining--;
-            secondsRemaining = 59;
+            scheduleTick(current);
         }
     }
 
     // MODIFIES: this
-    // EFFECTS: Starts 1s timer
+    // EFFECTS: Starts a paused session, measuring the time remaining from now, and schedules the next tick
     public void startTimer() {
-        timer.start();
+        long current = state.get();
+        while (stateOf(current) == PAUSED) {
+            long running = pack(now() + valueOf(current), RUNNING);
+            if (state.compareAndSet(current, running)) {
+                scheduleTick(running);
+                return;
+            }
+            current = state.get();
+        }
     }
 
     // MODIFIES: this
-    // EFFECTS: Stops 1s timer
+    // EFFECTS: Pauses a running session, keeping the time remaining
     public void pauseTimer() {
-        timer.stop();
+        long current = state.get();
+        while (stateOf(current) == RUNNING) {
+            if (state.compareAndSet(current, pack(remainingNanos(current), PAUSED))) {
+                cancelTick();
+                return;
+            }
+            current = state.get();
+        }
     }
 
     // REQUIRES: Timer has been started
@@ -73,55 +102,147 @@ public class TimerSession {
     }
 
     // MODIFIES: this
-    // EFFECTS: Stops the timer and sets timer cancelled to true.
+    // EFFECTS: Stops a session that is not complete, keeping the time remaining, and sets it cancelled.
     // The Latch is also counted down to notify main thread.
     public void cancelTimer() {
-        timer.stop();
-        timerCancelled = true;
-        latch.countDown();
-    }
-
-    // For testing purposes
-    // REQUIRES: this.minutes >= minutes, this.seconds >= seconds
-    // MODIFIES: this
-    // EFFECTS: Decreases minutes and seconds by given amounts
-    public void fastForwardTimer(int minutes, int seconds) {
-        minutesRemaining -= minutes;
-        secondsRemaining -= seconds;
+        long current = state.get();
+        while (stateOf(current) == PAUSED || stateOf(current) == RUNNING) {
+            if (state.compareAndSet(current, pack(remainingNanos(current), CANCELLED))) {
+                cancelTick();
+                latch.countDown();
+                return;
+            }
+            current = state.get();
+        }
     }
 
-    // EFFECTS: Subtracts minutesRemaining from timerDurationMinutes and returns the value
-    // If there are seconds remaining, subtract 1 from returned value (incomplete minute)
+    // EFFECTS: Returns the number of whole minutes that have elapsed, an incomplete minute is not counted
     public int calculateCompletedMinutes() {
-        if (secondsRemaining > 0) {
-            return (timerDurationMinutes - minutesRemaining - 1);
-        }
-        return (timerDurationMinutes - minutesRemaining);
+        return (int) TimeUnit.NANOSECONDS.toMinutes(durationNanos - remainingNanos(state.get()));
     }
 
     // EFFECTS: Returns a boolean value on the state of the timer
     // Returns True if the timer is running, false otherwise
     public boolean isTimerRunning() {
-        return timer.isRunning();
+        return stateOf(state.get()) == RUNNING;
     }
 
     public boolean isTimerComplete() {
-        return timerComplete;
+        return stateOf(state.get()) == COMPLETE;
     }
 
     public boolean isTimerCancelled() {
-        return timerCancelled;
+        return stateOf(state.get()) == CANCELLED;
     }
 
+    // EFFECTS: Returns the minutes part of the remaining time, rounded up to the next whole second
     public int getMinutesRemaining() {
-        return minutesRemaining;
+        return getTotalSecondsRemaining() / 60;
     }
 
+    // EFFECTS: Returns the seconds part of the remaining time, rounded up to the next whole second
     public int getSecondsRemaining() {
-        return secondsRemaining;
+        return getTotalSecondsRemaining() % 60;
+    }
+
+    // EFFECTS: Returns the remaining time in whole seconds, rounded up so a session shows its full duration
+    // until the first second has passed and shows 0:00 only once no time remains
+    public int getTotalSecondsRemaining() {
+        return (int) ((remainingNanos(state.get()) + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+    }
+
+    public int getDurationSeconds() {
+        return (int) TimeUnit.NANOSECONDS.toSeconds(durationNanos);
     }
 
+    // EFFECTS: Returns the number of whole seconds that have elapsed
     public int getSecondsCompleted() {
-        return secondsCompleted;
+        return (int) TimeUnit.NANOSECONDS.toSeconds(durationNanos - remainingNanos(state.get()));
+    }
+
+    // EFFECTS: Returns true if the session should tick every time the displayed remaining time changes,
+    // otherwise it only ticks at its deadline. Sessions that display a clock override this
+    protected boolean ticksEverySecond() {
+        return false;
+    }
+
+    // EFFECTS: Returns the clock's time relative to the session's creation
+    private long now() {
+        return clock.nanoTime() - originNanos;
+    }
+
+    // EFFECTS: Returns the time remaining in the given state word, never less than zero
+    private long remainingNanos(long word) {
+        if (stateOf(word) == RUNNING) {
+            return Math.max(0, valueOf(word) - now());
+        }
+        return valueOf(word);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Replaces any scheduled tick with one just after the deadline,
+    // or just after the displayed remaining time next changes if the session ticks every second.
+    // The tick only runs if the state is still the given running word when it fires.
+    // The new tick is only installed while the state is still the given running word, so a tick thread that was
+    // held up while the session was paused and started again never replaces or cancels the newer session's tick,
+    // it only drops its own
+    private void scheduleTick(long running) {
+        long delay = remainingNanos(running);
+        if (ticksEverySecond() && delay > NANOS_PER_SECOND) {
+            delay %= NANOS_PER_SECOND;
+            if (delay == 0) {
+                delay = NANOS_PER_SECOND;
+            }
+        }
+        TimerClock.Cancellable previous = nextTick.get();
+        TimerClock.Cancellable scheduled = clock.schedule(() -> onScheduledTick(running), delay + TICK_SLACK_NANOS);
+        while (state.get() == running) {
+            if (nextTick.compareAndSet(previous, scheduled)) {
+                if (previous != null) {
+                    previous.cancel();
+                }
+                if (state.get() == running) {
+                    return;
+                }
+                // the state changed while installing, whoever changed it may already have cleared the tick
+                nextTick.compareAndSet(scheduled, null);
+                break;
+            }
+            previous = nextTick.get();
+        }
+        scheduled.cancel();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Cancels the scheduled tick, if any
+    private void cancelTick() {
+        TimerClock.Cancellable previous = nextTick.getAndSet(null);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Ticks unless the session has been paused, resumed, cancelled or completed since the tick
+    // was scheduled, so a wakeup that could not be cancelled in time has no effect
+    private void onScheduledTick(long running) {
+        if (state.get() == running) {
+            tick();
+        }
+    }
+
+    // EFFECTS: Returns the state word holding the given time value and state
+    private static long pack(long value, int stateBits) {
+        return (value << STATE_BITS) | stateBits;
+    }
+
+    // EFFECTS: Returns the time value held in the state word
+    private static long valueOf(long word) {
+        return word >> STATE_BITS;
+    }
+
+    // EFFECTS: Returns the state held in the state word
+    private static int stateOf(long word) {
+        return (int) (word & STATE_MASK);
     }
 }
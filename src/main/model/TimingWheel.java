@@ -0,0 +1,265 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Represents a hierarchical timing wheel, a TimerClock meant to host a very large number of timer sessions at once.
+// Time is divided into ticks of a fixed resolution. Level 0 has one slot per tick, every level above it has slots
+// covering a whole revolution of the level below; a task is linked into the slot of the coarsest level it fits
+// in and moves down a level each time its slot comes around, so scheduling and cancelling are O(1) whatever the
+// number of sessions. All tasks that become due on the same tick are fired together as one batch,
+// outside the wheel's lock so they are free to schedule or cancel other tasks.
+// The wheel is advanced either by its own driver thread (start) or by calling advanceTo directly
+public class TimingWheel implements TimerClock {
+    public static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 6;
+    private static final long MAX_DELTA_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final long tickNanos;
+    private final LongSupplier timeSource;
+    private final long originNanos;
+    private final Entry[][] wheels;
+    private long currentTick;
+    private int size;
+    private Thread driver;
+
+    // EFFECTS: constructs a wheel with the default resolution driven by System.nanoTime
+    public TimingWheel() {
+        this(DEFAULT_TICK_NANOS, System::nanoTime);
+    }
+
+    // REQUIRES: tickNanos > 0
+    // EFFECTS: constructs a wheel with the given resolution that reads the time from timeSource
+    public TimingWheel(long tickNanos, LongSupplier timeSource) {
+        this.tickNanos = tickNanos;
+        this.timeSource = timeSource;
+        this.originNanos = timeSource.getAsLong();
+        this.wheels = new Entry[LEVELS][SLOTS];
+        for (Entry[] level : wheels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                level[slot] = Entry.sentinel();
+            }
+        }
+        this.currentTick = 0;
+        this.size = 0;
+    }
+
+    @Override
+    public long nanoTime() {
+        return timeSource.getAsLong();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Links task into the wheel so that it fires on the first tick at or after delayNanos from now,
+    // returns a handle that unlinks it again in O(1)
+    @Override
+    public Cancellable schedule(Runnable task, long delayNanos) {
+        long now = timeSource.getAsLong() - originNanos;
+        long deadline = now + Math.max(0, delayNanos);
+        Entry entry = new Entry(task, (deadline + tickNanos - 1) / tickNanos);
+        synchronized (this) {
+            if (entry.deadlineTick <= currentTick) {
+                entry.deadlineTick = currentTick + 1;
+            }
+            link(entry);
+            size++;
+        }
+        return () -> cancel(entry);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Processes every tick up to the given time, firing each tick's due tasks as one batch
+    public void advanceTo(long nowNanos) {
+        long targetTick = (nowNanos - originNanos) / tickNanos;
+        List<Entry> batch = new ArrayList<>();
+        while (true) {
+            synchronized (this) {
+                if (currentTick >= targetTick) {
+                    return;
+                }
+                if (size == 0) {
+                    currentTick = targetTick;
+                    return;
+                }
+                currentTick++;
+                cascade();
+                collect(wheels[0][(int) (currentTick & SLOT_MASK)], batch);
+                size -= batch.size();
+            }
+            fire(batch);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Starts a daemon thread that advances the wheel to the current time once per tick
+    public synchronized void start() {
+        if (driver != null) {
+            return;
+        }
+        driver = new Thread(this::drive, "timing-wheel");
+        driver.setDaemon(true);
+        driver.start();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Stops the driver thread, scheduled tasks stay in the wheel
+    public void stop() {
+        Thread stopping;
+        synchronized (this) {
+            stopping = driver;
+            driver = null;
+        }
+        if (stopping != null) {
+            stopping.interrupt();
+        }
+    }
+
+    // EFFECTS: Returns the number of tasks that are scheduled and have not fired or been cancelled
+    public synchronized int size() {
+        return size;
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    // EFFECTS: Advances the wheel once per tick until the driver is stopped
+    private void drive() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                TimeUnit.NANOSECONDS.sleep(tickNanos);
+                advanceTo(timeSource.getAsLong());
+            }
+        } catch (InterruptedException e) {
+            // stopped
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Unlinks the entry if it has not been collected for firing yet,
+    // an entry already in a batch is marked so that it is skipped
+    private synchronized void cancel(Entry entry) {
+        if (entry.cancelled) {
+            return;
+        }
+        entry.cancelled = true;
+        if (entry.next != null) {
+            entry.unlink();
+            size--;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Links the entry into the slot of the coarsest level whose revolution still covers its deadline,
+    // deadlines further away than the whole wheel are parked on the top level and placed again when reached
+    private void link(Entry entry) {
+        long delta = Math.min(entry.deadlineTick - currentTick, MAX_DELTA_TICKS);
+        long placeTick = currentTick + delta;
+        int level = 0;
+        while (delta >= SLOTS && level < LEVELS - 1) {
+            delta >>>= SLOT_BITS;
+            level++;
+        }
+        int slot = (int) ((placeTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        wheels[level][slot].append(entry);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Each time a level completes a revolution, moves the entries of the next slot of the level above
+    // down into the finer levels, starting from the coarsest level that is due
+    private void cascade() {
+        int level = 1;
+        while (level < LEVELS && (currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+            level++;
+        }
+        for (int due = level - 1; due >= 1; due--) {
+            Entry head = wheels[due][(int) ((currentTick >>> (SLOT_BITS * due)) & SLOT_MASK)];
+            Entry entry = head.next;
+            head.next = head;
+            head.prev = head;
+            while (entry != head) {
+                Entry next = entry.next;
+                entry.next = null;
+                entry.prev = null;
+                link(entry);
+                entry = next;
+            }
+        }
+    }
+
+    // MODIFIES: this, batch
+    // EFFECTS: Moves every entry of the given slot into batch, entries parked for later deadlines are placed again
+    private void collect(Entry head, List<Entry> batch) {
+        Entry entry = head.next;
+        head.next = head;
+        head.prev = head;
+        while (entry != head) {
+            Entry next = entry.next;
+            entry.next = null;
+            entry.prev = null;
+            if (entry.deadlineTick <= currentTick) {
+                batch.add(entry);
+            } else {
+                link(entry);
+            }
+            entry = next;
+        }
+    }
+
+    // MODIFIES: batch
+    // EFFECTS: Runs every task in the batch that has not been cancelled and clears the batch
+    private void fire(List<Entry> batch) {
+        for (Entry entry : batch) {
+            if (!entry.cancelled) {
+                entry.task.run();
+            }
+        }
+        batch.clear();
+    }
+
+    // Represents a scheduled task, linked into a circular doubly linked slot list so it can be removed in O(1)
+    private static class Entry {
+        private final Runnable task;
+        private long deadlineTick;
+        private Entry prev;
+        private Entry next;
+        private volatile boolean cancelled;
+
+        // EFFECTS: constructs an unlinked entry
+        Entry(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        // EFFECTS: Returns an empty slot list head
+        static Entry sentinel() {
+            Entry head = new Entry(null, Long.MAX_VALUE);
+            head.prev = head;
+            head.next = head;
+            return head;
+        }
+
+        // MODIFIES: this, entry
+        // EFFECTS: Appends entry to the end of this slot list
+        void append(Entry entry) {
+            entry.prev = prev;
+            entry.next = this;
+            prev.next = entry;
+            prev = entry;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: Removes this entry from its slot list
+        void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+}
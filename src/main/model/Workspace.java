@@ -0,0 +1,33 @@
+package model;
+
+import java.util.*;
+
+// Represents a workspace, a workspace holds multiple projects indexed by project name
+public class Workspace {
+    private Map<String, Project> projects;
+
+    // EFFECTS: constructs an empty workspace
+    public Workspace() {
+        this.projects = new LinkedHashMap<>();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Adds a project to the workspace, only if no project with the same name is present
+    public boolean addProject(Project project) {
+        return projects.putIfAbsent(project.getName(), project) == null;
+    }
+
+    // EFFECTS: Returns the project with the given name, or null if not present
+    public Project getProject(String name) {
+        return projects.get(name);
+    }
+
+    // EFFECTS: Returns a read-only view of the projects in the order they were added
+    public Collection<Project> getProjects() {
+        return Collections.unmodifiableCollection(projects.values());
+    }
+
+    public int size() {
+        return projects.size();
+    }
+}
@@ -0,0 +1,69 @@
+package persistence;
+
+import model.DayMinutesMap;
+import model.Project;
+import model.Task;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+// Represents a reader that reads in a project from a binary snapshot written by BinaryWriter
+public class BinaryReader {
+    private String source;
+
+    // EFFECTS: constructs reader to read from source file
+    public BinaryReader(String source) {
+        this.source = source;
+    }
+
+    // EFFECTS: reads project from file and returns it;
+    // throws IOException if an error occurs reading data from file,
+    // or if the file is not a binary snapshot of a supported version
+    public Project read() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(source)))) {
+            readHeader(in);
+            return parseProject(in);
+        }
+    }
+
+    // EFFECTS: reads and validates the format header
+    private void readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != BinaryWriter.MAGIC) {
+            throw new IOException("Not a binary project snapshot: " + source);
+        }
+        int version = in.readUnsignedByte();
+        if (version != BinaryWriter.FORMAT_VERSION) {
+            throw new IOException("Unsupported binary snapshot version " + version + ": " + source);
+        }
+    }
+
+    // EFFECTS: parses project from the input and returns it
+    private Project parseProject(DataInputStream in) throws IOException {
+        Project project = new Project(in.readUTF());
+        int taskCount = VarInts.readVarInt(in);
+        List<Task> tasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            tasks.add(parseTask(in));
+        }
+        project.restoreTasks(tasks);
+        return project;
+    }
+
+    // EFFECTS: parses task and its history from the input and returns it,
+    // the history is collected first and handed to the task in one go so no event is logged per day
+    static Task parseTask(DataInput in) throws IOException {
+        String name = in.readUTF();
+        int workDurationMinutes = VarInts.readVarInt(in);
+        int breakDurationMinutes = VarInts.readVarInt(in);
+        int longBreakDurationMinutes = VarInts.readVarInt(in);
+        DayMinutesMap history = new DayMinutesMap();
+        int days = VarInts.readVarInt(in);
+        int epochDay = 0;
+        for (int i = 0; i < days; i++) {
+            epochDay += VarInts.readSignedVarInt(in);
+            history.add(epochDay, VarInts.readVarInt(in));
+        }
+        return new Task(name, workDurationMinutes, breakDurationMinutes, longBreakDurationMinutes, history);
+    }
+}
@@ -0,0 +1,11 @@
+package persistence;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+// Binary counterpart of Writable, implemented by objects that can be written to a binary project snapshot
+public interface BinaryWritable {
+    // EFFECTS: writes this to out in the binary snapshot format,
+    // throws IOException if out cannot be written to
+    void toBinary(DataOutput out) throws IOException;
+}
@@ -0,0 +1,41 @@
+package persistence;
+
+import model.Project;
+
+import java.io.*;
+
+// Represents a writer that writes a compact, versioned binary snapshot of a project to file.
+// JSON remains the export format, this format trades readability for size and speed
+public class BinaryWriter {
+    public static final int MAGIC = 0x54545042;
+    public static final int FORMAT_VERSION = 1;
+    private DataOutputStream writer;
+    private String destination;
+
+    // EFFECTS: constructs writer to write to destination file
+    public BinaryWriter(String destination) {
+        this.destination = destination;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens writer; throws FileNotFoundException if destination file cannot
+    // be opened for writing
+    public void open() throws FileNotFoundException {
+        writer = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(destination)));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the format header followed by the binary representation of project to file,
+    // throws IOException if the file cannot be written to
+    public void write(Project project) throws IOException {
+        writer.writeInt(MAGIC);
+        writer.writeByte(FORMAT_VERSION);
+        project.toBinary(writer);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: flushes and closes writer, throws IOException if buffered data cannot be written
+    public void close() throws IOException {
+        writer.close();
+    }
+}
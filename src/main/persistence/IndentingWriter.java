@@ -0,0 +1,84 @@
+package persistence;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+// Represents a writer that lays out compact JSON text as it passes through, one member or element per line
+// indented by four spaces per level, like JSONObject.toString(4). It only keeps the nesting depth and whether
+// it is inside a string, so pretty output is streamed in constant memory like compact output.
+// The text written to it must be compact JSON, without whitespace between tokens
+class IndentingWriter extends FilterWriter {
+    private static final String INDENT = "    ";
+
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+    private boolean opened;
+
+    // EFFECTS: constructs a writer that writes the indented text to out
+    IndentingWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        if (inString) {
+            out.write(c);
+            if (escaped) {
+                escaped = false;
+            } else if (c == '\\') {
+                escaped = true;
+            } else if (c == '"') {
+                inString = false;
+            }
+            return;
+        }
+        if (c == '}' || c == ']') {
+            depth--;
+            if (!opened) {
+                newLine();
+            }
+            opened = false;
+            out.write(c);
+            return;
+        }
+        if (opened) {
+            opened = false;
+            newLine();
+        }
+        out.write(c);
+        if (c == '{' || c == '[') {
+            depth++;
+            opened = true;
+        } else if (c == ',') {
+            newLine();
+        } else if (c == ':') {
+            out.write(' ');
+        } else if (c == '"') {
+            inString = true;
+        }
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            write(chars[i]);
+        }
+    }
+
+    @Override
+    public void write(String text, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            write(text.charAt(i));
+        }
+    }
+
+    // EFFECTS: starts a new line indented to the current depth
+    private void newLine() throws IOException {
+        out.write('\n');
+        for (int i = 0; i < depth; i++) {
+            out.write(INDENT);
+        }
+    }
+}
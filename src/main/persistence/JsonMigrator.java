@@ -0,0 +1,115 @@
+package persistence;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.json.JSONWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+// Represents a migrator that upgrades a project JSON file to the current schema version in two streaming passes.
+// The first finds the schema version wherever the source keeps it, skipping other values without building them.
+// The second reads the source token by token and writes it straight back out through a JsonWriter, one task object
+// at a time, so files of any size can be upgraded without holding the document in memory and the destination is only
+// replaced once the whole upgraded document has been written. Top level keys the reader does not know are kept
+public class JsonMigrator {
+    private String source;
+    private MigrationPipeline migrations;
+
+    // EFFECTS: constructs migrator to upgrade the source file
+    public JsonMigrator(String source) {
+        this.source = source;
+        this.migrations = new MigrationPipeline();
+    }
+
+    // EFFECTS: returns the schema version of the source file, or the legacy version if it has none, reading no
+    // further than its first key when the version comes first and skipping other values without building them;
+    // throws IOException if the file cannot be read or is not a project
+    public int readVersion() throws IOException {
+        try (Reader reader = Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8)) {
+            JSONTokener tokener = new JSONTokener(reader);
+            JsonReader.expect(tokener, '{');
+            if (!JsonReader.isEnd(tokener, '}')) {
+                do {
+                    if (JsonReader.nextKey(tokener).equals(MigrationPipeline.VERSION_KEY)) {
+                        return JsonReader.parseVersion(tokener, migrations);
+                    }
+                    JsonReader.skipValue(tokener);
+                } while (JsonReader.hasNextElement(tokener, '}'));
+            }
+            return MigrationPipeline.LEGACY_VERSION;
+        } catch (JSONException e) {
+            throw new IOException("Invalid project " + source + ": " + e.getMessage(), e);
+        }
+    }
+
+    // MODIFIES: source file
+    // EFFECTS: upgrades the source file in place unless it already has the current schema version,
+    // returns the version it had; throws IOException if it cannot be read, upgraded or written,
+    // in which case the file is left as it was
+    public int migrate() throws IOException {
+        int version = readVersion();
+        if (version != MigrationPipeline.CURRENT_VERSION) {
+            migrateTo(source);
+        }
+        return version;
+    }
+
+    // EFFECTS: writes the source file upgraded to the current schema version to destination, which may be the
+    // source itself, and returns the version the source had; throws IOException if the source cannot be read
+    // or upgraded or the destination cannot be written, in which case the destination is left as it was.
+    // The version is read first, so tasks are upgraded as they are copied wherever the source keeps it
+    public int migrateTo(String destination) throws IOException {
+        int version = readVersion();
+        JsonWriter jsonWriter = new JsonWriter(destination);
+        try (Reader reader = Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8)) {
+            JSONTokener tokener = new JSONTokener(reader);
+            jsonWriter.open();
+            jsonWriter.write(writer -> copyProject(tokener, writer, version));
+        } catch (JSONException e) {
+            throw new IOException("Unable to migrate " + source + ": " + e.getMessage(), e);
+        }
+        // the source is closed before the upgraded file can replace it
+        jsonWriter.close();
+        return version;
+    }
+
+    // EFFECTS: copies the project object from tokener to writer with the current schema version first
+    // and every task upgraded from the given schema version
+    private void copyProject(JSONTokener tokener, JSONWriter writer, int version) {
+        writer.object().key(MigrationPipeline.VERSION_KEY).value(MigrationPipeline.CURRENT_VERSION);
+        JsonReader.expect(tokener, '{');
+        if (!JsonReader.isEnd(tokener, '}')) {
+            do {
+                String key = JsonReader.nextKey(tokener);
+                if (key.equals(MigrationPipeline.VERSION_KEY)) {
+                    tokener.nextValue();
+                } else if (key.equals("tasks")) {
+                    writer.key(key);
+                    copyTasks(tokener, writer, version);
+                } else {
+                    writer.key(key).value(tokener.nextValue());
+                }
+            } while (JsonReader.hasNextElement(tokener, '}'));
+        }
+        writer.endObject();
+    }
+
+    // EFFECTS: copies the task array from tokener to writer one task object at a time,
+    // upgrading each from the given schema version
+    private void copyTasks(JSONTokener tokener, JSONWriter writer, int version) {
+        writer.array();
+        JsonReader.expect(tokener, '[');
+        if (!JsonReader.isEnd(tokener, ']')) {
+            do {
+                JSONObject task = migrations.migrateTask(new JSONObject(tokener), version);
+                writer.value(task);
+            } while (JsonReader.hasNextElement(tokener, ']'));
+        }
+        writer.endArray();
+    }
+}
@@ -3,83 +3,230 @@ package persistence;
 import model.*;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.LocalDate;
-import java.util.stream.Stream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
 
 import org.json.*;
 
 // Code influenced by JsonSerializationDemo: https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo
 
-// Represents a reader that reads in a project from JSON data stored in file
+// Represents a reader that reads in a project from JSON data stored in file.
+// The file is streamed through a tokener rather than read into a single string, the top level
+// project object and its task array are walked token by token and only one task is materialized at a time.
+// Each task object is upgraded from the document's schema version to the current one as it is read
 public class JsonReader {
+    // Schema version of a document whose schema_version key has not been read yet
+    private static final int UNKNOWN_VERSION = 0;
     private String source;
+    private IntConsumer progressListener;
+    private MigrationPipeline migrations;
 
     // EFFECTS: constructs reader to read from source file
     public JsonReader(String source) {
         this.source = source;
+        this.progressListener = tasksRead -> { };
+        this.migrations = new MigrationPipeline();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets a listener that is given the number of tasks parsed so far after each task is parsed
+    public void setProgressListener(IntConsumer progressListener) {
+        this.progressListener = progressListener;
     }
 
     // EFFECTS: reads project from file and returns it;
     // throws IOException if an error occurs reading data from file
     public Project read() throws IOException {
-        String jsonData = readFile(source);
-        JSONObject jsonObject = new JSONObject(jsonData);
-        return parseProject(jsonObject);
+        try (Reader reader = Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8)) {
+            return parseProject(new JSONTokener(reader));
+        }
     }
 
-    // EFFECTS: reads source file as string and returns it
-    private String readFile(String source) throws IOException {
-        StringBuilder contentBuilder = new StringBuilder();
-
-        try (Stream<String> stream = Files.lines(Paths.get(source), StandardCharsets.UTF_8)) {
-            stream.forEach(s -> contentBuilder.append(s));
+    // EFFECTS: parses project from the tokener and returns it,
+    // keys other than schema_version, project_name and tasks are skipped.
+    // Tasks are collected until the project name is known since key order is not guaranteed.
+    // Tasks are upgraded as they are read once the schema version is known, which it is from the start when it is
+    // the first key as written by this application. Task objects read before it are kept as they are and
+    // upgraded once it is read, or as the legacy version if the project has none
+    private Project parseProject(JSONTokener tokener) {
+        String name = null;
+        int version = UNKNOWN_VERSION;
+        List<JSONObject> unversioned = new ArrayList<>();
+        List<Task> tasks = new ArrayList<>();
+        expect(tokener, '{');
+        if (!isEnd(tokener, '}')) {
+            do {
+                String key = nextKey(tokener);
+                if (key.equals(MigrationPipeline.VERSION_KEY)) {
+                    if (version != UNKNOWN_VERSION) {
+                        throw tokener.syntaxError("Duplicate " + MigrationPipeline.VERSION_KEY);
+                    }
+                    version = parseVersion(tokener, migrations);
+                    parseUnversioned(unversioned, tasks, version);
+                } else if (key.equals("tasks")) {
+                    parseTasks(tokener, tasks, unversioned, version);
+                } else if (key.equals("project_name")) {
+                    name = tokener.nextValue().toString();
+                } else {
+                    skipValue(tokener);
+                }
+            } while (hasNextElement(tokener, '}'));
         }
-
-        return contentBuilder.toString();
+        if (name == null) {
+            throw new JSONException("JSONObject[\"project_name\"] not found.");
+        }
+        parseUnversioned(unversioned, tasks, MigrationPipeline.LEGACY_VERSION);
+        return createProject(name, tasks);
     }
 
-    // EFFECTS: parses project from JSON object and returns it
-    private Project parseProject(JSONObject jsonObject) {
-        String name = jsonObject.getString("project_name");
+    // EFFECTS: creates a project with the given name and restores the given tasks into it
+    private Project createProject(String name, List<Task> tasks) {
         Project project = new Project(name);
-        addTasks(project, jsonObject);
+        project.restoreTasks(tasks);
         return project;
     }
 
-    // MODIFIES: project
-    // EFFECTS: parses tasks from JSON object and adds them to project
-    private void addTasks(Project project, JSONObject jsonObject) {
-        JSONArray jsonTasksArray = jsonObject.getJSONArray("tasks");
-        for (Object json : jsonTasksArray) {
-            JSONObject nextTask = (JSONObject) json;
-            addTask(project, nextTask);
+    // EFFECTS: parses the schema version value and returns it;
+    // throws JSONException if it is not a version migrations can read
+    static int parseVersion(JSONTokener tokener, MigrationPipeline migrations) {
+        Object version = tokener.nextValue();
+        if (!(version instanceof Integer)) {
+            throw tokener.syntaxError(MigrationPipeline.VERSION_KEY + " must be an integer");
         }
+        return migrations.checkSupported((Integer) version);
     }
 
-    // MODIFIES: project
-    // EFFECTS: parses task from JSON object and adds it to project
-    private void addTask(Project project, JSONObject jsonObject) {
+    // MODIFIES: tasks, unversioned
+    // EFFECTS: parses the task array one task object at a time and appends each task to tasks, upgrading it from
+    // the given schema version. While the version is unknown the task objects are appended to unversioned instead
+    private void parseTasks(JSONTokener tokener, List<Task> tasks, List<JSONObject> unversioned, int version) {
+        expect(tokener, '[');
+        if (isEnd(tokener, ']')) {
+            return;
+        }
+        do {
+            JSONObject task = new JSONObject(tokener);
+            if (version == UNKNOWN_VERSION) {
+                unversioned.add(task);
+            } else {
+                tasks.add(parseTask(migrations.migrateTask(task, version)));
+            }
+            progressListener.accept(tasks.size() + unversioned.size());
+        } while (hasNextElement(tokener, ']'));
+    }
+
+    // MODIFIES: tasks, unversioned
+    // EFFECTS: upgrades the task objects in unversioned from the given schema version, appends them to tasks
+    // ahead of the tasks read after them and empties unversioned
+    private void parseUnversioned(List<JSONObject> unversioned, List<Task> tasks, int version) {
+        List<Task> parsed = new ArrayList<>();
+        for (JSONObject task : unversioned) {
+            parsed.add(parseTask(migrations.migrateTask(task, version)));
+        }
+        tasks.addAll(0, parsed);
+        unversioned.clear();
+    }
+
+    // EFFECTS: parses task from JSON object and returns it,
+    // the history is collected first and handed to the task in one go so no event is logged per day
+    static Task parseTask(JSONObject jsonObject) {
         String name = jsonObject.getString("task_name");
         int workDurationMinutes = jsonObject.getInt("workDurationMinutes");
         int breakDurationMinutes = jsonObject.getInt("breakDurationMinutes");
         int longBreakDurationMinutes = jsonObject.getInt("longBreakDurationMinutes");
-        JSONArray jsonHistoryMapArray = jsonObject.getJSONArray("historyMap");
-        Task task = new Task(name, workDurationMinutes, breakDurationMinutes, longBreakDurationMinutes);
+        DayMinutesMap history = parseHistory(jsonObject);
+        return new Task(name, workDurationMinutes, breakDurationMinutes, longBreakDurationMinutes, history);
+    }
+
+    // EFFECTS: parses the history of the task in the JSON object and returns it
+    static DayMinutesMap parseHistory(JSONObject jsonObject) {
+        return parseHistory(jsonObject.getJSONArray("historyMap"));
+    }
+
+    // EFFECTS: parses an array of days and the minutes completed on them and returns it as a history
+    static DayMinutesMap parseHistory(JSONArray jsonHistoryMapArray) {
+        DayMinutesMap history = new DayMinutesMap();
         for (Object json : jsonHistoryMapArray) {
             JSONObject nextDay = (JSONObject) json;
-            recordHistoryMap(task, nextDay);
+            recordHistoryMap(history, nextDay);
         }
-        project.addTask(task);
+        return history;
     }
 
-    // MODIFIES: task
-    // EFFECTS: Takes dates and minutes completed from the jsonObject and records it in the given task
-    private void recordHistoryMap(Task task, JSONObject jsonObject) {
+    // MODIFIES: history
+    // EFFECTS: Takes dates and minutes completed from the jsonObject and records it in the given history
+    private static void recordHistoryMap(DayMinutesMap history, JSONObject jsonObject) {
         LocalDate date = LocalDate.parse(jsonObject.getString("date"));
         int minutesCompleted = jsonObject.getInt("minutes_completed");
-        task.recordTime(date, minutesCompleted);
+        history.add((int) date.toEpochDay(), minutesCompleted);
+    }
+
+    // EFFECTS: reads an object key and its following colon, returns the key
+    static String nextKey(JSONTokener tokener) {
+        expect(tokener, '"');
+        String key = tokener.nextString('"');
+        expect(tokener, ':');
+        return key;
+    }
+
+    // EFFECTS: consumes the next value without building it when it is an array or object,
+    // so skipping a large value holds at most one element of it at a time
+    static void skipValue(JSONTokener tokener) {
+        char next = tokener.nextClean();
+        tokener.back();
+        if (next == '[') {
+            expect(tokener, '[');
+            if (!isEnd(tokener, ']')) {
+                do {
+                    skipValue(tokener);
+                } while (hasNextElement(tokener, ']'));
+            }
+        } else if (next == '{') {
+            expect(tokener, '{');
+            if (!isEnd(tokener, '}')) {
+                do {
+                    nextKey(tokener);
+                    skipValue(tokener);
+                } while (hasNextElement(tokener, '}'));
+            }
+        } else {
+            tokener.nextValue();
+        }
+    }
+
+    // EFFECTS: consumes the next non-whitespace character,
+    // throws JSONException if it is not the expected character
+    static void expect(JSONTokener tokener, char expected) {
+        if (tokener.nextClean() != expected) {
+            throw tokener.syntaxError("Expected '" + expected + "'");
+        }
+    }
+
+    // EFFECTS: returns true and consumes the closing character if the container ends here,
+    // otherwise leaves the tokener untouched and returns false
+    static boolean isEnd(JSONTokener tokener, char closing) {
+        if (tokener.nextClean() == closing) {
+            return true;
+        }
+        tokener.back();
+        return false;
+    }
+
+    // EFFECTS: consumes the separator after an element, returns true if another element follows
+    // and false if the container was closed; throws JSONException otherwise
+    static boolean hasNextElement(JSONTokener tokener, char closing) {
+        char next = tokener.nextClean();
+        if (next == ',') {
+            return true;
+        } else if (next == closing) {
+            return false;
+        }
+        throw tokener.syntaxError("Expected ',' or '" + closing + "'");
     }
 }
@@ -1,47 +1,192 @@
 package persistence;
 
-import model.*;
-import org.json.JSONObject;
+import org.json.JSONException;
+import org.json.JSONWriter;
 
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.concurrent.ThreadLocalRandom;
 
 // Code influenced by JsonSerializationDemo: https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo
 
-// Represents a writer that writes JSON representation of project to file
+// Represents a writer that writes JSON representation of project to file.
+// The destination is never written in place: the project is written to a temporary file in the same directory,
+// which (optionally after forcing it to disk) is moved over the destination in one atomic step on close.
+// A crash or failure part way through therefore leaves the previous file untouched. The temporary file takes
+// the destination's permissions, so replacing a file does not change who can read it, and when forcing,
+// the directory is forced after the move as well so the replacement itself survives a crash.
+// The project is streamed straight into the buffered file writer, so no JSON tree or document string
+// is built in memory however long its history is. Output is compact unless pretty printing is turned on,
+// for exports meant to be read by people
 public class JsonWriter {
-    private static final int TAB = 4;
-    private PrintWriter writer;
+    private Writer writer;
+    private FileChannel channel;
+    private Path temporary;
     private String destination;
+    private boolean forceOnClose;
+    private boolean prettyPrint;
 
-    // EFFECTS: constructs writer to write to destination file
+    // EFFECTS: constructs writer to write to destination file, forcing the data to disk before it replaces
+    // the destination
     public JsonWriter(String destination) {
+        this(destination, true);
+    }
+
+    // EFFECTS: constructs writer to write to destination file, forcing the data to disk before it replaces
+    // the destination only if forceOnClose is true
+    public JsonWriter(String destination, boolean forceOnClose) {
         this.destination = destination;
+        this.forceOnClose = forceOnClose;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets whether files opened from now on are indented, one member or element per line
+    public void setPrettyPrint(boolean prettyPrint) {
+        this.prettyPrint = prettyPrint;
     }
 
     // MODIFIES: this
-    // EFFECTS: opens writer; throws FileNotFoundException if destination file cannot
-    // be opened for writing
+    // EFFECTS: opens writer on a new temporary file next to the destination;
+    // throws FileNotFoundException if destination is not a valid path or its directory cannot be written to
     public void open() throws FileNotFoundException {
-        writer = new PrintWriter(new File(destination));
+        try {
+            Path target = Paths.get(destination).toAbsolutePath();
+            temporary = createTemporary(target);
+            channel = FileChannel.open(temporary, StandardOpenOption.WRITE);
+            writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+            if (prettyPrint) {
+                writer = new IndentingWriter(writer);
+            }
+        } catch (InvalidPathException | IOException e) {
+            discard();
+            throw new FileNotFoundException("Cannot write to " + destination + ": " + e.getMessage());
+        }
     }
 
     // MODIFIES: this
-    // EFFECTS: writes JSON representation of project to file
-    public void write(Project project) {
-        JSONObject json = project.toJson();
-        saveToFile(json.toString(TAB));
+    // EFFECTS: writes JSON representation of the project, or of any other streaming writable such as a single
+    // task, to the temporary file; throws IOException if writing fails, in which case the temporary file
+    // is discarded and the destination is left as it was
+    public void write(StreamingWritable writable) throws IOException {
+        try {
+            writable.toJson(new JSONWriter(writer));
+        } catch (JSONException e) {
+            discard();
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            discard();
+            throw e;
+        }
     }
 
     // MODIFIES: this
-    // EFFECTS: closes writer
-    public void close() {
-        writer.close();
+    // EFFECTS: finishes the temporary file and moves it over the destination, does nothing if writing failed;
+    // throws IOException if the file cannot be finished or moved, the destination is then left as it was
+    public void close() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+            if (forceOnClose) {
+                channel.force(true);
+            }
+            writer.close();
+            writer = null;
+            moveIntoPlace();
+        } catch (IOException e) {
+            discard();
+            throw e;
+        }
+    }
+
+    // EFFECTS: replaces the destination with the temporary file, atomically where the file system allows it
+    private void moveIntoPlace() throws IOException {
+        Path target = Paths.get(destination);
+        try {
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        temporary = null;
+        if (forceOnClose) {
+            forceDirectory(target.toAbsolutePath().getParent());
+        }
+    }
+
+    // EFFECTS: creates a new empty file next to target to be moved over it later and returns its path.
+    // The file is created with the default permissions for new files, then given those of target if target
+    // exists, so moving it over target keeps target's permissions; throws IOException if it cannot be created
+    static Path createTemporary(Path target) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        String name = target.getFileName().toString();
+        Path temporary;
+        while (true) {
+            try {
+                temporary = Files.createFile(directory.resolve(
+                        name + "." + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".tmp"));
+                break;
+            } catch (FileAlreadyExistsException e) {
+                // pick another name
+            }
+        }
+        try {
+            if (Files.exists(target) && Files.getFileAttributeView(target, PosixFileAttributeView.class) != null) {
+                Files.setPosixFilePermissions(temporary, Files.getPosixFilePermissions(target));
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        return temporary;
+    }
+
+    // EFFECTS: forces the directory's entries to disk so that files moved into it survive a crash,
+    // does nothing on platforms where a directory cannot be opened; throws IOException if forcing fails
+    static void forceDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
     }
 
     // MODIFIES: this
-    // EFFECTS: writes string to file
-    private void saveToFile(String json) {
-        writer.print(json);
+    // EFFECTS: closes and deletes the temporary file, ignoring any further failure
+    private void discard() {
+        try {
+            if (writer != null) {
+                writer.close();
+            } else if (channel != null) {
+                channel.close();
+            }
+            if (temporary != null) {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            // the original failure is the one reported
+        }
+        writer = null;
+        channel = null;
+        temporary = null;
     }
 }
@@ -0,0 +1,131 @@
+package persistence;
+
+import model.DayMinutesConsumer;
+import model.DayMinutesMap;
+import model.HistoryStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// Represents a history store whose entries are only read from their source the first time they are needed.
+// Tasks restored with a known total can be shown and counted without their history, which is then paged in
+// on the first lookup, change or iteration. Copying a store that has not been read yet copies the source
+// rather than reading it, so snapshots of a project do not page in every task's history.
+// A source may hand back a read-only store, such as a mapped history file; it is copied onto the heap
+// the first time an entry is added.
+// The store may also be given the source's entries on or after a recent day, such as the current week, so lookups
+// and range sums within those days are answered without reading the source until an entry is added.
+// Several threads may read the store at once, as they do when a task and its snapshot share it, the source is then
+// still read only once. Adding entries is not safe while another thread reads the store
+public class LazyHistoryStore implements HistoryStore {
+    private final Source source;
+    private final int recentFromEpochDay;
+    private final HistoryStore recent;
+    private volatile HistoryStore loaded;
+
+    // EFFECTS: constructs a store that reads its entries from source when first needed
+    public LazyHistoryStore(Source source) {
+        this(source, Integer.MAX_VALUE, new DayMinutesMap());
+    }
+
+    // REQUIRES: recent holds exactly the entries of source on or after recentFromEpochDay and is not changed
+    // EFFECTS: constructs a store that reads its entries from source when first needed and answers lookups
+    // on or after recentFromEpochDay from recent until then
+    public LazyHistoryStore(Source source, int recentFromEpochDay, HistoryStore recent) {
+        this.source = source;
+        this.recentFromEpochDay = recentFromEpochDay;
+        this.recent = recent;
+    }
+
+    // EFFECTS: returns true if the entries have been read from the source
+    public boolean isLoaded() {
+        return loaded != null;
+    }
+
+    @Override
+    public int get(int epochDay) {
+        if (loaded == null && epochDay >= recentFromEpochDay) {
+            return recent.get(epochDay);
+        }
+        return history().get(epochDay);
+    }
+
+    @Override
+    public void add(int epochDay, int minutes) {
+        HistoryStore entries = history();
+        if (entries instanceof MappedHistoryStore && ((MappedHistoryStore) entries).isReadOnly()) {
+            entries = entries.copy();
+            loaded = entries;
+        }
+        entries.add(epochDay, minutes);
+    }
+
+    @Override
+    public int size() {
+        return history().size();
+    }
+
+    @Override
+    public <E extends Exception> void forEach(DayMinutesConsumer<E> consumer) throws E {
+        history().forEach(consumer);
+    }
+
+    @Override
+    public int knownMinutesBetween(int fromEpochDay, int toEpochDay) {
+        if (loaded != null || fromEpochDay < recentFromEpochDay) {
+            return UNKNOWN;
+        }
+        int[] minutes = new int[1];
+        recent.forEach((epochDay, dayMinutes) -> {
+            if (epochDay >= fromEpochDay && epochDay <= toEpochDay) {
+                minutes[0] += dayMinutes;
+            }
+        });
+        return minutes[0];
+    }
+
+    @Override
+    public <E extends Exception> int forEachSince(int fromEpochDay, DayMinutesConsumer<E> consumer) throws E {
+        if (loaded == null && recentFromEpochDay != Integer.MAX_VALUE) {
+            int since = Math.max(fromEpochDay, recentFromEpochDay);
+            return recent.forEachSince(since, consumer);
+        }
+        return HistoryStore.super.forEachSince(fromEpochDay, consumer);
+    }
+
+    // EFFECTS: returns a copy of the entries if they have been read, otherwise a store over the same source
+    // and recent entries
+    @Override
+    public HistoryStore copy() {
+        if (loaded == null) {
+            return new LazyHistoryStore(source, recentFromEpochDay, recent);
+        }
+        return loaded.copy();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the entries, reading them from the source first if needed;
+    // throws UncheckedIOException if the source cannot be read
+    private HistoryStore history() {
+        HistoryStore entries = loaded;
+        if (entries != null) {
+            return entries;
+        }
+        synchronized (this) {
+            if (loaded == null) {
+                try {
+                    loaded = source.load();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Unable to read task history", e);
+                }
+            }
+            return loaded;
+        }
+    }
+
+    // Source interface, reads the entries of a lazy history store
+    public interface Source {
+        // EFFECTS: returns a store holding the entries; throws IOException if they cannot be read
+        HistoryStore load() throws IOException;
+    }
+}
@@ -0,0 +1,255 @@
+package persistence;
+
+import model.DayMinutesConsumer;
+import model.HistoryStore;
+import model.Task;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Represents a history store kept off the heap in a memory mapped file.
+// The file holds a small header followed by one int of minutes per day from a base epoch day,
+// days without an entry hold NO_ENTRY. Opening only maps the file, reads and writes go straight
+// to the mapping and the range grows (in either direction) by remapping a larger file.
+// Stores can also be opened read-only, the segmented project store keeps one such file next to each task
+// segment so a task's history is paged in by mapping it instead of parsing JSON onto the heap
+public class MappedHistoryStore implements HistoryStore {
+    // Files are only written for histories spanning at most this many days, so outlier dates
+    // cannot produce huge files
+    public static final int MAX_FILE_DAYS = 100 * 366;
+    private static final int MAGIC = 0x54544853;
+    private static final int HEADER_BYTES = 16;
+    private static final int BASE_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int SIZE_OFFSET = 12;
+    private static final int INITIAL_CAPACITY = 366;
+
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int baseEpochDay;
+    private int capacity;
+    private int size;
+
+    // EFFECTS: opens the store in the given file, creating an empty store if the file is empty or missing;
+    // throws IOException if the file cannot be opened or is not a history store
+    public MappedHistoryStore(String path) throws IOException {
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            buffer.putInt(0, MAGIC);
+            writeHeader();
+        } else {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            readHeader(path);
+        }
+    }
+
+    // EFFECTS: maps the store in the given file read-only, the file is not kept open and later changes to it
+    // are not seen; throws IOException if the file cannot be mapped or is not a history store
+    private MappedHistoryStore(Path path) throws IOException {
+        channel = null;
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+            readHeader(path.toString());
+        }
+    }
+
+    // EFFECTS: returns the store in the given file mapped read-only;
+    // throws IOException if the file cannot be mapped or is not a history store
+    public static MappedHistoryStore openReadOnly(Path path) throws IOException {
+        return new MappedHistoryStore(path);
+    }
+
+    // EFFECTS: writes the history of task as a store file at path through a temporary file that is moved
+    // into place keeping the permissions of the file it replaces, forcing it to disk first and the directory
+    // after if force is true. Returns false without writing anything
+    // if the history spans more than MAX_FILE_DAYS; throws IOException if the file cannot be written
+    public static boolean write(Path path, Task task, boolean force) throws IOException {
+        // first day, last day and number of days with an entry
+        int[] range = {0, 0, 0};
+        task.forEachDay((epochDay, minutes) -> {
+            if (range[2]++ == 0) {
+                range[0] = epochDay;
+            }
+            range[1] = epochDay;
+        });
+        long days = (range[2] == 0) ? 0 : (long) range[1] - range[0] + 1;
+        if (days > MAX_FILE_DAYS) {
+            return false;
+        }
+        ByteBuffer file = ByteBuffer.allocate(offsetOf((int) days));
+        file.putInt(0, MAGIC).putInt(BASE_OFFSET, range[0]).putInt(CAPACITY_OFFSET, (int) days)
+                .putInt(SIZE_OFFSET, range[2]);
+        for (int i = 0; i < days; i++) {
+            file.putInt(offsetOf(i), NO_ENTRY);
+        }
+        task.forEachDay((epochDay, minutes) -> file.putInt(offsetOf(epochDay - range[0]), minutes));
+        Path temporary = JsonWriter.createTemporary(path);
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (file.hasRemaining()) {
+                    channel.write(file);
+                }
+                if (force) {
+                    channel.force(true);
+                }
+            }
+            try {
+                Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (force) {
+                JsonWriter.forceDirectory(path.toAbsolutePath().getParent());
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return true;
+    }
+
+    // EFFECTS: returns true if the store was opened read-only and cannot be added to
+    public boolean isReadOnly() {
+        return channel == null;
+    }
+
+    @Override
+    public int get(int epochDay) {
+        int index = epochDay - baseEpochDay;
+        if (index < 0 || index >= capacity) {
+            return NO_ENTRY;
+        }
+        return buffer.getInt(offsetOf(index));
+    }
+
+    // REQUIRES: the store is not read-only
+    @Override
+    public void add(int epochDay, int minutes) {
+        if (isReadOnly()) {
+            throw new UnsupportedOperationException("History store is read-only");
+        }
+        ensureRange(epochDay);
+        int offset = offsetOf(epochDay - baseEpochDay);
+        int current = buffer.getInt(offset);
+        if (current == NO_ENTRY) {
+            current = 0;
+            size++;
+            buffer.putInt(SIZE_OFFSET, size);
+        }
+        buffer.putInt(offset, current + minutes);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public <E extends Exception> void forEach(DayMinutesConsumer<E> consumer) throws E {
+        for (int i = 0; i < capacity; i++) {
+            int minutes = buffer.getInt(offsetOf(i));
+            if (minutes != NO_ENTRY) {
+                consumer.accept(baseEpochDay + i, minutes);
+            }
+        }
+    }
+
+    // EFFECTS: writes any changes in the mapping through to the storage device, does nothing if read-only
+    public void force() {
+        if (!isReadOnly()) {
+            buffer.force();
+        }
+    }
+
+    // EFFECTS: forces changes to storage and closes the file, the store must not be used afterwards
+    public void close() throws IOException {
+        force();
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    // EFFECTS: reads the range and entry count from the header; throws IOException, closing the channel,
+    // if the buffer is not a history store or is too short for the range its header claims
+    private void readHeader(String path) throws IOException {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            closeAndThrow("Not a history store: " + path);
+        }
+        baseEpochDay = buffer.getInt(BASE_OFFSET);
+        capacity = buffer.getInt(CAPACITY_OFFSET);
+        size = buffer.getInt(SIZE_OFFSET);
+        if (capacity < 0 || size < 0 || size > capacity
+                || HEADER_BYTES + (long) capacity * Integer.BYTES > buffer.capacity()) {
+            closeAndThrow("Truncated history store: " + path);
+        }
+    }
+
+    // EFFECTS: closes the channel, if any, and throws IOException with the given message
+    private void closeAndThrow(String message) throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        throw new IOException(message);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the range and entry count to the header
+    private void writeHeader() {
+        buffer.putInt(BASE_OFFSET, baseEpochDay);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(SIZE_OFFSET, size);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: grows the mapped range so that it covers epochDay, at least doubling it to keep growth amortized.
+    // Extra room is added on the side the range grew towards
+    private void ensureRange(int epochDay) {
+        if (capacity == 0) {
+            baseEpochDay = epochDay;
+            remap(0, INITIAL_CAPACITY);
+        } else if (epochDay < baseEpochDay) {
+            int newCapacity = Math.max(capacity * 2, baseEpochDay + capacity - epochDay);
+            int shift = newCapacity - capacity;
+            baseEpochDay -= shift;
+            remap(shift, newCapacity);
+        } else if (epochDay >= baseEpochDay + capacity) {
+            remap(0, Math.max(capacity * 2, epochDay - baseEpochDay + 1));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: maps a larger file of newCapacity days, moves the existing days up by shift
+    // and marks every other day as having no entry
+    private void remap(int shift, int newCapacity) {
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, offsetOf(newCapacity));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (int i = capacity - 1; i >= 0 && shift > 0; i--) {
+            buffer.putInt(offsetOf(i + shift), buffer.getInt(offsetOf(i)));
+        }
+        for (int i = 0; i < newCapacity; i++) {
+            if (i < shift || i >= shift + capacity) {
+                buffer.putInt(offsetOf(i), NO_ENTRY);
+            }
+        }
+        capacity = newCapacity;
+        writeHeader();
+    }
+
+    // EFFECTS: returns the byte offset of the day at the given index
+    private static int offsetOf(int index) {
+        return HEADER_BYTES + index * Integer.BYTES;
+    }
+}
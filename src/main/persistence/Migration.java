@@ -0,0 +1,14 @@
+package persistence;
+
+import org.json.JSONObject;
+
+// Migration interface, upgrades the task objects of a persisted project from one schema version to the next.
+// Migrations work on one task object at a time so that documents can be upgraded while they are streamed
+public interface Migration {
+    // EFFECTS: returns the schema version this migration upgrades from, it upgrades to the version after it
+    int fromVersion();
+
+    // MODIFIES: task
+    // EFFECTS: upgrades the task object in place; throws JSONException if the task cannot be upgraded
+    void migrateTask(JSONObject task);
+}
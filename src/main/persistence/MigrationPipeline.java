@@ -0,0 +1,84 @@
+package persistence;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.List;
+
+// Represents the chain of migrations that upgrades persisted projects to the current schema version.
+// Every persisted project starts with a schema_version key, documents written before it was introduced have
+// none and are read as the legacy version. Each task object is passed through the migrations from the
+// document's version up to the current one as it is read, so no document is ever held in memory as a whole.
+//  - Version 1 (legacy): no header, durations, history and totalMinutes may be missing.
+//  - Version 2: schema_version header, every task holds its durations, history and totalMinutes.
+public class MigrationPipeline {
+    public static final String VERSION_KEY = "schema_version";
+    public static final int LEGACY_VERSION = 1;
+    public static final int CURRENT_VERSION = 2;
+
+    private final List<Migration> migrations;
+
+    // EFFECTS: constructs the pipeline of every built-in migration
+    public MigrationPipeline() {
+        this.migrations = List.of(new CompleteLegacyTask());
+    }
+
+    // EFFECTS: returns version if this pipeline can read documents of it;
+    // throws JSONException if the version is older than the legacy version or newer than the current one
+    public int checkSupported(int version) {
+        if (version < LEGACY_VERSION || version > CURRENT_VERSION) {
+            throw new JSONException("Unsupported " + VERSION_KEY + " " + version
+                    + ", versions " + LEGACY_VERSION + " to " + CURRENT_VERSION + " can be read");
+        }
+        return version;
+    }
+
+    // REQUIRES: checkSupported(version) does not throw
+    // MODIFIES: task
+    // EFFECTS: applies every migration from version up to the current version to the task object in order
+    // and returns it; throws JSONException if the task cannot be upgraded
+    public JSONObject migrateTask(JSONObject task, int version) {
+        for (Migration migration : migrations) {
+            if (migration.fromVersion() >= version) {
+                migration.migrateTask(task);
+            }
+        }
+        return task;
+    }
+
+    // Represents the migration from legacy tasks, missing durations get the defaults of a new task,
+    // a missing history becomes empty and totalMinutes (which legacy readers ignored) is recomputed from the history
+    private static class CompleteLegacyTask implements Migration {
+        @Override
+        public int fromVersion() {
+            return LEGACY_VERSION;
+        }
+
+        @Override
+        public void migrateTask(JSONObject task) {
+            task.getString("task_name");
+            putDefault(task, "workDurationMinutes", 25);
+            putDefault(task, "breakDurationMinutes", 5);
+            putDefault(task, "longBreakDurationMinutes", 15);
+            JSONArray history = task.optJSONArray("historyMap");
+            if (history == null) {
+                history = new JSONArray();
+                task.put("historyMap", history);
+            }
+            int totalMinutes = 0;
+            for (int i = 0; i < history.length(); i++) {
+                totalMinutes += history.getJSONObject(i).getInt("minutes_completed");
+            }
+            task.put("totalMinutes", totalMinutes);
+        }
+
+        // MODIFIES: task
+        // EFFECTS: puts the value under key if the task has no value for it
+        private static void putDefault(JSONObject task, String key, int value) {
+            if (!task.has(key)) {
+                task.put(key, value);
+            }
+        }
+    }
+}
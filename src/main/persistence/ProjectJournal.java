@@ -0,0 +1,355 @@
+package persistence;
+
+import model.Project;
+import model.ProjectObserver;
+import model.Task;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+// Represents an append-only journal of the changes made to a project on top of a segmented project store.
+// The store stays the only full copy of the project: each record is one added task, recorded time or duration edit,
+// and the journal header names what the records apply to, either a save of the store (by its save id) or an empty
+// project of a given name. A save of the store records how many of the journal's changes it holds, so after a crash
+// the project is restored by loading the store and replaying only the changes made after its newest save.
+// Appending a batch of records forces it to the device once, so changes made while an earlier batch was being
+// written are committed together. After a save the journal can be compacted down to the changes the save did not
+// hold. The header and every compaction are written to a temporary file that is moved over the journal,
+// so the journal on disk is always either the old or the new one, and a torn record at its end is dropped
+public class ProjectJournal {
+    private static final int MAGIC = 0x54544A4C;
+    private static final int FORMAT_VERSION = 2;
+    private static final int TASK_ADDED = 1;
+    private static final int TIME_RECORDED = 2;
+    private static final int DURATIONS_CHANGED = 3;
+
+    private final Path journal;
+    private long journalId;
+    private long baseSaveId;
+    // Name of the empty project the records apply to, null if they apply to a save of the store
+    private String emptyProjectName;
+    // Position of the first record still in the journal and the records from there on
+    private long firstPosition;
+    private List<byte[]> records;
+    private FileOutputStream journalOut;
+    private DataOutputStream writer;
+
+    // EFFECTS: constructs a journal in the given file that is not open yet
+    public ProjectJournal(String journal) {
+        this.journal = Paths.get(journal);
+        this.records = new ArrayList<>();
+    }
+
+    // EFFECTS: returns a new random journal id other than SegmentedProjectStore.NO_SAVE
+    public static long newId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == SegmentedProjectStore.NO_SAVE);
+        return id;
+    }
+
+    // MODIFIES: this, store
+    // EFFECTS: returns the project the journal's records were made to, restored by loading it from the store,
+    // or creating the empty project the journal started from, and replaying the records the store does not hold,
+    // and keeps the journal open to append that project's further changes. Returns null and leaves the journal
+    // closed if there is no journal, it holds no records or the store has been saved over the project it applies to.
+    // A torn record at the end of the journal (from a crash mid-append) is dropped.
+    // Throws IOException if the journal or store cannot be read or a record does not apply to the project
+    public synchronized Project recover(SegmentedProjectStore store) throws IOException {
+        close();
+        if (!Files.exists(journal)) {
+            return null;
+        }
+        byte[] data = Files.readAllBytes(journal);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        List<byte[]> read = new ArrayList<>();
+        int validLength = 0;
+        try {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != FORMAT_VERSION) {
+                return null;
+            }
+            readHeader(in);
+            validLength = data.length - in.available();
+            while (in.available() > 0) {
+                skipRecord(in);
+                int end = data.length - in.available();
+                read.add(Arrays.copyOfRange(data, validLength, end));
+                validLength = end;
+            }
+        } catch (EOFException e) {
+            // the records read up to validLength are complete
+        }
+        if (read.isEmpty()) {
+            return null;
+        }
+        Project project = null;
+        long held = 0;
+        if (store.exists()) {
+            project = store.load();
+            if (store.getJournalId() == journalId) {
+                held = store.getJournalPosition() - firstPosition;
+            } else if (baseSaveId == SegmentedProjectStore.NO_SAVE || store.getSaveId() != baseSaveId) {
+                project = null;
+                store.forget();
+            }
+        }
+        if (project == null && emptyProjectName != null) {
+            project = new Project(emptyProjectName);
+            held = 0;
+        }
+        if (project == null) {
+            return null;
+        }
+        for (int i = (int) Math.max(0, Math.min(held, read.size())); i < read.size(); i++) {
+            applyRecord(project, new DataInputStream(new ByteArrayInputStream(read.get(i))));
+        }
+        records = read;
+        truncate(validLength);
+        writer = openWriter();
+        return project;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: replaces the journal with an empty one with the given id whose records apply to the save of the store
+    // with the given save id, or to an empty project named emptyProjectName if it is not null,
+    // and opens it to append records. Throws IOException if the journal cannot be written
+    public synchronized void start(long journalId, long baseSaveId, String emptyProjectName) throws IOException {
+        close();
+        this.journalId = journalId;
+        this.baseSaveId = baseSaveId;
+        this.emptyProjectName = emptyProjectName;
+        this.firstPosition = 0;
+        this.records = new ArrayList<>();
+        rewrite();
+    }
+
+    // REQUIRES: the journal is open
+    // MODIFIES: this
+    // EFFECTS: appends the records and forces them to the device once,
+    // throws IOException if they cannot be written
+    public synchronized void append(List<byte[]> batch) throws IOException {
+        for (byte[] record : batch) {
+            writer.write(record);
+        }
+        writer.flush();
+        journalOut.getChannel().force(false);
+        records.addAll(batch);
+    }
+
+    // REQUIRES: the journal is open and a save of the store holds its first savedPosition records
+    // MODIFIES: this
+    // EFFECTS: replaces the journal with one holding only the records after savedPosition,
+    // throws IOException if it cannot be written
+    public synchronized void compact(long savedPosition) throws IOException {
+        long saved = Math.min(savedPosition - firstPosition, records.size());
+        if (saved <= 0) {
+            return;
+        }
+        close();
+        firstPosition += saved;
+        records = new ArrayList<>(records.subList((int) saved, records.size()));
+        rewrite();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the journal file if it is open
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+            journalOut = null;
+        }
+    }
+
+    // EFFECTS: returns true if the journal is open to append records
+    public synchronized boolean isOpen() {
+        return writer != null;
+    }
+
+    // EFFECTS: returns the id of the journal
+    public synchronized long getId() {
+        return journalId;
+    }
+
+    // EFFECTS: returns the number of records made to the journal since it was started, including those compacted
+    public synchronized long getPosition() {
+        return firstPosition + records.size();
+    }
+
+    // EFFECTS: returns the record of task being added to a project
+    public static byte[] taskAdded(Task task) {
+        return encode(out -> {
+            out.writeByte(TASK_ADDED);
+            task.toBinary(out);
+        });
+    }
+
+    // EFFECTS: returns the record of minutesCompleted being recorded for task on date
+    public static byte[] timeRecorded(Task task, LocalDate date, int minutesCompleted) {
+        return encode(out -> {
+            out.writeByte(TIME_RECORDED);
+            out.writeUTF(task.getName());
+            VarInts.writeSignedVarInt(out, (int) date.toEpochDay());
+            VarInts.writeVarInt(out, minutesCompleted);
+        });
+    }
+
+    // EFFECTS: returns the record of task's durations being changed to their current values
+    public static byte[] durationsChanged(Task task) {
+        return encode(out -> {
+            out.writeByte(DURATIONS_CHANGED);
+            out.writeUTF(task.getName());
+            VarInts.writeVarInt(out, task.getWorkDurationMinutes());
+            VarInts.writeVarInt(out, task.getBreakDurationMinutes());
+            VarInts.writeVarInt(out, task.getLongBreakDurationMinutes());
+        });
+    }
+
+    // EFFECTS: returns the bytes written by body
+    private static byte[] encode(RecordBody body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            body.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the header fields after the magic number and format version
+    private void readHeader(DataInput in) throws IOException {
+        journalId = in.readLong();
+        baseSaveId = in.readLong();
+        emptyProjectName = in.readBoolean() ? in.readUTF() : null;
+        firstPosition = in.readLong();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the header and records to a temporary file, forces it to the device, atomically moves it
+    // over the journal and opens the journal to append records
+    private void rewrite() throws IOException {
+        Path temp = JsonWriter.createTemporary(journal);
+        try {
+            try (FileOutputStream out = new FileOutputStream(temp.toFile());
+                 DataOutputStream tempWriter = new DataOutputStream(new BufferedOutputStream(out))) {
+                tempWriter.writeInt(MAGIC);
+                tempWriter.writeByte(FORMAT_VERSION);
+                tempWriter.writeLong(journalId);
+                tempWriter.writeLong(baseSaveId);
+                tempWriter.writeBoolean(emptyProjectName != null);
+                if (emptyProjectName != null) {
+                    tempWriter.writeUTF(emptyProjectName);
+                }
+                tempWriter.writeLong(firstPosition);
+                for (byte[] record : records) {
+                    tempWriter.write(record);
+                }
+                tempWriter.flush();
+                out.getChannel().force(true);
+            }
+            Files.move(temp, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        JsonWriter.forceDirectory(journal.toAbsolutePath().getParent());
+        writer = openWriter();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens the journal file for appending and returns a buffered writer over it
+    private DataOutputStream openWriter() throws IOException {
+        journalOut = new FileOutputStream(journal.toFile(), true);
+        return new DataOutputStream(new BufferedOutputStream(journalOut));
+    }
+
+    // EFFECTS: reads past one record, throws EOFException if it is cut short
+    // and IOException if it is not a known record
+    private void skipRecord(DataInput in) throws IOException {
+        int type = in.readUnsignedByte();
+        if (type == TASK_ADDED) {
+            BinaryReader.parseTask(in);
+        } else if (type == TIME_RECORDED) {
+            in.readUTF();
+            VarInts.readSignedVarInt(in);
+            VarInts.readVarInt(in);
+        } else if (type == DURATIONS_CHANGED) {
+            in.readUTF();
+            VarInts.readVarInt(in);
+            VarInts.readVarInt(in);
+            VarInts.readVarInt(in);
+        } else {
+            throw new IOException("Unknown journal record type " + type + " in " + journal);
+        }
+    }
+
+    // MODIFIES: project
+    // EFFECTS: reads one record and applies it to the project
+    private void applyRecord(Project project, DataInput in) throws IOException {
+        int type = in.readUnsignedByte();
+        if (type == TASK_ADDED) {
+            project.addTask(BinaryReader.parseTask(in));
+            return;
+        }
+        String taskName = in.readUTF();
+        Task task = project.getTaskFromString(taskName);
+        if (task == null) {
+            throw new IOException("Journal " + journal + " records a change to unknown task " + taskName);
+        }
+        if (type == TIME_RECORDED) {
+            LocalDate date = LocalDate.ofEpochDay(VarInts.readSignedVarInt(in));
+            task.recordTime(date, VarInts.readVarInt(in));
+        } else {
+            task.setDurations(VarInts.readVarInt(in), VarInts.readVarInt(in), VarInts.readVarInt(in));
+        }
+    }
+
+    // EFFECTS: cuts the journal down to the given length, dropping a partially written record
+    private void truncate(long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            if (channel.size() > length) {
+                channel.truncate(length);
+            }
+        }
+    }
+
+    // Represents the body of one journal record
+    private interface RecordBody {
+        // EFFECTS: writes the record to out, throws IOException if it cannot be written
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    // Represents an observer that encodes each change to a project as a journal record on the thread that made it
+    // and hands the record to a sink, which decides when it is appended
+    public static class Recorder implements ProjectObserver {
+        private final Consumer<byte[]> sink;
+
+        // EFFECTS: constructs a recorder that hands each record to sink
+        public Recorder(Consumer<byte[]> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void taskAdded(Task task) {
+            sink.accept(ProjectJournal.taskAdded(task));
+        }
+
+        @Override
+        public void timeRecorded(Task task, LocalDate date, int minutesCompleted) {
+            sink.accept(ProjectJournal.timeRecorded(task, date, minutesCompleted));
+        }
+
+        @Override
+        public void durationsChanged(Task task) {
+            sink.accept(ProjectJournal.durationsChanged(task));
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package persistence;
+
+import model.Event;
+import model.EventLog;
+import model.EventSink;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Represents an event sink that keeps the event log on disk.
+// Logged events are put on a bounded queue and a background thread writes them in batches, one tab separated line
+// per event: timestamp in epoch milliseconds, event type, task name, the three numeric arguments and the
+// description, with tabs, newlines and backslashes escaped. A new file is started once the current file
+// reaches its size limit or has been open for its age limit, and once more files than the retention limit
+// carry the prefix, the oldest are deleted. If the queue is full, events are dropped and counted
+// rather than delaying the thread that logged them
+public class RotatingEventFileSink implements EventSink {
+    public static final long DEFAULT_MAX_FILE_BYTES = 1024 * 1024;
+    public static final long DEFAULT_MAX_FILE_AGE_MILLIS = TimeUnit.DAYS.toMillis(1);
+    public static final int DEFAULT_QUEUE_CAPACITY = 8192;
+    public static final int DEFAULT_MAX_FILES = 16;
+    private static final int BATCH_SIZE = 256;
+    private static final long IDLE_POLL_MILLIS = 1000;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+    private static final String EXTENSION = ".log";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final int FILE_TIME_LENGTH = "yyyyMMdd-HHmmss-SSS".length();
+    private static final Event STOP = new Event("");
+
+    private final Path directory;
+    private final String prefix;
+    private final long maxFileBytes;
+    private final long maxFileAgeMillis;
+    private final int maxFiles;
+    private final BlockingQueue<Event> queue;
+    private final AtomicLong dropped;
+    private Thread writerThread;
+    private EventLog attachedLog;
+    private volatile IOException lastError;
+
+    // Only used by the writer thread
+    private OutputStream out;
+    private long fileBytes;
+    private long fileOpenedMillis;
+
+    // EFFECTS: constructs a sink writing "events" files to directory with the default limits
+    public RotatingEventFileSink(String directory) {
+        this(directory, "events", DEFAULT_MAX_FILE_BYTES, DEFAULT_MAX_FILE_AGE_MILLIS, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    // REQUIRES: maxFileBytes > 0, maxFileAgeMillis > 0, queueCapacity > 0
+    // EFFECTS: constructs a sink writing files named after prefix to directory, starting a new file once the
+    // current one holds maxFileBytes or has been open for maxFileAgeMillis, and buffering up to queueCapacity events.
+    // At most DEFAULT_MAX_FILES files are kept
+    public RotatingEventFileSink(String directory, String prefix, long maxFileBytes, long maxFileAgeMillis,
+                                 int queueCapacity) {
+        this(directory, prefix, maxFileBytes, maxFileAgeMillis, queueCapacity, DEFAULT_MAX_FILES);
+    }
+
+    // REQUIRES: maxFileBytes > 0, maxFileAgeMillis > 0, queueCapacity > 0, maxFiles > 0
+    // EFFECTS: constructs a sink as above that keeps at most maxFiles files named after prefix in directory,
+    // including the one being written, deleting the oldest whenever it starts a new file
+    public RotatingEventFileSink(String directory, String prefix, long maxFileBytes, long maxFileAgeMillis,
+                                 int queueCapacity, int maxFiles) {
+        this.directory = Paths.get(directory);
+        this.prefix = prefix;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFileAgeMillis = maxFileAgeMillis;
+        this.maxFiles = maxFiles;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.dropped = new AtomicLong();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: creates the directory if needed and starts the background writer;
+    // throws IOException if the directory cannot be created
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        writerThread = new Thread(this::writeLoop, "event-file-sink");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    // MODIFIES: this, log
+    // EFFECTS: opens this sink and registers it to receive every event logged to log from now on;
+    // throws IOException if the directory cannot be created
+    public void attachTo(EventLog log) throws IOException {
+        open();
+        log.addSink(this);
+        attachedLog = log;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues the event for writing, or counts it as dropped if the queue is full
+    @Override
+    public void accept(Event e) {
+        if (!queue.offer(e)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: detaches from the event log, writes every event queued so far, closes the current file
+    // and stops the background writer. Gives up waiting for the writer after a timeout, so a writer that
+    // has stopped taking events cannot hold up the caller
+    public void close() {
+        if (attachedLog != null) {
+            attachedLog.removeSink(this);
+            attachedLog = null;
+        }
+        if (writerThread == null) {
+            return;
+        }
+        try {
+            if (!queue.offer(STOP, CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                writerThread.interrupt();
+            }
+            writerThread.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writerThread = null;
+    }
+
+    // EFFECTS: returns the number of events that were not written, because the queue was full or writing failed
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    // EFFECTS: returns the most recent write failure, or null if writing has never failed
+    public IOException getLastError() {
+        return lastError;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes queued events in batches until STOP is taken, closing a file that has aged while idle
+    private void writeLoop() {
+        List<Event> batch = new ArrayList<>(BATCH_SIZE);
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                Event first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (out != null && isFileTooOld()) {
+                        closeFile();
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                stopping = writeBatch(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                stopping = true;
+            }
+        }
+        closeFile();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the batch up to STOP, if present, and flushes it; returns true if STOP was in the batch.
+    // If writing fails, even with an unchecked exception, the rest of the batch is counted as dropped
+    // and the next batch starts a new file
+    private boolean writeBatch(List<Event> batch) {
+        int end = 0;
+        while (end < batch.size() && batch.get(end) != STOP) {
+            end++;
+        }
+        int written = 0;
+        try {
+            for (; written < end; written++) {
+                writeLine(batch.get(written));
+            }
+            if (out != null) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            lastError = e;
+            dropped.addAndGet(end - written);
+            closeFile();
+        } catch (RuntimeException e) {
+            lastError = new IOException(e);
+            dropped.addAndGet(end - written);
+            closeFile();
+        }
+        return end < batch.size();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the event's line, starting a new file first if the current file is full or too old
+    private void writeLine(Event e) throws IOException {
+        if (out == null || fileBytes >= maxFileBytes || isFileTooOld()) {
+            openNextFile();
+        }
+        String taskName = e.getTaskName();
+        StringBuilder line = new StringBuilder(64)
+                .append(e.getTimestamp()).append('\t')
+                .append(e.getType()).append('\t');
+        escape(line, (taskName == null) ? "" : taskName).append('\t')
+                .append(e.getArgument(0)).append('\t')
+                .append(e.getArgument(1)).append('\t')
+                .append(e.getArgument(2)).append('\t');
+        escape(line, e.getDescription()).append('\n');
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        out.write(bytes);
+        fileBytes += bytes.length;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the current file, opens a new one named after the current time
+    // and deletes the oldest files beyond the retention limit
+    private void openNextFile() throws IOException {
+        closeFile();
+        String name = prefix + "-" + LocalDateTime.now().format(FILE_TIME);
+        Path file = directory.resolve(name + EXTENSION);
+        for (int n = 1; Files.exists(file); n++) {
+            file = directory.resolve(name + "-" + n + EXTENSION);
+        }
+        out = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE_NEW));
+        fileBytes = 0;
+        fileOpenedMillis = System.currentTimeMillis();
+        deleteOldFiles();
+    }
+
+    // EFFECTS: deletes the oldest files named after prefix until at most maxFiles are left, recording a failure
+    // to list or delete them. File names start with their creation time, so sorting them by that time and then by
+    // the number of a same-millisecond "-n" file orders them from oldest to newest
+    private void deleteOldFiles() {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "-*" + EXTENSION)) {
+            stream.forEach(files::add);
+        } catch (IOException e) {
+            lastError = e;
+            return;
+        } catch (DirectoryIteratorException e) {
+            lastError = e.getCause();
+            return;
+        }
+        if (files.size() <= maxFiles) {
+            return;
+        }
+        files.sort(Comparator.comparing(this::fileTime).thenComparingInt(this::fileNumber));
+        for (Path file : files.subList(0, files.size() - maxFiles)) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                lastError = e;
+            }
+        }
+    }
+
+    // EFFECTS: returns the prefix and creation time the file's name starts with
+    private String fileTime(Path file) {
+        String name = baseName(file);
+        return name.substring(0, Math.min(name.length(), timeEnd()));
+    }
+
+    // EFFECTS: returns n for a same-millisecond "-n" file, 0 for the first file of its millisecond
+    // or a file whose name has no number
+    private int fileNumber(Path file) {
+        String name = baseName(file);
+        try {
+            return (name.length() > timeEnd() + 1) ? Integer.parseInt(name.substring(timeEnd() + 1)) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // EFFECTS: returns the length of the prefix and creation time at the start of every file name
+    private int timeEnd() {
+        return prefix.length() + 1 + FILE_TIME_LENGTH;
+    }
+
+    // EFFECTS: returns the file's name without the extension
+    private static String baseName(Path file) {
+        String name = file.getFileName().toString();
+        return name.substring(0, name.length() - EXTENSION.length());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the current file, if any, recording a failure to close it
+    private void closeFile() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            lastError = e;
+        }
+        out = null;
+    }
+
+    // EFFECTS: returns true if the current file has been open for at least the age limit
+    private boolean isFileTooOld() {
+        return System.currentTimeMillis() - fileOpenedMillis >= maxFileAgeMillis;
+    }
+
+    // MODIFIES: line
+    // EFFECTS: appends text to line with backslashes, tabs and line breaks escaped, returns line
+    private static StringBuilder escape(StringBuilder line, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                default:
+                    line.append(c);
+            }
+        }
+        return line;
+    }
+}
@@ -0,0 +1,467 @@
+package persistence;
+
+import model.DayMinutesMap;
+import model.EpochDays;
+import model.HistoryStore;
+import model.Project;
+import model.Task;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.json.JSONWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Represents a project store that keeps each task in its own segment file, listed in order by a manifest.
+// The manifest also holds each task's durations, total minutes and the entries of its history from the last week
+// before the save onwards, so in lazy mode a project can be loaded from the manifest alone, this week's and today's
+// totals are answered from it and each task's history is only read from its segment when otherwise needed.
+// The store remembers the modification count each task had when its segment was last written, so a save
+// only rewrites the segments of tasks that changed or were added since, along with the small manifest.
+// Those counts only describe the project the store last loaded or saved and its copies, a save of any other project
+// rewrites every task even if its tasks have the same names and counts.
+// Save time therefore grows with the size of the edit rather than the size of the project's history.
+// The manifest and every segment start with the schema version they were written in, each segment is upgraded from
+// its own version as it is read and segments written before they held one are read as the manifest's version.
+// A store loaded from an older version rewrites every segment on its next save.
+// Next to each segment the task's history is also kept as a mapped history file, lazy loads map that file
+// read-only instead of parsing the segment, falling back to the segment if the file is missing or stale.
+// Segment files are never overwritten: a changed task is written to a fresh segment, the manifest listing it is
+// then replaced atomically and only after that are the segments it no longer lists deleted. The manifest is
+// therefore the single point at which a save takes effect, an interrupted save leaves the previous manifest
+// next to the unchanged segments it lists.
+// Each manifest written gets a new random save id, and a save may also record how far into a journal of the
+// project's changes it goes, so a journal can tell which of its changes the store already holds
+public class SegmentedProjectStore {
+    public static final String MANIFEST = "manifest.json";
+    public static final long NO_SAVE = 0;
+    private static final String SEGMENT_PREFIX = "task-";
+    private static final String SEGMENT_EXTENSION = ".json";
+    private static final String HISTORY_EXTENSION = ".days";
+    // Days before the save kept in the manifest, so the current week is covered
+    private static final int RECENT_DAYS = 7;
+
+    private final Path directory;
+    private final boolean forceOnClose;
+    private final MigrationPipeline migrations;
+    private boolean lazyHistory;
+    private boolean manifestCurrent;
+    private Map<String, Segment> segments;
+    private Object savedIdentity;
+    // Segment file of each task as listed by the manifest last written or read, and the identity of the project
+    // it describes, so lazily loaded histories find their task's segment after a save has replaced it
+    private volatile Map<String, String> listedFiles;
+    private volatile Object listedIdentity;
+    private String savedName;
+    private int savedModCount;
+    private int nextSegmentId;
+    // Save id and journal position of the manifest last read or written
+    private long saveId;
+    private long journalId;
+    private long journalPosition;
+
+    // EFFECTS: constructs a store in the given directory, forcing every file to disk before it is put in place
+    public SegmentedProjectStore(String directory) {
+        this(directory, true);
+    }
+
+    // EFFECTS: constructs a store in the given directory, forcing files to disk before they are put in place
+    // only if forceOnClose is true
+    public SegmentedProjectStore(String directory, boolean forceOnClose) {
+        this.directory = Paths.get(directory);
+        this.forceOnClose = forceOnClose;
+        this.migrations = new MigrationPipeline();
+        forget();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets whether load leaves each task's history in its segment until it is first needed
+    public void setLazyHistory(boolean lazyHistory) {
+        this.lazyHistory = lazyHistory;
+    }
+
+    // EFFECTS: returns true if the directory holds a manifest
+    public boolean exists() {
+        return Files.isRegularFile(directory.resolve(MANIFEST));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the manifest and every segment it lists and returns the project, in lazy mode segments
+    // are only read once the task's history is needed. From then on only tasks that change are written by save;
+    // throws IOException if a file cannot be read or is not valid
+    public synchronized Project load() throws IOException {
+        forget();
+        try {
+            JSONObject manifest = readObject(directory.resolve(MANIFEST));
+            int version = migrations.checkSupported(
+                    manifest.optInt(MigrationPipeline.VERSION_KEY, MigrationPipeline.LEGACY_VERSION));
+            String name = manifest.getString("project_name");
+            long loadedSaveId = manifest.optLong("save_id", NO_SAVE);
+            long loadedJournalId = manifest.optLong("journal_id", NO_SAVE);
+            long loadedJournalPosition = manifest.optLong("journal_position", 0);
+            Project project = new Project(name);
+            Map<String, Segment> loaded = new LinkedHashMap<>();
+            List<Task> tasks = new ArrayList<>();
+            for (Object json : manifest.getJSONArray("tasks")) {
+                JSONObject entry = (JSONObject) json;
+                String file = entry.getString("segment");
+                Task task = (lazyHistory && hasSummary(entry)) ? lazyTask(entry, file, version, project.getIdentity())
+                        : JsonReader.parseTask(readSegment(directory.resolve(file), version));
+                tasks.add(task);
+                // segments of an older version are all rewritten, so none is left read as the manifest's version
+                int savedModCount = (version == MigrationPipeline.CURRENT_VERSION) ? task.getModCount() : -1;
+                loaded.put(task.getName(), new Segment(file, savedModCount));
+                nextSegmentId = Math.max(nextSegmentId, segmentId(file) + 1);
+            }
+            project.restoreTasks(tasks);
+            segments = loaded;
+            savedIdentity = project.getIdentity();
+            publishListedFiles();
+            savedName = name;
+            savedModCount = project.getModCount();
+            manifestCurrent = true;
+            saveId = loadedSaveId;
+            journalId = loadedJournalId;
+            journalPosition = loadedJournalPosition;
+            return project;
+        } catch (JSONException | ClassCastException | DateTimeParseException e) {
+            throw new IOException("Invalid project store " + directory + ": " + e.getMessage(), e);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes every task that changed or was added since the last load or save to a new segment,
+    // then the manifest if any segment was written or the project was renamed, and removes segments
+    // no longer listed. If project is not a copy of the project last loaded or saved, every task is written.
+    // Returns the number of task segments written; throws IOException if a file cannot be written,
+    // tasks whose segments were written before the failure are not written again
+    public synchronized int save(Project project) throws IOException {
+        return save(project, NO_SAVE, 0);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: saves the project as save does, recording that it holds the first journalPosition changes
+    // of the journal with the given id, the manifest is written whenever that position moves
+    public synchronized int save(Project project, long journalId, long journalPosition) throws IOException {
+        Files.createDirectories(directory);
+        if (project.getIdentity() != savedIdentity) {
+            forget();
+            savedIdentity = project.getIdentity();
+        }
+        if (savedName == null) {
+            nextSegmentId = Math.max(nextSegmentId, highestSegmentId() + 1);
+        }
+        Map<String, Segment> current = new LinkedHashMap<>();
+        int written = 0;
+        for (Task task : project.getTaskList()) {
+            Segment segment = segments.get(task.getName());
+            if (segment == null || segment.savedModCount != task.getModCount()) {
+                segment = new Segment(SEGMENT_PREFIX + nextSegmentId++ + SEGMENT_EXTENSION, task.getModCount());
+                manifestCurrent = false;
+                writeHistoryFile(segment.file, task);
+                writeFile(directory.resolve(segment.file), task::toVersionedJson);
+                segments.put(task.getName(), segment);
+                written++;
+            }
+            current.put(task.getName(), segment);
+        }
+        if (!manifestCurrent || !project.getName().equals(savedName) || project.getModCount() != savedModCount
+                || journalId != this.journalId || journalPosition != this.journalPosition) {
+            long newSaveId = newSaveId();
+            writeFile(directory.resolve(MANIFEST), writer -> writeManifest(writer, project, current,
+                    newSaveId, journalId, journalPosition));
+            manifestCurrent = true;
+            saveId = newSaveId;
+            this.journalId = journalId;
+            this.journalPosition = journalPosition;
+            segments = current;
+            savedName = project.getName();
+            savedModCount = project.getModCount();
+            publishListedFiles();
+            deleteUnlistedSegments();
+        }
+        return written;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: forgets which tasks have been saved, so the next save writes every task
+    public synchronized void forget() {
+        segments = new HashMap<>();
+        savedIdentity = null;
+        listedFiles = new HashMap<>();
+        listedIdentity = null;
+        savedName = null;
+        savedModCount = -1;
+        nextSegmentId = 0;
+        manifestCurrent = false;
+        saveId = NO_SAVE;
+        journalId = NO_SAVE;
+        journalPosition = 0;
+    }
+
+    // EFFECTS: returns the save id of the manifest last read or written, NO_SAVE if there is none
+    // or the manifest was written before it held one
+    public synchronized long getSaveId() {
+        return saveId;
+    }
+
+    // EFFECTS: returns the id of the journal whose changes the manifest last read or written holds,
+    // NO_SAVE if it records none
+    public synchronized long getJournalId() {
+        return journalId;
+    }
+
+    // EFFECTS: returns how many of that journal's changes the manifest last read or written holds
+    public synchronized long getJournalPosition() {
+        return journalPosition;
+    }
+
+    // EFFECTS: returns a new random save id other than NO_SAVE
+    private static long newSaveId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == NO_SAVE);
+        return id;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records the segment files the manifest now lists as those of the project last loaded or saved
+    private void publishListedFiles() {
+        Map<String, String> files = new HashMap<>();
+        for (Map.Entry<String, Segment> entry : segments.entrySet()) {
+            files.put(entry.getKey(), entry.getValue().file);
+        }
+        listedFiles = files;
+        listedIdentity = savedIdentity;
+    }
+
+    // EFFECTS: returns the segment file the manifest lists for the named task of the project with the given
+    // identity, or loadedFile if the manifest now describes another project or does not list the task
+    private String listedFile(String taskName, Object identity, String loadedFile) {
+        Map<String, String> files = listedFiles;
+        String file = (identity == listedIdentity) ? files.get(taskName) : null;
+        return (file != null) ? file : loadedFile;
+    }
+
+    // EFFECTS: writes the writable to path through a temporary file that is moved into place
+    private void writeFile(Path path, StreamingWritable writable) throws IOException {
+        JsonWriter writer = new JsonWriter(path.toString(), forceOnClose);
+        writer.open();
+        writer.write(writable);
+        writer.close();
+    }
+
+    // EFFECTS: writes the task's history next to its segment as a mapped history file,
+    // a history spanning too many days for one is only kept in the segment
+    private void writeHistoryFile(String segmentFile, Task task) throws IOException {
+        Path file = historyFile(segmentFile);
+        if (!MappedHistoryStore.write(file, task, forceOnClose)) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // EFFECTS: returns the mapped history file kept next to the given segment
+    private Path historyFile(String segmentFile) {
+        return directory.resolve(segmentFile.substring(0, segmentFile.length() - SEGMENT_EXTENSION.length())
+                + HISTORY_EXTENSION);
+    }
+
+    // EFFECTS: emits the manifest with its save id and journal position, listing each task of the project in order
+    // with its durations, total minutes, recent history and segment
+    private static void writeManifest(JSONWriter writer, Project project, Map<String, Segment> listed,
+                                      long saveId, long journalId, long journalPosition) {
+        int recentFrom = EpochDays.of(LocalDate.now()) - (RECENT_DAYS - 1);
+        writer.object()
+                .key(MigrationPipeline.VERSION_KEY).value(MigrationPipeline.CURRENT_VERSION)
+                .key("project_name").value(project.getName())
+                .key("save_id").value(saveId)
+                .key("journal_id").value(journalId)
+                .key("journal_position").value(journalPosition)
+                .key("tasks").array();
+        for (Task task : project.getTaskList()) {
+            writer.object()
+                    .key("task_name").value(task.getName())
+                    .key("workDurationMinutes").value(task.getWorkDurationMinutes())
+                    .key("breakDurationMinutes").value(task.getBreakDurationMinutes())
+                    .key("longBreakDurationMinutes").value(task.getLongBreakDurationMinutes())
+                    .key("totalMinutes").value(task.getTotalMinutes());
+            writeRecentHistory(writer, task, recentFrom);
+            writer.key("segment").value(listed.get(task.getName()).file)
+                    .endObject();
+        }
+        writer.endArray().endObject();
+    }
+
+    // EFFECTS: emits the day from which the task's history is listed and its entries from that day onwards,
+    // at least every entry from recentFrom onwards
+    private static void writeRecentHistory(JSONWriter writer, Task task, int recentFrom) {
+        JSONWriter days = writer.key("recentHistory").array();
+        int from = task.forEachDaySince(recentFrom, (epochDay, minutes) -> days.object()
+                .key("date").value(LocalDate.ofEpochDay(epochDay).toString())
+                .key("minutes_completed").value(minutes)
+                .endObject());
+        writer.endArray().key("recentFrom").value(LocalDate.ofEpochDay(from).toString());
+    }
+
+    // EFFECTS: returns true if the manifest entry holds the durations and total minutes of its task,
+    // manifests written before they were added only hold the name and segment
+    private static boolean hasSummary(JSONObject entry) {
+        return entry.has("workDurationMinutes") && entry.has("breakDurationMinutes")
+                && entry.has("longBreakDurationMinutes") && entry.has("totalMinutes");
+    }
+
+    // EFFECTS: returns the task described by the manifest entry, its history is mapped from the segment's history
+    // file or read from the segment when needed, lookups within its recent history are answered from the manifest.
+    // Saves of the project with the given identity may move the task to a new segment before then, its history
+    // is read from whichever segment the manifest lists for it at the time
+    private Task lazyTask(JSONObject entry, String segmentFile, int version, Object identity) {
+        String name = entry.getString("task_name");
+        int totalMinutes = entry.getInt("totalMinutes");
+        LazyHistoryStore.Source source = () -> {
+            String file = listedFile(name, identity, segmentFile);
+            while (true) {
+                try {
+                    HistoryStore mapped = mapHistory(historyFile(file), totalMinutes);
+                    return (mapped != null) ? mapped : readHistory(directory.resolve(file), version);
+                } catch (NoSuchFileException e) {
+                    // a save replaced the segment between looking it up and reading it
+                    String moved = listedFile(name, identity, segmentFile);
+                    if (moved.equals(file)) {
+                        throw e;
+                    }
+                    file = moved;
+                }
+            }
+        };
+        LazyHistoryStore history = new LazyHistoryStore(source);
+        if (entry.has("recentFrom") && entry.has("recentHistory")) {
+            history = new LazyHistoryStore(source, (int) LocalDate.parse(entry.getString("recentFrom")).toEpochDay(),
+                    JsonReader.parseHistory(entry.getJSONArray("recentHistory")));
+        }
+        return new Task(name, entry.getInt("workDurationMinutes"),
+                entry.getInt("breakDurationMinutes"), entry.getInt("longBreakDurationMinutes"),
+                history, totalMinutes);
+    }
+
+    // EFFECTS: returns the history in the given mapped history file, or null if the file is missing, cannot be
+    // mapped or does not add up to the task's total minutes, as a damaged file would not
+    private static HistoryStore mapHistory(Path file, int totalMinutes) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            MappedHistoryStore history = MappedHistoryStore.openReadOnly(file);
+            long[] total = new long[1];
+            history.forEach((epochDay, minutes) -> total[0] += minutes);
+            return (total[0] == totalMinutes) ? history : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // EFFECTS: deletes every segment file and history file in the directory that the current manifest does not list
+    private void deleteUnlistedSegments() throws IOException {
+        List<Path> listed = new ArrayList<>();
+        for (Segment segment : segments.values()) {
+            listed.add(directory.resolve(segment.file));
+            listed.add(historyFile(segment.file));
+        }
+        for (Path file : files(SEGMENT_EXTENSION)) {
+            if (!listed.contains(file)) {
+                Files.deleteIfExists(file);
+            }
+        }
+        for (Path file : files(HISTORY_EXTENSION)) {
+            if (!listed.contains(file)) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // EFFECTS: returns the highest id among the segment files in the directory, or -1 if there are none,
+    // so that new segments never overwrite a file an existing manifest may still list
+    private int highestSegmentId() throws IOException {
+        int highest = -1;
+        for (Path file : files(SEGMENT_EXTENSION)) {
+            highest = Math.max(highest, segmentId(file.getFileName().toString()));
+        }
+        return highest;
+    }
+
+    // EFFECTS: returns the files of tasks in the directory that have the given extension
+    private List<Path> files(String extension) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream =
+                     Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + extension)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    // EFFECTS: returns the id in a segment file name, or -1 if the name does not hold one
+    private static int segmentId(String file) {
+        try {
+            return Integer.parseInt(file.substring(SEGMENT_PREFIX.length(),
+                    file.length() - SEGMENT_EXTENSION.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    // EFFECTS: reads the history of the task in the given segment listed by a manifest of the given schema version;
+    // throws IOException if the segment cannot be read or is not valid
+    private DayMinutesMap readHistory(Path segment, int manifestVersion) throws IOException {
+        try {
+            return JsonReader.parseHistory(readSegment(segment, manifestVersion));
+        } catch (JSONException | ClassCastException e) {
+            throw new IOException("Invalid task segment " + segment + ": " + e.getMessage(), e);
+        }
+    }
+
+    // EFFECTS: reads the task object in the given segment and upgrades it from the schema version the segment
+    // starts with, or from manifestVersion if the segment was written before segments held their own
+    private JSONObject readSegment(Path segment, int manifestVersion) throws IOException {
+        JSONObject task = readObject(segment);
+        int version = task.has(MigrationPipeline.VERSION_KEY)
+                ? migrations.checkSupported(task.getInt(MigrationPipeline.VERSION_KEY)) : manifestVersion;
+        return migrations.migrateTask(task, version);
+    }
+
+    // EFFECTS: reads the JSON object in the given file
+    private static JSONObject readObject(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return new JSONObject(new JSONTokener(reader));
+        }
+    }
+
+    // Represents the segment file of one task and the task's modification count when the file was written,
+    // -1 if the file must be rewritten on the next save
+    private static class Segment {
+        private final String file;
+        private final int savedModCount;
+
+        // EFFECTS: constructs a segment record
+        Segment(String file, int savedModCount) {
+            this.file = file;
+            this.savedModCount = savedModCount;
+        }
+    }
+}
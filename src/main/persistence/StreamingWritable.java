@@ -0,0 +1,10 @@
+package persistence;
+
+import org.json.JSONWriter;
+
+// Streaming counterpart of Writable, implemented by objects that can emit their JSON representation token by token
+// without building a JSONObject tree first
+public interface StreamingWritable {
+    // EFFECTS: emits this as a JSON value to writer, throws JSONException if writer cannot be written to
+    void toJson(JSONWriter writer);
+}
@@ -0,0 +1,52 @@
+package persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+// Helpers for the variable length integer encoding used by the binary persistence formats.
+// Each byte holds 7 bits of the value, the high bit is set when more bytes follow,
+// so small values such as durations and daily minutes take a single byte
+public final class VarInts {
+    private static final int DATA_BITS = 0x7F;
+    private static final int CONTINUATION_BIT = 0x80;
+
+    // EFFECTS: prevents construction, this class only holds static helpers
+    private VarInts() {
+    }
+
+    // REQUIRES: value >= 0
+    // EFFECTS: writes value to out as an unsigned varint
+    public static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~DATA_BITS) != 0) {
+            out.writeByte((value & DATA_BITS) | CONTINUATION_BIT);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    // EFFECTS: writes value to out as a zigzag encoded varint so small negative values stay small
+    public static void writeSignedVarInt(DataOutput out, int value) throws IOException {
+        writeVarInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    // EFFECTS: reads an unsigned varint from in and returns it,
+    // throws IOException if the encoding is longer than an int
+    public static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & DATA_BITS) << shift;
+            if ((b & CONTINUATION_BIT) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    // EFFECTS: reads a zigzag encoded varint from in and returns it
+    public static int readSignedVarInt(DataInput in) throws IOException {
+        int raw = readVarInt(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+}
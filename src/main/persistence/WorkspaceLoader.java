@@ -0,0 +1,138 @@
+package persistence;
+
+import model.Project;
+import model.Workspace;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Represents a loader that reads every JSON project file in a directory into a workspace.
+// Each file is parsed by its own JsonReader on a thread pool, so a directory loads in about the time
+// of the slowest file given enough threads. Reading blocks on file IO, so by default the loader owns a bounded pool
+// of its own rather than tying up a shared one. Results are merged in file name order so the workspace is
+// the same from run to run, and the time spent reading each file is kept for reporting
+public class WorkspaceLoader implements AutoCloseable {
+    public static final int MAX_THREADS = 8;
+
+    private final Path directory;
+    private final ExecutorService pool;
+    private final boolean ownsPool;
+    private Map<Path, Long> loadTimes;
+    private Map<Path, Exception> failures;
+
+    // EFFECTS: constructs a loader for the given directory that parses files on a pool of its own
+    // with up to MAX_THREADS daemon threads, shut down by close
+    public WorkspaceLoader(String directory) {
+        this(directory, Executors.newFixedThreadPool(
+                Math.min(MAX_THREADS, Math.max(2, Runtime.getRuntime().availableProcessors())), runnable -> {
+                    Thread thread = new Thread(runnable, "workspace-loader");
+                    thread.setDaemon(true);
+                    return thread;
+                }), true);
+    }
+
+    // EFFECTS: constructs a loader for the given directory that parses files on the given pool,
+    // which close leaves running
+    public WorkspaceLoader(String directory, ExecutorService pool) {
+        this(directory, pool, false);
+    }
+
+    // EFFECTS: constructs a loader for the given directory that parses files on the given pool,
+    // shutting it down on close if ownsPool is true
+    private WorkspaceLoader(String directory, ExecutorService pool, boolean ownsPool) {
+        this.directory = Paths.get(directory);
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+        this.loadTimes = new LinkedHashMap<>();
+        this.failures = new LinkedHashMap<>();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads every .json file in the directory in parallel and returns a workspace of the projects read.
+    // Files that cannot be parsed, or whose project name is already taken, are left out and recorded as failures.
+    // Throws IOException if the directory cannot be listed
+    public Workspace load() throws IOException {
+        loadTimes.clear();
+        failures.clear();
+        List<Path> files = listProjectFiles();
+        long[] elapsed = new long[files.size()];
+        List<Future<Project>> results = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            int fileIndex = i;
+            results.add(pool.submit(() -> readTimed(files.get(fileIndex), elapsed, fileIndex)));
+        }
+        Workspace workspace = new Workspace();
+        for (int i = 0; i < files.size(); i++) {
+            mergeResult(workspace, files.get(i), results.get(i));
+            loadTimes.put(files.get(i), elapsed[i]);
+        }
+        return workspace;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: shuts down the loader's own pool, if it has one; the loader cannot load again afterwards
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    // EFFECTS: returns the nanoseconds spent reading each file of the last load, in file name order
+    public Map<Path, Long> getLoadTimes() {
+        return Collections.unmodifiableMap(loadTimes);
+    }
+
+    // EFFECTS: returns the files left out of the last load and the reason for each
+    public Map<Path, Exception> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    // EFFECTS: returns the .json files in the directory sorted by file name
+    private List<Path> listProjectFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.json")) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    // MODIFIES: elapsed
+    // EFFECTS: reads the project in file and stores how long it took in elapsed[index]
+    private Project readTimed(Path file, long[] elapsed, int index) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return new JsonReader(file.toString()).read();
+        } finally {
+            elapsed[index] = System.nanoTime() - start;
+        }
+    }
+
+    // MODIFIES: this, workspace
+    // EFFECTS: waits for the project read from file and adds it to workspace, recording a failure instead
+    // if reading failed or a project with the same name was already added
+    private void mergeResult(Workspace workspace, Path file, Future<Project> result) {
+        try {
+            Project project = result.get();
+            if (!workspace.addProject(project)) {
+                failures.put(file, new IOException("Duplicate project name " + project.getName() + " in " + file));
+            }
+        } catch (ExecutionException e) {
+            failures.put(file, (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.put(file, e);
+        }
+    }
+}
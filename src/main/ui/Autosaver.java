@@ -0,0 +1,71 @@
+package ui;
+
+import model.Project;
+import model.ProjectObserver;
+import model.Task;
+
+import javax.swing.Timer;
+import java.time.LocalDate;
+
+// Represents the GUI's autosave, it observes the watched project and saves it through ProjectPersistence
+// once the autosave interval has passed after the first unsaved change. Changes made within the interval are
+// batched into that one save, so at most one interval of work (plus the time to write) can be lost.
+// Changes, the timer and saves all happen on the event dispatch thread
+public class Autosaver implements ProjectObserver {
+    private final ProjectPersistence persistence;
+    private final Timer timer;
+    private Project project;
+
+    // EFFECTS: constructs an autosaver that is not watching any project yet
+    public Autosaver(ProjectPersistence persistence, int intervalMillis) {
+        this.persistence = persistence;
+        this.timer = new Timer(intervalMillis, e -> persistence.save(project));
+        this.timer.setRepeats(false);
+    }
+
+    // MODIFIES: this, project
+    // EFFECTS: starts watching the given project instead of the previously watched one. A save of the previous
+    // project that is still waiting for the interval is dropped, as the project is usually replaced by one that
+    // was just loaded and saving the previous one would overwrite it; call flush first to keep those changes
+    public void watch(Project project) {
+        if (this.project == project) {
+            return;
+        }
+        timer.stop();
+        if (this.project != null) {
+            this.project.removeObserver(this);
+        }
+        this.project = project;
+        project.addObserver(this);
+    }
+
+    // EFFECTS: saves the watched project now if it has changes that are waiting for the autosave interval
+    public void flush() {
+        if (timer.isRunning()) {
+            timer.stop();
+            persistence.save(project);
+        }
+    }
+
+    @Override
+    public void taskAdded(Task task) {
+        scheduleSave();
+    }
+
+    @Override
+    public void timeRecorded(Task task, LocalDate date, int minutesCompleted) {
+        scheduleSave();
+    }
+
+    @Override
+    public void durationsChanged(Task task) {
+        scheduleSave();
+    }
+
+    // EFFECTS: starts the autosave interval unless it is already running for an earlier change
+    private void scheduleSave() {
+        if (!timer.isRunning()) {
+            timer.start();
+        }
+    }
+}
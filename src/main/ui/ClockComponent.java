@@ -5,6 +5,7 @@ import model.Task;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionListener;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 
 // Represents the clock component card, the clock component implements the logic
@@ -23,6 +24,7 @@ public class ClockComponent extends JPanel implements TimerEventListener {
     private JButton cancelButton;
     private JProgressBar progressBar;
     private TimerSessionSubject timerSession;
+    private TimerEventBus.Subscription clockSubscription;
 
     private int completedWorkTimers;
     private String curState;
@@ -46,7 +48,7 @@ public class ClockComponent extends JPanel implements TimerEventListener {
     public void decomposeComponent() {
         if (timerSession != null) {
             timerSession.cancelTimer();
-            timerSession.removeListener();
+            clockSubscription.cancel();
         }
         resetState();
         this.removeAll();
@@ -141,10 +143,13 @@ public class ClockComponent extends JPanel implements TimerEventListener {
     }
 
     // MODIFIES: this
-    // EFFECTS: Initializes a new timer session and sets this as a listener
+    // EFFECTS: Initializes a new timer session and subscribes this to it in place of the previous session
     private void createTimerSession(int requestedMinutes) {
+        if (clockSubscription != null) {
+            clockSubscription.cancel();
+        }
         timerSession = new TimerSessionSubject(requestedMinutes);
-        timerSession.setListener(this);
+        clockSubscription = timerSession.subscribe(this);
         progressBar.setMaximum(60 * requestedMinutes);
     }
 
@@ -184,10 +189,15 @@ public class ClockComponent extends JPanel implements TimerEventListener {
         }
     }
 
-    // EFFECTS: Triggers recording of completed minutes from the timer session
+    // EFFECTS: Triggers recording of completed minutes from the timer session,
+    // reports a status message instead if the task's history cannot be read
     private void recordMinutes() {
         int completedMinutes = timerSession.calculateCompletedMinutes();
-        mainPanel.curTask.recordTime(LocalDate.now(), completedMinutes);
+        try {
+            mainPanel.curTask.recordTime(LocalDate.now(), completedMinutes);
+        } catch (UncheckedIOException e) {
+            mainPanel.showHistoryError(e);
+        }
     }
 
     // MODIFIES: this
@@ -221,8 +231,8 @@ public class ClockComponent extends JPanel implements TimerEventListener {
     // EFFECTS: utilized by TimerSession to update the progress bar on tick and trigger
     // re-renders when necessary
     @Override
-    public void updateClock(String curClock, int secondsCompleted, Boolean timerComplete) {
-        progressBar.setString(curClock);
+    public void updateClock(int secondsRemaining, int secondsCompleted, boolean timerComplete) {
+        progressBar.setString(ClockLabels.of(secondsRemaining));
         progressBar.setValue(secondsCompleted);
         if (timerComplete) {
             calculateAndDetermineState();
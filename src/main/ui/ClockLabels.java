@@ -0,0 +1,33 @@
+package ui;
+
+// Represents the "m:ss" labels shown on the clock, each label is formatted once the first time it is needed
+// and then shared, so refreshing the clock every second does not build a new String each time.
+// Times beyond the table are formatted directly
+public final class ClockLabels {
+    private static final int TABLE_SECONDS = 4 * 60 * 60;
+    private static final String[] LABELS = new String[TABLE_SECONDS + 1];
+
+    private ClockLabels() {
+    }
+
+    // REQUIRES: totalSeconds >= 0
+    // EFFECTS: Returns the given number of seconds as minutes and zero padded seconds, e.g. 25:00 or 4:05
+    public static String of(int totalSeconds) {
+        if (totalSeconds > TABLE_SECONDS) {
+            return format(totalSeconds);
+        }
+        String label = LABELS[totalSeconds];
+        if (label == null) {
+            // a racing thread at worst formats the same label twice
+            label = format(totalSeconds);
+            LABELS[totalSeconds] = label;
+        }
+        return label;
+    }
+
+    // EFFECTS: Formats the given number of seconds as minutes and zero padded seconds
+    private static String format(int totalSeconds) {
+        int seconds = totalSeconds % 60;
+        return totalSeconds / 60 + ((seconds >= 10) ? ":" : ":0") + seconds;
+    }
+}
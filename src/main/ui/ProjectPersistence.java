@@ -0,0 +1,523 @@
+package ui;
+
+import model.Project;
+import model.Workspace;
+import persistence.JsonMigrator;
+import persistence.JsonReader;
+import persistence.JsonWriter;
+import persistence.ProjectJournal;
+import persistence.SegmentedProjectStore;
+import persistence.WorkspaceLoader;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+// Represents the GUI's load and save service, file work runs off the event dispatch thread
+// so the window and running clock stay responsive while large projects are read or written.
+// Projects are kept in a segmented store that only rewrites the tasks changed since the last load or save,
+// its tasks are loaded with their totals only and each task's history is read when it is first shown.
+// A project that has not been saved there yet is loaded from the older single JSON file instead,
+// which is first upgraded in place to the current schema version.
+// JSON loads report how many tasks have been read so far. Saves write a snapshot of the project on a single
+// background thread, and save requests made while an earlier snapshot is still waiting to be written
+// replace it, so repeated clicks result in one write of the newest state. A load first waits for saves queued
+// before it, and saves requested while it runs are held back: they belong to the project the load replaces,
+// so they are dropped once the load succeeds and only written if it fails.
+// A workspace, every project file in a directory, is read in parallel in the background and a project picked
+// from it replaces the current one, the next save then rewrites the store with every task of that project.
+// Between saves, the current project's changes are journaled on top of the store: each change is queued as a record
+// on the event dispatch thread and appended on the save thread, records queued while an earlier append is forced
+// to the device are committed together, and each save drops the records it holds from the journal.
+// On startup the project is restored in the background by loading the store and replaying the journal.
+// A loaded or picked project starts a new journal, one read from JSON or picked from a workspace is saved
+// to the store right away so there is a save for its journal to apply to.
+// Status messages and load results are always delivered on the event dispatch thread
+public class ProjectPersistence {
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private final SegmentedProjectStore store;
+    private final String storeDirectory;
+    private final String jsonStore;
+    private final Consumer<String> statusListener;
+    private final ExecutorService saveExecutor;
+    private final AtomicReference<Snapshot> pendingSave;
+    private final Queue<QueuedRecord> queuedRecords;
+    private final AtomicBoolean recordsScheduled;
+    private boolean loading;
+    private Project heldSave;
+    private String journalFile;
+    // The journaled project and where its changes are recorded, as seen from the event dispatch thread
+    private Project journaledProject;
+    private ProjectJournal.Recorder recorder;
+    private int recordGeneration;
+    private long recordJournalId;
+    private long recordPosition;
+    // The open journal and the generation of records appended to it, only used on the save thread
+    private ProjectJournal journal;
+    private int journalGeneration;
+
+    // EFFECTS: constructs a service that loads and saves the segmented store in storeDirectory,
+    // falling back to loading the jsonStore file while there is no segmented store,
+    // reporting status messages to statusListener
+    public ProjectPersistence(String storeDirectory, String jsonStore, Consumer<String> statusListener) {
+        this.store = new SegmentedProjectStore(storeDirectory);
+        this.store.setLazyHistory(true);
+        this.storeDirectory = storeDirectory;
+        this.jsonStore = jsonStore;
+        this.statusListener = statusListener;
+        this.pendingSave = new AtomicReference<>();
+        this.queuedRecords = new ConcurrentLinkedQueue<>();
+        this.recordsScheduled = new AtomicBoolean();
+        this.saveExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "project-save");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // REQUIRES: called on the event dispatch thread before any load or save
+    // MODIFIES: this
+    // EFFECTS: starts journaling the changes to project in journalFile and, in the background, restores the project
+    // of the last session from the journal and the store. A restored project is handed to onRestored and saved,
+    // replacing project, which is journaled from then on if there is none. Saves requested meanwhile are held back
+    // as they are during a load. If the journal cannot be read or written, changes are not journaled
+    public void openJournal(String journalFile, Project project, Consumer<Project> onRestored) {
+        this.journalFile = journalFile;
+        loading = true;
+        statusListener.accept("Restoring the last session from " + journalFile + "...");
+        watchJournaled(project);
+        int generation = recordGeneration;
+        long id = recordJournalId;
+        String name = project.getName();
+        saveExecutor.execute(() -> {
+            ProjectJournal opened = new ProjectJournal(journalFile);
+            Project restored;
+            try {
+                restored = opened.recover(store);
+                if (restored == null) {
+                    opened.start(id, SegmentedProjectStore.NO_SAVE, name);
+                    journalGeneration = generation;
+                }
+                journal = opened;
+            } catch (IOException | RuntimeException e) {
+                SwingUtilities.invokeLater(this::restoreFailed);
+                return;
+            }
+            writeQueuedRecords();
+            long restoredId = opened.getId();
+            long restoredPosition = opened.getPosition();
+            SwingUtilities.invokeLater(() -> restored(restored, restoredId, restoredPosition, onRestored));
+        });
+    }
+
+    // REQUIRES: called on the event dispatch thread
+    // MODIFIES: this
+    // EFFECTS: starts reading the project in the background and hands it to onLoaded once complete,
+    // does nothing if a load is already running
+    public void load(Consumer<Project> onLoaded) {
+        if (loading) {
+            return;
+        }
+        loading = true;
+        statusListener.accept("Loading project from " + source() + "...");
+        new LoadWorker(onLoaded).execute();
+    }
+
+    // REQUIRES: called on the event dispatch thread
+    // EFFECTS: starts reading every project file in directory in the background and hands the workspace
+    // to onLoaded once complete, reporting how many files were left out
+    public void openWorkspace(String directory, Consumer<Workspace> onLoaded) {
+        statusListener.accept("Opening workspace " + directory + "...");
+        new WorkspaceWorker(directory, onLoaded).execute();
+    }
+
+    // REQUIRES: called on the event dispatch thread
+    // MODIFIES: this
+    // EFFECTS: journals project instead of the current project and saves it, writing every task to the store
+    public void replaceProject(Project project) {
+        startJournal(project, SegmentedProjectStore.NO_SAVE);
+        save(project);
+    }
+
+    // REQUIRES: called on the event dispatch thread
+    // EFFECTS: snapshots the project and queues the snapshot to be written,
+    // if an earlier snapshot has not started writing yet it is replaced instead of queueing another write.
+    // The snapshot shares task histories with the project, so taking it does not copy them on this thread.
+    // While a load is running the project is held back until the load has finished instead
+    public void save(Project project) {
+        if (loading) {
+            heldSave = project;
+            return;
+        }
+        boolean journaled = journalFile != null && project == journaledProject;
+        Snapshot snapshot = new Snapshot(project.copy(), journaled ? recordJournalId : SegmentedProjectStore.NO_SAVE,
+                journaled ? recordPosition : 0);
+        if (pendingSave.getAndSet(snapshot) == null) {
+            statusListener.accept("Saving project " + project.getName() + "...");
+            saveExecutor.execute(this::writePendingSave);
+        }
+    }
+
+    // REQUIRES: called on the event dispatch thread
+    // EFFECTS: snapshots the project and writes it in the background to destination as an indented JSON file
+    // for people and other tools to read, after any saves queued before it
+    public void export(Project project, String destination) {
+        Project snapshot = project.copy();
+        statusListener.accept("Exporting project " + project.getName() + "...");
+        saveExecutor.execute(() -> {
+            String message;
+            try {
+                JsonWriter writer = new JsonWriter(destination);
+                writer.setPrettyPrint(true);
+                writer.open();
+                writer.write(snapshot);
+                writer.close();
+                message = "Exported project " + snapshot.getName() + " to " + destination;
+            } catch (IOException | RuntimeException e) {
+                message = "Unable to write to file: " + destination;
+            }
+            String result = message;
+            SwingUtilities.invokeLater(() -> statusListener.accept(result));
+        });
+    }
+
+    // EFFECTS: stops accepting saves, waits a bounded time for queued saves and journal records to be written
+    // and closes the journal
+    public void shutdown() {
+        saveExecutor.shutdown();
+        try {
+            saveExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeJournal();
+    }
+
+    // REQUIRES: called on the event dispatch thread
+    // MODIFIES: this
+    // EFFECTS: hands a restored project to onRestored and journals and saves it, or saves the save held back
+    // while restoring if there is none
+    private void restored(Project restored, long id, long position, Consumer<Project> onRestored) {
+        loading = false;
+        Project held = heldSave;
+        heldSave = null;
+        if (restored == null) {
+            statusListener.accept("Journaling changes to " + journalFile);
+            if (held != null) {
+                save(held);
+            }
+            return;
+        }
+        watchJournaled(restored);
+        recordJournalId = id;
+        recordPosition = position;
+        int generation = recordGeneration;
+        saveExecutor.execute(() -> {
+            journalGeneration = generation;
+            writeQueuedRecords();
+        });
+        onRestored.accept(restored);
+        statusListener.accept("Restored project " + restored.getName() + " from " + journalFile);
+        save(restored);
+    }
+
+    // REQUIRES: called on the event dispatch thread
+    // MODIFIES: this
+    // EFFECTS: stops journaling after the journal could not be restored and writes the save held back meanwhile
+    private void restoreFailed() {
+        loading = false;
+        Project held = heldSave;
+        heldSave = null;
+        stopJournaling();
+        statusListener.accept("Unable to restore the last session from " + journalFile);
+        if (held != null) {
+            save(held);
+        }
+    }
+
+    // REQUIRES: called on the event dispatch thread
+    // MODIFIES: this
+    // EFFECTS: journals project instead of the current project in a new journal whose records apply to the save
+    // of the store with the given save id, the journal is started on the save thread after the saves queued so far
+    private void startJournal(Project project, long baseSaveId) {
+        if (journalFile == null) {
+            return;
+        }
+        watchJournaled(project);
+        int generation = recordGeneration;
+        long id = recordJournalId;
+        saveExecutor.execute(() -> {
+            journalGeneration = generation;
+            if (journal != null) {
+                try {
+                    journal.start(id, baseSaveId, null);
+                } catch (IOException | RuntimeException e) {
+                    journalFailed();
+                }
+            }
+            writeQueuedRecords();
+        });
+    }
+
+    // REQUIRES: called on the event dispatch thread
+    // MODIFIES: this
+    // EFFECTS: records the changes to project, instead of those to the current project, under a new generation
+    // and journal id, starting from position 0
+    private void watchJournaled(Project project) {
+        if (journaledProject != null) {
+            journaledProject.removeObserver(recorder);
+        }
+        journaledProject = project;
+        recordGeneration++;
+        recordJournalId = ProjectJournal.newId();
+        recordPosition = 0;
+        int generation = recordGeneration;
+        recorder = new ProjectJournal.Recorder(record -> queueRecord(generation, record));
+        project.addObserver(recorder);
+    }
+
+    // REQUIRES: called on the event dispatch thread
+    // MODIFIES: this
+    // EFFECTS: stops recording changes to the current project
+    private void stopJournaling() {
+        if (journaledProject != null) {
+            journaledProject.removeObserver(recorder);
+        }
+        journaledProject = null;
+        recorder = null;
+        journalFile = null;
+    }
+
+    // REQUIRES: called on the event dispatch thread
+    // MODIFIES: this
+    // EFFECTS: queues a record of the given generation to be appended on the save thread, scheduling an append
+    // unless one is already waiting to run, which then commits this record with the others queued before it
+    private void queueRecord(int generation, byte[] record) {
+        recordPosition++;
+        queuedRecords.add(new QueuedRecord(generation, record));
+        if (recordsScheduled.compareAndSet(false, true)) {
+            saveExecutor.execute(() -> {
+                recordsScheduled.set(false);
+                writeQueuedRecords();
+            });
+        }
+    }
+
+    // REQUIRES: called on the save thread
+    // MODIFIES: this
+    // EFFECTS: appends every queued record of the journal's generation with one force, drops those of earlier
+    // generations and leaves those of later generations queued until their journal is started
+    private void writeQueuedRecords() {
+        List<byte[]> batch = new ArrayList<>();
+        QueuedRecord next;
+        while ((next = queuedRecords.peek()) != null && next.generation <= journalGeneration) {
+            queuedRecords.poll();
+            if (next.generation == journalGeneration) {
+                batch.add(next.record);
+            }
+        }
+        if (batch.isEmpty() || journal == null) {
+            return;
+        }
+        try {
+            journal.append(batch);
+        } catch (IOException | RuntimeException e) {
+            journalFailed();
+        }
+    }
+
+    // REQUIRES: called on the save thread after the snapshot has been saved
+    // MODIFIES: this
+    // EFFECTS: drops the records the snapshot holds from the journal if it is the journal they were recorded to
+    private void compactJournal(Snapshot snapshot) {
+        writeQueuedRecords();
+        if (journal == null || journal.getId() != snapshot.journalId) {
+            return;
+        }
+        try {
+            journal.compact(snapshot.journalPosition);
+        } catch (IOException | RuntimeException e) {
+            journalFailed();
+        }
+    }
+
+    // REQUIRES: called on the save thread
+    // MODIFIES: this
+    // EFFECTS: closes the journal after it could not be written and reports it on the event dispatch thread
+    private void journalFailed() {
+        closeJournal();
+        SwingUtilities.invokeLater(() -> {
+            statusListener.accept("Unable to write to file: " + journalFile);
+            stopJournaling();
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the journal, if any, and stops journaling changes
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            // the records appended so far were forced to the device as they were written
+        }
+        journal = null;
+    }
+
+    // EFFECTS: writes the newest pending snapshot and reports the result on the event dispatch thread
+    private void writePendingSave() {
+        Snapshot snapshot = pendingSave.getAndSet(null);
+        String message;
+        try {
+            int written = store.save(snapshot.project, snapshot.journalId, snapshot.journalPosition);
+            message = "Saved project " + snapshot.project.getName() + " to " + storeDirectory
+                    + " (" + written + " changed task(s))";
+            compactJournal(snapshot);
+        } catch (IOException | RuntimeException e) {
+            // a failed save is reported like an unwritable file instead of leaving the status at "Saving..."
+            message = "Unable to write to file: " + storeDirectory;
+        }
+        String result = message;
+        SwingUtilities.invokeLater(() -> statusListener.accept(result));
+    }
+
+    // EFFECTS: returns the location the next load reads from
+    private String source() {
+        return store.exists() ? storeDirectory : jsonStore;
+    }
+
+    // Represents a background read of the store that publishes the number of tasks read as it goes
+    private class LoadWorker extends SwingWorker<Project, Integer> {
+        private final Consumer<Project> onLoaded;
+        // Save id of the store the project was read from, NO_SAVE if it was read from the JSON file
+        private long loadedSaveId;
+
+        // EFFECTS: constructs a worker that hands the loaded project to onLoaded
+        LoadWorker(Consumer<Project> onLoaded) {
+            this.onLoaded = onLoaded;
+        }
+
+        @Override
+        protected Project doInBackground() throws Exception {
+            // saves queued before the load must not be written over the project it reads
+            saveExecutor.submit(() -> { }).get();
+            Project project;
+            if (store.exists()) {
+                project = store.load();
+                loadedSaveId = store.getSaveId();
+            } else {
+                new JsonMigrator(jsonStore).migrate();
+                JsonReader jsonReader = new JsonReader(jsonStore);
+                jsonReader.setProgressListener(this::publish);
+                project = jsonReader.read();
+                store.forget();
+                loadedSaveId = SegmentedProjectStore.NO_SAVE;
+            }
+            return project;
+        }
+
+        @Override
+        protected void process(List<Integer> tasksRead) {
+            statusListener.accept("Loading project... " + tasksRead.get(tasksRead.size() - 1) + " task(s) read");
+        }
+
+        @Override
+        protected void done() {
+            loading = false;
+            Project held = heldSave;
+            heldSave = null;
+            try {
+                Project project = get();
+                onLoaded.accept(project);
+                statusListener.accept("Loaded project " + project.getName() + " from " + source());
+                startJournal(project, loadedSaveId);
+                if (loadedSaveId == SegmentedProjectStore.NO_SAVE && journalFile != null) {
+                    // the journal only applies on top of the store, so a project read from JSON is moved into it
+                    save(project);
+                }
+            } catch (ExecutionException e) {
+                statusListener.accept("Unable to read from file: " + source());
+                if (held != null) {
+                    save(held);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Represents a snapshot of a project waiting to be saved and how many changes of which journal it holds
+    private static class Snapshot {
+        private final Project project;
+        private final long journalId;
+        private final long journalPosition;
+
+        // EFFECTS: constructs a snapshot of project holding the first journalPosition changes of journal journalId
+        Snapshot(Project project, long journalId, long journalPosition) {
+            this.project = project;
+            this.journalId = journalId;
+            this.journalPosition = journalPosition;
+        }
+    }
+
+    // Represents a journal record waiting to be appended and the generation of the journal it belongs to
+    private static class QueuedRecord {
+        private final int generation;
+        private final byte[] record;
+
+        // EFFECTS: constructs a queued record
+        QueuedRecord(int generation, byte[] record) {
+            this.generation = generation;
+            this.record = record;
+        }
+    }
+
+    // Represents a background read of every project file in a directory
+    private class WorkspaceWorker extends SwingWorker<Workspace, Void> {
+        private final WorkspaceLoader loader;
+        private final String directory;
+        private final Consumer<Workspace> onLoaded;
+
+        // EFFECTS: constructs a worker that reads the projects in directory and hands them to onLoaded
+        WorkspaceWorker(String directory, Consumer<Workspace> onLoaded) {
+            this.loader = new WorkspaceLoader(directory);
+            this.directory = directory;
+            this.onLoaded = onLoaded;
+        }
+
+        @Override
+        protected Workspace doInBackground() throws Exception {
+            try {
+                return loader.load();
+            } finally {
+                loader.close();
+            }
+        }
+
+        @Override
+        protected void done() {
+            try {
+                Workspace workspace = get();
+                statusListener.accept("Opened workspace " + directory + " (" + workspace.size() + " project(s), "
+                        + loader.getFailures().size() + " file(s) skipped)");
+                onLoaded.accept(workspace);
+            } catch (ExecutionException e) {
+                statusListener.accept("Unable to read from directory: " + directory);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
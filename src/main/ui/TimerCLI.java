@@ -1,15 +1,20 @@
 package ui;
 
+import model.EventLog;
 import model.Project;
 import model.Task;
 import model.TimerSession;
+import model.Workspace;
 import persistence.*;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.InputMismatchException;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 // Code influenced by JsonSerializationDemo: https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo
@@ -17,14 +22,23 @@ import java.util.Scanner;
 
 // Task timer command line application
 public class TimerCLI {
+    private static final String PROJECT_STORE = "./data/project";
     private static final String JSON_STORE = "./data/project.json";
+    private static final String EXPORT_FILE = "./data/export.json";
+    private static final String WORKSPACE_DIRECTORY = "./data/workspace";
+    private static final String SESSION_JOURNAL = "./data/session.journal";
+    private static final String EVENT_LOG_DIRECTORY = "./data/logs";
     private Project project;
     private Scanner keyboard;
     private int intInput;
     private int taskNum;
     private TimerSession currentTimer;
-    private JsonWriter jsonWriter;
+    private SegmentedProjectStore projectStore;
     private JsonReader jsonReader;
+    private RotatingEventFileSink eventSink;
+    private ProjectJournal journal;
+    private Project journaledProject;
+    private ProjectJournal.Recorder recorder;
 
     // EFFECTS: constructs the TimerCLI
     // Runs app
@@ -37,16 +51,121 @@ public class TimerCLI {
         init();
         System.out.println("Welcome to Task Timer");
         mainMenu();
+        closeJournal();
+        eventSink.close();
         System.out.println("Application Closing");
     }
 
     // MODIFIES: this
-    // EFFECTS: initializes project and scanner
+    // EFFECTS: initializes the on-disk event log, scanner and stores,
+    // restores the project of the last session from its journal
     private void init() {
-        project = new Project("School");
+        eventSink = new RotatingEventFileSink(EVENT_LOG_DIRECTORY);
+        try {
+            eventSink.attachTo(EventLog.getInstance());
+        } catch (IOException e) {
+            System.out.println("Unable to keep the event log in " + EVENT_LOG_DIRECTORY);
+        }
         keyboard = new Scanner(System.in);
-        jsonWriter = new JsonWriter(JSON_STORE);
+        projectStore = new SegmentedProjectStore(PROJECT_STORE);
+        projectStore.setLazyHistory(true);
         jsonReader = new JsonReader(JSON_STORE);
+        openJournal();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: restores the project of the last session from the project store and the journal of its later changes,
+    // or starts journaling a new project if there is none. If they cannot be read or written, a new project is used
+    // and changes are not journaled
+    private void openJournal() {
+        journal = new ProjectJournal(SESSION_JOURNAL);
+        project = new Project("School");
+        try {
+            Project restored = journal.recover(projectStore);
+            if (restored != null) {
+                project = restored;
+                System.out.println("Restored project " + project.getName() + " from " + SESSION_JOURNAL);
+            } else {
+                journal.start(ProjectJournal.newId(), SegmentedProjectStore.NO_SAVE, project.getName());
+            }
+            watchJournaled();
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Unable to restore the last session from " + SESSION_JOURNAL);
+            project = new Project("School");
+            closeJournal();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: journals the current project instead of the one it replaced in a new journal whose changes apply to
+    // the save of the project store with the given save id, if the journal cannot be written changes are
+    // no longer journaled
+    private void startJournal(long baseSaveId) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.start(ProjectJournal.newId(), baseSaveId, null);
+            watchJournaled();
+        } catch (IOException e) {
+            System.out.println("Unable to write to file: " + SESSION_JOURNAL);
+            closeJournal();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: journals the current project, which is not in the project store, instead of the one it replaced
+    // and saves it there, as the journal only applies on top of the store
+    private void replaceJournaled() {
+        if (journal == null) {
+            return;
+        }
+        startJournal(SegmentedProjectStore.NO_SAVE);
+        saveProject();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends each change to the current project to the journal instead of those to the project it replaced
+    private void watchJournaled() {
+        if (journaledProject != null) {
+            journaledProject.removeObserver(recorder);
+        }
+        journaledProject = project;
+        recorder = new ProjectJournal.Recorder(this::appendRecord);
+        project.addObserver(recorder);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends the record to the journal and forces it to the device,
+    // if the journal cannot be written changes are no longer journaled
+    private void appendRecord(byte[] record) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.append(List.of(record));
+        } catch (IOException e) {
+            System.out.println("Unable to write to file: " + SESSION_JOURNAL);
+            closeJournal();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the journal, if any, and stops journaling changes
+    private void closeJournal() {
+        if (journaledProject != null) {
+            journaledProject.removeObserver(recorder);
+            journaledProject = null;
+        }
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.out.println("Unable to close file: " + SESSION_JOURNAL);
+        }
+        journal = null;
     }
 
     // MODIFIES: this
@@ -54,7 +173,8 @@ public class TimerCLI {
     // Can call listTasksMenu and createTaskMenu
     private void mainMenu() {
         while (true) {
-            System.out.println("[1] Timer [2] Task breakdown [3] Add new Task [4] Load data from file [5] Quit");
+            System.out.println("[1] Timer [2] Task breakdown [3] Add new Task [4] Load data from file "
+                    + "[5] Export to JSON [6] Open workspace [7] Quit");
             intInput = handleIntInput();
             if (intInput == 1) {
                 listTasksMenu();
@@ -65,10 +185,14 @@ public class TimerCLI {
             } else if (intInput == 4) {
                 loadProject();
             } else if (intInput == 5) {
+                exportProject();
+            } else if (intInput == 6) {
+                openWorkspace();
+            } else if (intInput == 7) {
                 saveProjectQuery();
                 break;
             } else {
-                System.out.println("Invalid number. Please enter a number 1-4.");
+                System.out.println("Invalid number. Please enter a number 1-7.");
             }
         }
     }
@@ -86,26 +210,103 @@ public class TimerCLI {
         }
     }
 
-    // EFFECTS: saves the project to a file
+    // EFFECTS: saves the tasks changed since the last load or save to the project store
+    // and drops the changes it now holds from the journal
     private void saveProject() {
+        int written;
+        try {
+            if (journal == null) {
+                written = projectStore.save(project);
+            } else {
+                written = projectStore.save(project, journal.getId(), journal.getPosition());
+            }
+            System.out.println("Saved project " + project.getName() + " to " + PROJECT_STORE
+                    + " (" + written + " changed task(s))");
+        } catch (IOException e) {
+            System.out.println("Unable to write to file: " + PROJECT_STORE);
+            return;
+        }
+        if (journal != null) {
+            try {
+                journal.compact(journal.getPosition());
+            } catch (IOException e) {
+                System.out.println("Unable to write to file: " + SESSION_JOURNAL);
+                closeJournal();
+            }
+        }
+    }
+
+    // EFFECTS: writes the whole project as an indented JSON file for people and other tools to read
+    private void exportProject() {
         try {
-            jsonWriter.open();
-            jsonWriter.write(project);
-            jsonWriter.close();
-            System.out.println("Saved project " + project.getName() + " to " + JSON_STORE);
-        } catch (FileNotFoundException e) {
-            System.out.println("Unable to write to file: " + JSON_STORE);
+            JsonWriter writer = new JsonWriter(EXPORT_FILE);
+            writer.setPrettyPrint(true);
+            writer.open();
+            writer.write(project);
+            writer.close();
+            System.out.println("Exported project " + project.getName() + " to " + EXPORT_FILE);
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Unable to write to file: " + EXPORT_FILE);
         }
     }
 
     // MODIFIES: this
-    // EFFECTS: loads project from a file
+    // EFFECTS: loads project from the project store, or from the JSON file if nothing has been saved to the store,
+    // upgrading the JSON file in place to the current schema version first
     private void loadProject() {
+        String source = projectStore.exists() ? PROJECT_STORE : JSON_STORE;
+        try {
+            if (projectStore.exists()) {
+                project = projectStore.load();
+                System.out.println("Loaded project " + project.getName() + " from " + source);
+                startJournal(projectStore.getSaveId());
+            } else {
+                new JsonMigrator(JSON_STORE).migrate();
+                project = jsonReader.read();
+                projectStore.forget();
+                System.out.println("Loaded project " + project.getName() + " from " + source);
+                replaceJournaled();
+            }
+        } catch (IOException e) {
+            System.out.println("Unable to read from file: " + source);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads every project file in the workspace directory and lets the user pick one to replace
+    // the current project, every task of the picked project is then written to the project store
+    private void openWorkspace() {
+        WorkspaceLoader loader = new WorkspaceLoader(WORKSPACE_DIRECTORY);
+        Workspace workspace;
         try {
-            project = jsonReader.read();
-            System.out.println("Loaded project " + project.getName() + " from " + JSON_STORE);
+            workspace = loader.load();
         } catch (IOException e) {
-            System.out.println("Unable to read from file: " + JSON_STORE);
+            System.out.println("Unable to read from directory: " + WORKSPACE_DIRECTORY);
+            return;
+        } finally {
+            loader.close();
+        }
+        for (Map.Entry<Path, Exception> failure : loader.getFailures().entrySet()) {
+            System.out.println("Skipped " + failure.getKey() + ": " + failure.getValue().getMessage());
+        }
+        List<Project> projects = new ArrayList<>(workspace.getProjects());
+        if (projects.isEmpty()) {
+            System.out.println("No projects in " + WORKSPACE_DIRECTORY);
+            return;
+        }
+        String options = "";
+        for (int i = 0; i < projects.size(); i++) {
+            options += "[" + (i + 1) + "] " + projects.get(i).getName() + " ";
+        }
+        System.out.println(options + "[" + (projects.size() + 1) + "] Back");
+        intInput = handleIntInput();
+        if (intInput >= 1 && intInput <= projects.size()) {
+            project = projects.get(intInput - 1);
+            projectStore.forget();
+            System.out.println("Opened project " + project.getName() + " from " + WORKSPACE_DIRECTORY);
+            replaceJournaled();
+        } else if (intInput != projects.size() + 1) {
+            System.out.println("Invalid number. Please enter a number 1-" + (projects.size() + 1) + ".");
         }
     }
 
@@ -0,0 +1,126 @@
+package ui;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Represents the subscriptions to one timer session's clock updates.
+// A clock update is the remaining seconds and completion packed into one long, published from the timer clock's
+// thread. Every subscription chooses how it is delivered:
+// SYNC calls the listener on the publishing thread and must be quick, ASYNC hands every update to the
+// subscription's executor, and COALESCED keeps only the newest update and has at most one delivery queued on the
+// executor at a time, so a slow consumer sees fewer updates instead of a growing backlog.
+// Only SYNC listeners run on the publishing thread, so slow consumers never delay timekeeping
+public class TimerEventBus {
+    static final long NOTHING_PUBLISHED = -1;
+
+    private final int durationSeconds;
+    private final List<Subscription> subscriptions;
+    private volatile long latest;
+
+    // Represents how updates reach a listener
+    public enum Delivery {
+        SYNC, ASYNC, COALESCED
+    }
+
+    // EFFECTS: constructs a bus without subscriptions for a session of the given length
+    public TimerEventBus(int durationSeconds) {
+        this.durationSeconds = durationSeconds;
+        this.subscriptions = new CopyOnWriteArrayList<>();
+        this.latest = NOTHING_PUBLISHED;
+    }
+
+    // REQUIRES: executor is not null unless delivery is SYNC
+    // MODIFIES: this
+    // EFFECTS: subscribes listener with the given delivery, it immediately receives the latest update if any
+    public Subscription subscribe(TimerEventListener listener, Delivery delivery, Executor executor) {
+        Subscription subscription = new Subscription(listener, delivery, executor);
+        subscriptions.add(subscription);
+        long current = latest;
+        if (current != NOTHING_PUBLISHED) {
+            subscription.offer(current);
+        }
+        return subscription;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: delivers the update to every subscription according to its delivery
+    public void publish(long update) {
+        latest = update;
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(update);
+        }
+    }
+
+    // EFFECTS: Returns the number of active subscriptions
+    public int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+
+    // EFFECTS: Returns the packed form of a clock update
+    static long pack(int secondsRemaining, boolean timerComplete) {
+        return ((long) secondsRemaining << 1) | (timerComplete ? 1 : 0);
+    }
+
+    // Represents one listener's subscription to the bus
+    public class Subscription {
+        private final TimerEventListener listener;
+        private final Delivery delivery;
+        private final Executor executor;
+        private final AtomicLong pending;
+        private final AtomicBoolean queued;
+        private final Runnable deliverPending;
+        private volatile boolean cancelled;
+
+        // EFFECTS: constructs an active subscription
+        private Subscription(TimerEventListener listener, Delivery delivery, Executor executor) {
+            this.listener = listener;
+            this.delivery = delivery;
+            this.executor = executor;
+            this.pending = new AtomicLong(NOTHING_PUBLISHED);
+            this.queued = new AtomicBoolean(false);
+            this.deliverPending = this::deliverPending;
+        }
+
+        // MODIFIES: TimerEventBus.this
+        // EFFECTS: removes this subscription, updates that are already queued are dropped
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        // EFFECTS: delivers or queues the update according to this subscription's delivery
+        private void offer(long update) {
+            switch (delivery) {
+                case SYNC:
+                    deliver(update);
+                    break;
+                case ASYNC:
+                    executor.execute(() -> deliver(update));
+                    break;
+                default:
+                    pending.set(update);
+                    if (queued.compareAndSet(false, true)) {
+                        executor.execute(deliverPending);
+                    }
+            }
+        }
+
+        // EFFECTS: delivers the newest pending update
+        private void deliverPending() {
+            queued.set(false);
+            deliver(pending.get());
+        }
+
+        // EFFECTS: calls the listener with the unpacked update unless this subscription has been cancelled
+        private void deliver(long update) {
+            if (cancelled || update == NOTHING_PUBLISHED) {
+                return;
+            }
+            int secondsRemaining = (int) (update >>> 1);
+            listener.updateClock(secondsRemaining, durationSeconds - secondsRemaining, (update & 1) != 0);
+        }
+    }
+}
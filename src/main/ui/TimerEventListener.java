@@ -1,6 +1,8 @@
 package ui;
 
-// TimerEventListener interface, required for classes that need to observe TimerSessionSubject
+// TimerEventListener interface, required for classes that need to observe TimerSessionSubject.
+// Updates carry primitive values only, are only published when the displayed time or completion has changed,
+// and are delivered on the thread chosen by the listener's TimerEventBus subscription
 public interface TimerEventListener {
-    void updateClock(String clock, int secondsCompleted, Boolean timerComplete);
+    void updateClock(int secondsRemaining, int secondsCompleted, boolean timerComplete);
 }
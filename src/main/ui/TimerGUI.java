@@ -1,18 +1,19 @@
 package ui;
 
+import model.DateRangeTotals;
 import model.EventLog;
 import model.Event;
 import model.Project;
 import model.Task;
-import persistence.JsonReader;
-import persistence.JsonWriter;
+import model.Workspace;
+import persistence.RotatingEventFileSink;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -26,7 +27,13 @@ import java.util.List;
 
 // Task timer gui application
 public class TimerGUI extends JFrame {
+    private static final String PROJECT_STORE = "./data/project";
     private static final String JSON_STORE = "./data/project.json";
+    private static final String EXPORT_FILE = "./data/export.json";
+    private static final String WORKSPACE_DIRECTORY = "./data/workspace";
+    private static final String SESSION_JOURNAL = "./data/session.journal";
+    private static final String EVENT_LOG_DIRECTORY = "./data/logs";
+    private static final int AUTOSAVE_INTERVAL_MILLIS = 30_000;
     private static final String IMAGE_PATH = "icons8-clock-100.png";
     private static final String J_FRAME_NAME = "Task Timer";
     private static final String MAIN_MENU_TITLE = "Main Menu";
@@ -38,10 +45,12 @@ public class TimerGUI extends JFrame {
 
     private Project project;
     private JFrame frame;
-    private JsonWriter jsonWriter;
-    private JsonReader jsonReader;
+    private ProjectPersistence persistence;
+    private Autosaver autosaver;
+    private RotatingEventFileSink eventSink;
 
     private JPanel mainMenuCard;
+    private JLabel mainMenuMessage;
     private JPanel statisticsCard;
     private JPanel createTaskCard;
     private JPanel selectTaskCard;
@@ -75,8 +84,13 @@ public class TimerGUI extends JFrame {
         });
     }
 
-    // EFFECTS: Calls print log and exits with status 0
+    // EFFECTS: Saves changes waiting for autosave, waits for queued saves, closes the journal,
+    // writes out the on-disk event log,
+    // calls print log and exits with status 0
     private void processExit() {
+        autosaver.flush();
+        persistence.shutdown();
+        eventSink.close();
         printLog();
         System.exit(0);
     }
@@ -96,14 +110,34 @@ public class TimerGUI extends JFrame {
     }
 
     // MODIFIES: this
-    // EFFECTS: initializes project, jsonWriter, jsonReader and icon
+    // EFFECTS: initializes the on-disk event log, persistence service, autosave and icon,
+    // starts restoring the project of the last session from its journal in the background
     private void init() {
+        openEventSink();
+        mainMenuMessage = new JLabel("");
+        persistence = new ProjectPersistence(PROJECT_STORE, JSON_STORE, mainMenuMessage::setText);
         project = new Project("School");
-        jsonWriter = new JsonWriter(JSON_STORE);
-        jsonReader = new JsonReader(JSON_STORE);
+        autosaver = new Autosaver(persistence, AUTOSAVE_INTERVAL_MILLIS);
+        persistence.openJournal(SESSION_JOURNAL, project, restored -> {
+            project = restored;
+            autosaver.watch(project);
+            loadEffects();
+        });
         icon = createImageIcon();
     }
 
+    // MODIFIES: this
+    // EFFECTS: starts keeping every logged event on disk,
+    // if the log directory cannot be created the events are only kept in memory
+    private void openEventSink() {
+        eventSink = new RotatingEventFileSink(EVENT_LOG_DIRECTORY);
+        try {
+            eventSink.attachTo(EventLog.getInstance());
+        } catch (IOException e) {
+            System.out.println("Unable to keep the event log in " + EVENT_LOG_DIRECTORY);
+        }
+    }
+
     // EFFECTS: Returns an ImageIcon if the path is valid,
     // Otherwise returns null
     private ImageIcon createImageIcon() {
@@ -155,20 +189,23 @@ public class TimerGUI extends JFrame {
     private void renderMainMenuCard() {
         mainMenuCard.removeAll();
         JLabel timerIcon = new JLabel(icon);
-        JLabel message = new JLabel("");
+        JLabel message = mainMenuMessage;
         JButton loadDataButton = new JButton("Load Data");
-        loadDataButton.addActionListener((e) -> {
-            message.setText(loadProject());
-            loadEffects();
-        });
+        loadDataButton.addActionListener((e) -> loadProject());
+        JButton workspaceButton = new JButton("Open Workspace");
+        workspaceButton.addActionListener((e) -> persistence.openWorkspace(WORKSPACE_DIRECTORY, this::pickProject));
         JButton saveDataButton = new JButton("Save Data");
-        saveDataButton.addActionListener((e) -> message.setText(saveProject()));
+        saveDataButton.addActionListener((e) -> saveProject());
+        JButton exportButton = new JButton("Export JSON");
+        exportButton.addActionListener((e) -> persistence.export(project, EXPORT_FILE));
         JButton quitButton = new JButton("Quit");
         quitButton.addActionListener((e) -> processExit());
         message.setForeground(Color.blue);
         mainMenuCard.add(timerIcon);
         mainMenuCard.add(loadDataButton);
+        mainMenuCard.add(workspaceButton);
         mainMenuCard.add(saveDataButton);
+        mainMenuCard.add(exportButton);
         mainMenuCard.add(quitButton);
         mainMenuCard.add(message);
     }
@@ -200,6 +237,7 @@ public class TimerGUI extends JFrame {
         JLabel projectLabel = new JLabel("Project statistics:");
         JLabel totalMinutesLabel = new JLabel("Total timed work (All Time): "
                 + project.calculateTotalMinutes() + " minutes");
+        JLabel weekMinutesLabel = new JLabel("Total timed work (This week): " + weekMinutesText(project));
         Task mostWorkedOnTask = project.determineMostWorkedOnTask();
         JLabel emptyLabel = new JLabel(" ");
         JLabel mostWorkedOnTaskLabel = createTaskDurationLabel(mostWorkedOnTask);
@@ -207,18 +245,50 @@ public class TimerGUI extends JFrame {
                 + ((curTask == null) ? "no task selected" : curTask.getName()));
         statisticsCard.add(projectLabel);
         statisticsCard.add(totalMinutesLabel);
+        statisticsCard.add(weekMinutesLabel);
         statisticsCard.add(mostWorkedOnTaskLabel);
         statisticsCard.add(emptyLabel);
         statisticsCard.add(currentTaskLabel);
         if (curTask != null) {
-            JLabel totalTaskMinutesLabel = new JLabel("Total timed work (All time): "
-                    + curTask.getTotalMinutes() + " minutes");
-            statisticsCard.add(totalTaskMinutesLabel);
-            Integer totalTaskMinutesToday = curTask.getHistoryMap().get(LocalDate.now());
-            JLabel totalTaskMinutesTodayLabel = new JLabel("Total timed work (Today): "
-                    + ((totalTaskMinutesToday == null) ? "0" : totalTaskMinutesToday) + " minutes");
-            statisticsCard.add(totalTaskMinutesTodayLabel);
+            renderCurrentTaskStatistics();
+        }
+    }
+
+    // REQUIRES: curTask != null
+    // MODIFIES: this
+    // EFFECTS: Adds the current task's all time, weekly and daily totals to the statistics card
+    private void renderCurrentTaskStatistics() {
+        JLabel totalTaskMinutesLabel = new JLabel("Total timed work (All time): "
+                + curTask.getTotalMinutes() + " minutes");
+        statisticsCard.add(totalTaskMinutesLabel);
+        JLabel weekTaskMinutesLabel = new JLabel("Total timed work (This week): " + weekMinutesText(curTask));
+        statisticsCard.add(weekTaskMinutesLabel);
+        String todayText;
+        try {
+            todayText = curTask.minutesBetween(LocalDate.now(), LocalDate.now()) + " minutes";
+        } catch (UncheckedIOException e) {
+            showHistoryError(e);
+            todayText = "unavailable";
         }
+        JLabel totalTaskMinutesTodayLabel = new JLabel("Total timed work (Today): " + todayText);
+        statisticsCard.add(totalTaskMinutesTodayLabel);
+    }
+
+    // EFFECTS: Returns the minutes recorded this week as text, lazily loaded histories are only read if the week
+    // is not covered by what was loaded with them. If a history cannot be read, reports it and returns "unavailable"
+    private String weekMinutesText(DateRangeTotals totals) {
+        try {
+            return totals.minutesInWeek(LocalDate.now()) + " minutes";
+        } catch (UncheckedIOException e) {
+            showHistoryError(e);
+            return "unavailable";
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: Shows that a task's history could not be read from its file in the main menu status message
+    void showHistoryError(UncheckedIOException e) {
+        mainMenuMessage.setText(e.getMessage() + ": " + e.getCause().getMessage());
     }
 
     // EFFECTS: Generates a JLabel for the given task with statistics
@@ -268,26 +338,46 @@ public class TimerGUI extends JFrame {
 
 
     // MODIFIES: this
-    // EFFECTS: loads the project from a file, returns response string
-    private String loadProject() {
-        try {
-            project = jsonReader.read();
-            return ("Loaded project " + project.getName() + " from " + JSON_STORE);
-        } catch (IOException e) {
-            return ("Unable to read from file: " + JSON_STORE);
-        }
+    // EFFECTS: saves the project in the background, from then on later changes to it are autosaved
+    private void saveProject() {
+        persistence.save(project);
+        autosaver.watch(project);
     }
 
-    // EFFECTS: saves the project to a file, returns response string
-    private String saveProject() {
-        try {
-            jsonWriter.open();
-            jsonWriter.write(project);
-            jsonWriter.close();
-            return ("Saved project " + project.getName() + " to " + JSON_STORE);
-        } catch (FileNotFoundException e) {
-            return ("Unable to write to file: " + JSON_STORE);
+    // MODIFIES: this
+    // EFFECTS: loads the project from a file in the background, replaces the current project
+    // and re-renders once it has been read, from then on changes to it are autosaved.
+    // Changes waiting for autosave are saved before the load starts, not over the project it reads
+    private void loadProject() {
+        autosaver.flush();
+        persistence.load(loaded -> {
+            project = loaded;
+            autosaver.watch(project);
+            loadEffects();
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: asks the user to pick a project of the workspace and, unless they cancel, replaces the current
+    // project with it and re-renders, from then on changes to it are journaled and autosaved.
+    // Changes to the replaced project waiting for autosave are saved first
+    private void pickProject(Workspace workspace) {
+        String[] names = workspace.getProjects().stream().map(Project::getName).toArray(String[]::new);
+        if (names.length == 0) {
+            mainMenuMessage.setText("No projects in " + WORKSPACE_DIRECTORY);
+            return;
+        }
+        String name = (String) JOptionPane.showInputDialog(frame, "Select a project:", "Open Workspace",
+                JOptionPane.QUESTION_MESSAGE, null, names, names[0]);
+        if (name == null) {
+            return;
         }
+        autosaver.flush();
+        project = workspace.getProject(name);
+        mainMenuMessage.setText("Opened project " + name + " from " + WORKSPACE_DIRECTORY);
+        persistence.replaceProject(project);
+        autosaver.watch(project);
+        loadEffects();
     }
 
     // MODIFIES: this
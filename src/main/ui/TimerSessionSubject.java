@@ -1,43 +1,67 @@
 package ui;
 
+import model.SystemTimerClock;
+import model.TimerClock;
 import model.TimerSession;
 
-// Represents a TimerSession UI component that utilizes a listener
+import javax.swing.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Represents a TimerSession UI component that publishes its clock to any number of listeners through a
+// TimerEventBus. Ticks arrive on the timer clock's thread; a tick that would not change what is displayed
+// is not published, and each listener's delivery policy decides where and how often it is called
 public class TimerSessionSubject extends TimerSession {
-    private TimerEventListener listener;
+    private final TimerEventBus bus;
+    private final AtomicLong published;
 
     // TimerSessionSubject constructor, calls super class constructor
     public TimerSessionSubject(int minutes) {
-        super(minutes);
+        this(minutes, SystemTimerClock.getInstance());
+    }
+
+    // EFFECTS: constructs a session measured and scheduled by the given clock
+    public TimerSessionSubject(int minutes, TimerClock clock) {
+        super(minutes, clock);
+        this.bus = new TimerEventBus(getDurationSeconds());
+        this.published = new AtomicLong(TimerEventBus.NOTHING_PUBLISHED);
+        publishUpdate();
+    }
+
+    // EFFECTS: The listeners display the remaining time, so the session ticks every second
+    @Override
+    protected boolean ticksEverySecond() {
+        return true;
     }
 
-    // EFFECTS: Overridden tick method that updates the listener if it is not null
+    // EFFECTS: Overridden tick method that publishes the clock to the listeners
     @Override
     public void tick() {
         super.tick();
-        if (listener != null) {
-            updateListener();
-        }
+        publishUpdate();
     }
 
     // MODIFIES: this
-    // EFFECTS: Sets listener to the given listener and immediately triggers update clock on listener
-    public void setListener(TimerEventListener listener) {
-        this.listener = listener;
-        updateListener();
+    // EFFECTS: subscribes a listener that is updated on the event dispatch thread with the newest clock,
+    // it immediately receives the current clock
+    public TimerEventBus.Subscription subscribe(TimerEventListener listener) {
+        return subscribe(listener, TimerEventBus.Delivery.COALESCED, SwingUtilities::invokeLater);
     }
 
+    // REQUIRES: executor is not null unless delivery is SYNC
     // MODIFIES: this
-    // EFFECTS: removes current listener
-    public void removeListener() {
-        this.listener = null;
+    // EFFECTS: subscribes a listener with the given delivery, it immediately receives the current clock
+    public TimerEventBus.Subscription subscribe(TimerEventListener listener, TimerEventBus.Delivery delivery,
+                                                Executor executor) {
+        return bus.subscribe(listener, delivery, executor);
     }
 
-    // EFFECTS: updates the clock on the listener object
-    public void updateListener() {
-        String midClock =  ((getSecondsRemaining() >= 10) ? ":" : ":0");
-        listener.updateClock(getMinutesRemaining() + midClock + getSecondsRemaining(), getSecondsCompleted(),
-                isTimerComplete());
+    // MODIFIES: this
+    // EFFECTS: publishes the current clock if it differs from the last published clock
+    public void publishUpdate() {
+        long update = TimerEventBus.pack(getTotalSecondsRemaining(), isTimerComplete());
+        if (published.getAndSet(update) != update) {
+            bus.publish(update);
+        }
     }
-
 }
@@ -0,0 +1,130 @@
+package benchmark;
+
+import model.DayMinutesMap;
+import model.EpochDays;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+// Compares the previous HashMap<LocalDate, Integer> task history with DayMinutesMap
+// for recording, lookup and full iteration. Run main directly, timings are the best of several rounds
+public class HistoryBenchmark {
+    private static final int DAYS = 3650;
+    private static final int RECORDS_PER_DAY = 4;
+    private static final int ROUNDS = 200;
+    private static final LocalDate START = LocalDate.of(2015, 1, 1);
+
+    private static long sink;
+
+    public static void main(String[] args) {
+        LocalDate[] dates = new LocalDate[DAYS];
+        for (int d = 0; d < DAYS; d++) {
+            dates[d] = START.plusDays(d);
+        }
+        long[] hashMap = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+        long[] dayMinutesMap = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+        long[] epochDayKeys = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+        long[] sparse = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+        for (int round = 0; round < ROUNDS; round++) {
+            keepBest(hashMap, runHashMap(dates));
+            keepBest(dayMinutesMap, runDayMinutesMap(dates, false));
+            keepBest(epochDayKeys, runEpochDayKeys());
+            keepBest(sparse, runDayMinutesMap(dates, true));
+        }
+        System.out.println(DAYS + " days, " + RECORDS_PER_DAY + " records per day, best of " + ROUNDS + " rounds");
+        report("HashMap<LocalDate,Integer>", hashMap);
+        report("DayMinutesMap", dayMinutesMap);
+        report("DayMinutesMap (int keys)", epochDayKeys);
+        report("DayMinutesMap (sparse)", sparse);
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    // EFFECTS: times record, lookup and iteration over the previous boxed representation
+    private static long[] runHashMap(LocalDate[] dates) {
+        long[] times = new long[3];
+        long start = System.nanoTime();
+        Map<LocalDate, Integer> map = new HashMap<>();
+        for (int r = 0; r < RECORDS_PER_DAY; r++) {
+            for (LocalDate date : dates) {
+                Integer dailyMinutes = map.get(date);
+                map.put(date, (dailyMinutes == null) ? 25 : dailyMinutes + 25);
+            }
+        }
+        times[0] = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (LocalDate date : dates) {
+            sink += map.get(date);
+        }
+        times[1] = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (LocalDate key : map.keySet()) {
+            sink += key.toEpochDay() + map.get(key);
+        }
+        times[2] = System.nanoTime() - start;
+        return times;
+    }
+
+    // EFFECTS: times record, lookup and iteration over DayMinutesMap, converting dates like Task and its map view.
+    // If sparse, an outlier day far outside the range is recorded first so the map keeps its days sorted instead
+    private static long[] runDayMinutesMap(LocalDate[] dates, boolean sparse) {
+        long[] times = new long[3];
+        long start = System.nanoTime();
+        DayMinutesMap map = new DayMinutesMap();
+        if (sparse) {
+            map.add(EpochDays.of(START) - DayMinutesMap.MAX_DENSE_DAYS, 0);
+        }
+        for (int r = 0; r < RECORDS_PER_DAY; r++) {
+            for (LocalDate date : dates) {
+                map.add(EpochDays.of(date), 25);
+            }
+        }
+        times[0] = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (LocalDate date : dates) {
+            sink += map.get(EpochDays.of(date));
+        }
+        times[1] = System.nanoTime() - start;
+        start = System.nanoTime();
+        map.forEach((epochDay, minutes) -> sink += epochDay + minutes);
+        times[2] = System.nanoTime() - start;
+        return times;
+    }
+
+    // EFFECTS: times DayMinutesMap alone, with epoch days already computed instead of converted from dates
+    private static long[] runEpochDayKeys() {
+        int firstDay = (int) START.toEpochDay();
+        long[] times = new long[3];
+        long start = System.nanoTime();
+        DayMinutesMap map = new DayMinutesMap();
+        for (int r = 0; r < RECORDS_PER_DAY; r++) {
+            for (int d = 0; d < DAYS; d++) {
+                map.add(firstDay + d, 25);
+            }
+        }
+        times[0] = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int d = 0; d < DAYS; d++) {
+            sink += map.get(firstDay + d);
+        }
+        times[1] = System.nanoTime() - start;
+        start = System.nanoTime();
+        map.forEach((epochDay, minutes) -> sink += epochDay + minutes);
+        times[2] = System.nanoTime() - start;
+        return times;
+    }
+
+    // MODIFIES: best
+    // EFFECTS: keeps the smaller of each pair of timings
+    private static void keepBest(long[] best, long[] times) {
+        for (int i = 0; i < best.length; i++) {
+            best[i] = Math.min(best[i], times[i]);
+        }
+    }
+
+    // EFFECTS: prints one line of results
+    private static void report(String name, long[] times) {
+        System.out.printf("%-28s record %8.1f us  lookup %7.1f us  iterate %7.1f us%n",
+                name, times[0] / 1e3, times[1] / 1e3, times[2] / 1e3);
+    }
+}
@@ -0,0 +1,86 @@
+package benchmark;
+
+import model.Project;
+import model.Task;
+import persistence.BinaryReader;
+import persistence.BinaryWriter;
+import persistence.JsonReader;
+import persistence.JsonWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+
+// Compares save time, load time and file size of the JSON and binary project formats.
+// Run main directly, timings are the best of several rounds after a warm up
+public class PersistenceBenchmark {
+    private static final int TASKS = 50;
+    private static final int DAYS_PER_TASK = 3000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        Project project = createProject();
+        File json = File.createTempFile("benchmark", ".json");
+        File binary = File.createTempFile("benchmark", ".bin");
+        json.deleteOnExit();
+        binary.deleteOnExit();
+        for (int round = 0; round < 2; round++) {
+            runRound(project, json.getPath(), binary.getPath());
+        }
+        long[] best = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+        for (int round = 0; round < ROUNDS; round++) {
+            long[] times = runRound(project, json.getPath(), binary.getPath());
+            for (int i = 0; i < best.length; i++) {
+                best[i] = Math.min(best[i], times[i]);
+            }
+        }
+        System.out.println(TASKS + " tasks x " + DAYS_PER_TASK + " history days");
+        report("JSON  ", best[0], best[1], json.length());
+        report("Binary", best[2], best[3], binary.length());
+    }
+
+    // EFFECTS: creates a project with TASKS tasks, each holding DAYS_PER_TASK days of history
+    private static Project createProject() {
+        Project project = new Project("benchmark");
+        LocalDate start = LocalDate.of(2015, 1, 1);
+        for (int t = 0; t < TASKS; t++) {
+            Task task = new Task("Task" + t, 25, 5, 15);
+            for (int d = 0; d < DAYS_PER_TASK; d++) {
+                task.recordTime(start.plusDays(d), 25 + (d * 7 + t) % 200);
+            }
+            project.addTask(task);
+        }
+        return project;
+    }
+
+    // EFFECTS: saves and loads the project in both formats, returns the elapsed nanos of
+    // json save, json load, binary save and binary load
+    private static long[] runRound(Project project, String json, String binary) throws IOException {
+        long[] times = new long[4];
+        long start = System.nanoTime();
+        JsonWriter jsonWriter = new JsonWriter(json);
+        jsonWriter.open();
+        jsonWriter.write(project);
+        jsonWriter.close();
+        times[0] = System.nanoTime() - start;
+        start = System.nanoTime();
+        new JsonReader(json).read();
+        times[1] = System.nanoTime() - start;
+        start = System.nanoTime();
+        BinaryWriter binaryWriter = new BinaryWriter(binary);
+        binaryWriter.open();
+        binaryWriter.write(project);
+        binaryWriter.close();
+        times[2] = System.nanoTime() - start;
+        start = System.nanoTime();
+        new BinaryReader(binary).read();
+        times[3] = System.nanoTime() - start;
+        return times;
+    }
+
+    // EFFECTS: prints one line of results
+    private static void report(String format, long saveNanos, long loadNanos, long bytes) {
+        System.out.printf("%s save %7.1f ms  load %7.1f ms  size %,d bytes%n",
+                format, saveNanos / 1e6, loadNanos / 1e6, bytes);
+    }
+}
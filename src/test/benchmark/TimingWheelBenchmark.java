@@ -0,0 +1,83 @@
+package benchmark;
+
+import model.TimerSession;
+import model.TimingWheel;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Hosts 100k concurrent TimerSessions on one TimingWheel, driven on a single thread with a virtual clock so the
+// full 5 to 50 minute sessions can be played through quickly. Reports the cost of starting, pausing and resuming,
+// cancelling and running every session to completion. Run main directly, timings are the best of several rounds
+public class TimingWheelBenchmark {
+    private static final int SESSIONS = 100_000;
+    private static final int ROUNDS = 5;
+    private static final long TICK_NANOS = TimingWheel.DEFAULT_TICK_NANOS;
+
+    private static long now;
+
+    public static void main(String[] args) {
+        long[] best = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+        for (int round = 0; round < ROUNDS; round++) {
+            long[] times = runRound(new Random(round));
+            for (int i = 0; i < best.length; i++) {
+                best[i] = Math.min(best[i], times[i]);
+            }
+        }
+        System.out.println(SESSIONS + " sessions on one thread, best of " + ROUNDS + " rounds");
+        report("start", best[0], SESSIONS);
+        report("pause + resume", best[1], SESSIONS);
+        report("cancel (every 10th)", best[2], SESSIONS / 10);
+        report("run to completion", best[3], SESSIONS - SESSIONS / 10);
+    }
+
+    // EFFECTS: plays through one round of SESSIONS sessions and returns the time spent in each phase
+    private static long[] runRound(Random random) {
+        now = 0;
+        TimingWheel wheel = new TimingWheel(TICK_NANOS, () -> now);
+        TimerSession[] sessions = new TimerSession[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            sessions[i] = new TimerSession(5 + random.nextInt(46), wheel);
+        }
+        long[] times = new long[4];
+        long start = System.nanoTime();
+        for (TimerSession session : sessions) {
+            session.startTimer();
+        }
+        times[0] = System.nanoTime() - start;
+        advance(wheel, TimeUnit.MINUTES.toNanos(1));
+        start = System.nanoTime();
+        for (TimerSession session : sessions) {
+            session.pauseTimer();
+            session.startTimer();
+        }
+        times[1] = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < SESSIONS; i += 10) {
+            sessions[i].cancelTimer();
+        }
+        times[2] = System.nanoTime() - start;
+        start = System.nanoTime();
+        while (wheel.size() > 0) {
+            advance(wheel, TICK_NANOS);
+        }
+        times[3] = System.nanoTime() - start;
+        int complete = 0;
+        for (TimerSession session : sessions) {
+            complete += session.isTimerComplete() ? 1 : 0;
+        }
+        if (complete != SESSIONS - SESSIONS / 10) {
+            throw new IllegalStateException("only " + complete + " sessions completed");
+        }
+        return times;
+    }
+
+    private static void advance(TimingWheel wheel, long nanos) {
+        now += nanos;
+        wheel.advanceTo(now);
+    }
+
+    private static void report(String name, long nanos, int operations) {
+        System.out.printf("  %-22s %8.2f ms  %8.1f ns/session%n", name, nanos / 1e6, (double) nanos / operations);
+    }
+}
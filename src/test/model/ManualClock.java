@@ -0,0 +1,71 @@
+package model;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+// A TimerClock for tests whose time only moves when the test advances it,
+// scheduled tasks run on the test's thread at their due time
+public class ManualClock implements TimerClock {
+    private final PriorityQueue<ScheduledTask> queue = new PriorityQueue<>();
+    private long now;
+    private long sequence;
+
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+
+    @Override
+    public Cancellable schedule(Runnable task, long delayNanos) {
+        ScheduledTask scheduled = new ScheduledTask(task, now + Math.max(0, delayNanos), sequence++);
+        queue.add(scheduled);
+        return () -> queue.remove(scheduled);
+    }
+
+    // EFFECTS: moves time forward, running every task that becomes due at its due time
+    public void advance(long nanos) {
+        long target = now + nanos;
+        while (!queue.isEmpty() && queue.peek().dueNanos <= target) {
+            ScheduledTask task = queue.poll();
+            now = Math.max(now, task.dueNanos);
+            task.task.run();
+        }
+        now = target;
+    }
+
+    public void advanceSeconds(long seconds) {
+        advance(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    public void advanceMillis(long millis) {
+        advance(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    // EFFECTS: moves time forward without running anything, like a scheduler thread that was held up;
+    // overdue tasks run on the next advance
+    public void stall(long nanos) {
+        now += nanos;
+    }
+
+    public int getScheduledCount() {
+        return queue.size();
+    }
+
+    private static class ScheduledTask implements Comparable<ScheduledTask> {
+        private final Runnable task;
+        private final long dueNanos;
+        private final long sequence;
+
+        ScheduledTask(Runnable task, long dueNanos, long sequence) {
+            this.task = task;
+            this.dueNanos = dueNanos;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(ScheduledTask other) {
+            int byDue = Long.compare(dueNanos, other.dueNanos);
+            return byDue != 0 ? byDue : Long.compare(sequence, other.sequence);
+        }
+    }
+}
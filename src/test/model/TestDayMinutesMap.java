@@ -0,0 +1,113 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestDayMinutesMap {
+    private DayMinutesMap testMap;
+    private List<Integer> days;
+    private List<Integer> minutes;
+
+    @BeforeEach
+    void startUp() {
+        testMap = new DayMinutesMap();
+        days = new ArrayList<>();
+        minutes = new ArrayList<>();
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(0, testMap.size());
+        assertEquals(HistoryStore.NO_ENTRY, testMap.get(0));
+        testMap.forEach((epochDay, dayMinutes) -> days.add(epochDay));
+        assertTrue(days.isEmpty());
+    }
+
+    @Test
+    void testAddSameDay() {
+        testMap.add(19000, 5);
+        testMap.add(19000, 10);
+        assertEquals(1, testMap.size());
+        assertEquals(15, testMap.get(19000));
+        assertEquals(HistoryStore.NO_ENTRY, testMap.get(19001));
+        assertEquals(HistoryStore.NO_ENTRY, testMap.get(18999));
+    }
+
+    @Test
+    void testAddZeroMinutes() {
+        testMap.add(19000, 0);
+        assertEquals(1, testMap.size());
+        assertEquals(0, testMap.get(19000));
+    }
+
+    @Test
+    void testGrowBothDirectionsInOrder() {
+        testMap.add(19000, 1);
+        testMap.add(19500, 2);
+        testMap.add(15000, 3);
+        testMap.add(19001, 4);
+        testMap.add(-10, 5);
+        assertEquals(5, testMap.size());
+        testMap.forEach((epochDay, dayMinutes) -> {
+            days.add(epochDay);
+            minutes.add(dayMinutes);
+        });
+        assertEquals(List.of(-10, 15000, 19000, 19001, 19500), days);
+        assertEquals(List.of(5, 3, 1, 4, 2), minutes);
+    }
+
+    @Test
+    void testGrowthStopsAtMaxDenseDays() {
+        testMap.add(0, 1);
+        testMap.add(DayMinutesMap.MAX_DENSE_DAYS - 1, 2);
+        assertFalse(testMap.isSparse());
+        assertEquals(2, testMap.get(DayMinutesMap.MAX_DENSE_DAYS - 1));
+        testMap.add(DayMinutesMap.MAX_DENSE_DAYS / 2, 3);
+        assertFalse(testMap.isSparse());
+        assertEquals(3, testMap.size());
+    }
+
+    @Test
+    void testOutlierDayMovesToSparse() {
+        testMap.add(19000, 1);
+        testMap.add(19500, 2);
+        testMap.add(19000 - DayMinutesMap.MAX_DENSE_DAYS, 3);
+        assertTrue(testMap.isSparse());
+        testMap.add(19500, 4);
+        testMap.add(19250, 5);
+        testMap.add(Integer.MAX_VALUE, 6);
+        testMap.add(19250, 0);
+        assertEquals(5, testMap.size());
+        assertEquals(6, testMap.get(19500));
+        assertEquals(5, testMap.get(19250));
+        assertEquals(HistoryStore.NO_ENTRY, testMap.get(19251));
+        assertEquals(HistoryStore.NO_ENTRY, testMap.get(Integer.MIN_VALUE));
+        testMap.forEach((epochDay, dayMinutes) -> {
+            days.add(epochDay);
+            minutes.add(dayMinutes);
+        });
+        assertEquals(List.of(19000 - DayMinutesMap.MAX_DENSE_DAYS, 19000, 19250, 19500, Integer.MAX_VALUE), days);
+        assertEquals(List.of(3, 1, 5, 6, 6), minutes);
+    }
+
+    @Test
+    void testSparseGrowsInAnyOrder() {
+        testMap.add(Integer.MIN_VALUE, 1);
+        testMap.add(Integer.MAX_VALUE, 1);
+        for (int day = 1000; day > 0; day--) {
+            testMap.add(day * 1000, day);
+        }
+        assertEquals(1002, testMap.size());
+        assertEquals(500, testMap.get(500_000));
+        int[] previous = {Integer.MIN_VALUE};
+        testMap.forEach((epochDay, dayMinutes) -> {
+            assertTrue(epochDay >= previous[0]);
+            previous[0] = epochDay;
+        });
+    }
+}
@@ -0,0 +1,25 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestEpochDays {
+
+    @Test
+    void testMatchesToEpochDayAcrossTable() {
+        for (LocalDate date = LocalDate.of(1899, 12, 1); date.isBefore(LocalDate.of(2156, 2, 1));
+                date = date.plusDays(1)) {
+            assertEquals(date.toEpochDay(), EpochDays.of(date));
+        }
+    }
+
+    @Test
+    void testOutsideTable() {
+        assertEquals(LocalDate.of(1, 1, 1).toEpochDay(), EpochDays.of(LocalDate.of(1, 1, 1)));
+        assertEquals(LocalDate.of(3000, 12, 31).toEpochDay(), EpochDays.of(LocalDate.of(3000, 12, 31)));
+        assertEquals(LocalDate.of(-50, 6, 15).toEpochDay(), EpochDays.of(LocalDate.of(-50, 6, 15)));
+    }
+}
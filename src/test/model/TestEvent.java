@@ -3,10 +3,11 @@ package model;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
 import java.util.Calendar;
 import java.util.Date;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 // Code influenced by AlarmSystem: https://github.students.cs.ubc.ca/CPSC210/AlarmSystem
 
@@ -34,4 +35,22 @@ public class TestEvent {
     public void testToString() {
         assertEquals(d.toString() + "\n" + "This is a test", e.toString());
     }
+
+    @Test
+    public void testStructuredEvents() {
+        Event recorded = Event.timeRecorded("Task1", 25, (int) LocalDate.of(2000, 1, 2).toEpochDay());
+        assertEquals(EventType.TIME_RECORDED, recorded.getType());
+        assertEquals("Task1", recorded.getTaskName());
+        assertEquals(25, recorded.getArgument(0));
+        assertEquals("Logged 25 minutes in task(Task1) mapped to 2000-01-02", recorded.getDescription());
+        assertSame(recorded.getDescription(), recorded.getDescription());
+        assertEquals("Created new task (Task1)", Event.taskCreated("Task1").getDescription());
+        assertEquals("Added task (Task1) to project", Event.taskAdded("Task1").getDescription());
+        assertEquals("Edited timer durations in task(Task1) work duration: 30 break duration: 10"
+                + " long break duration: 20", Event.durationsChanged("Task1", 30, 10, 20).getDescription());
+        assertEquals("Event log cleared.", Event.logCleared().getDescription());
+        assertEquals(EventType.MESSAGE, e.getType());
+        assertNull(e.getTaskName());
+        assertEquals(e.getDate().getTime(), e.getTimestamp());
+    }
 }
@@ -1,11 +1,13 @@
 package model;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -27,6 +29,11 @@ public class TestEventLog {
         el.logEvent(e3);
     }
 
+    @AfterEach
+    public void restoreDefaults() {
+        EventLog.getInstance().configure(EventLog.DEFAULT_CAPACITY, EventLog.DEFAULT_OVERFLOW_POLICY);
+    }
+
     @Test
     public void testLogEvent() {
         List<Event> l = new ArrayList<>();
@@ -50,4 +57,87 @@ public class TestEventLog {
         assertEquals("Event log cleared.", itr.next().getDescription());
         assertFalse(itr.hasNext());
     }
+
+    @Test
+    public void testConfigure() {
+        EventLog el = EventLog.getInstance();
+        el.configure(5, OverflowPolicy.DROP_NEWEST);
+        assertEquals(8, el.getCapacity());
+        assertEquals(OverflowPolicy.DROP_NEWEST, el.getOverflowPolicy());
+        assertFalse(el.iterator().hasNext());
+        assertThrows(IllegalArgumentException.class, () -> el.configure(0, OverflowPolicy.DROP_NEWEST));
+    }
+
+    @Test
+    public void testOverwriteOldest() {
+        EventLog el = EventLog.getInstance();
+        el.configure(4, OverflowPolicy.OVERWRITE_OLDEST);
+        for (int i = 0; i < 10; i++) {
+            el.logEvent(new Event("E" + i));
+        }
+        assertEquals(List.of("E6", "E7", "E8", "E9"), descriptions(el));
+        assertEquals(6, el.getOverwrittenCount());
+        assertEquals(0, el.getRejectedCount());
+        assertEquals(6, el.getDroppedCount());
+    }
+
+    @Test
+    public void testDropNewest() {
+        EventLog el = EventLog.getInstance();
+        el.configure(4, OverflowPolicy.DROP_NEWEST);
+        for (int i = 0; i < 10; i++) {
+            el.logEvent(new Event("E" + i));
+        }
+        assertEquals(List.of("E0", "E1", "E2", "E3"), descriptions(el));
+        assertEquals(6, el.getRejectedCount());
+        el.clear();
+        el.logEvent(e1);
+        assertEquals(List.of("Event log cleared.", "A1"), descriptions(el));
+        assertEquals(0, el.getOverwrittenCount());
+    }
+
+    @Test
+    public void testIteratorIsWeaklyConsistent() {
+        EventLog el = EventLog.getInstance();
+        el.configure(4, OverflowPolicy.OVERWRITE_OLDEST);
+        el.logEvent(e1);
+        el.logEvent(e2);
+        Iterator<Event> itr = el.iterator();
+        assertEquals(e1, itr.next());
+        for (int i = 0; i < 4; i++) {
+            el.logEvent(new Event("later"));
+        }
+        // e2 was overwritten after iteration started, events logged later are not included
+        assertFalse(itr.hasNext());
+        assertThrows(NoSuchElementException.class, itr::next);
+    }
+
+    @Test
+    public void testConcurrentLogging() throws InterruptedException {
+        EventLog el = EventLog.getInstance();
+        el.configure(1024, OverflowPolicy.OVERWRITE_OLDEST);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            String name = "T" + t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    el.logEvent(new Event(name));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1024, descriptions(el).size());
+        assertEquals(4 * 5000 - 1024, el.getOverwrittenCount());
+    }
+
+    private List<String> descriptions(EventLog el) {
+        List<String> descriptions = new ArrayList<>();
+        for (Event next : el) {
+            descriptions.add(next.getDescription());
+        }
+        return descriptions;
+    }
 }
@@ -0,0 +1,66 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestHistoryRangeIndex {
+    private DayMinutesMap history;
+
+    @BeforeEach
+    void startUp() {
+        history = new DayMinutesMap();
+        history.add(100, 1);
+        history.add(103, 2);
+        history.add(110, 4);
+        history.add(200, 8);
+    }
+
+    @Test
+    void testEmptyHistory() {
+        HistoryRangeIndex index = new HistoryRangeIndex(new DayMinutesMap());
+        assertEquals(0, index.minutesBetween(-1000, 1000));
+        assertTrue(index.add(0, 5));
+        assertEquals(5, index.minutesBetween(0, 0));
+    }
+
+    @Test
+    void testMinutesBetween() {
+        HistoryRangeIndex index = new HistoryRangeIndex(history);
+        assertEquals(15, index.minutesBetween(0, 1000));
+        assertEquals(15, index.minutesBetween(100, 200));
+        assertEquals(3, index.minutesBetween(100, 109));
+        assertEquals(6, index.minutesBetween(101, 110));
+        assertEquals(0, index.minutesBetween(111, 199));
+        assertEquals(2, index.minutesBetween(103, 103));
+        assertEquals(0, index.minutesBetween(110, 100));
+    }
+
+    @Test
+    void testAdd() {
+        HistoryRangeIndex index = new HistoryRangeIndex(history);
+        assertTrue(index.add(150, 16));
+        assertTrue(index.add(200 + 366, 32));
+        assertFalse(index.add(200 + 367, 64));
+        assertFalse(index.add(99, 64));
+        assertEquals(16, index.minutesBetween(111, 199));
+        assertEquals(63, index.minutesBetween(0, 10000));
+    }
+
+    @Test
+    void testOutlierDays() {
+        history.add(-700000, 16);
+        history.add(2900000, 32);
+        HistoryRangeIndex index = new HistoryRangeIndex(history);
+        assertEquals(63, index.minutesBetween(Integer.MIN_VALUE + 1, Integer.MAX_VALUE));
+        assertEquals(16, index.minutesBetween(-700000, 99));
+        assertEquals(6, index.minutesBetween(101, 110));
+        assertEquals(40, index.minutesBetween(111, 2900000));
+        assertEquals(0, index.minutesBetween(201, 2899999));
+        assertTrue(index.add(103, 64));
+        assertFalse(index.add(104, 128));
+        assertEquals(66, index.minutesBetween(103, 103));
+        assertEquals(127, index.minutesBetween(Integer.MIN_VALUE + 1, Integer.MAX_VALUE));
+    }
+}
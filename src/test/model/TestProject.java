@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -104,4 +105,141 @@ public class TestProject {
         String expectedString = "(Task1) 25 min (Task2) 50 min ";
         assertEquals(expectedString, testProject.generateAllTaskMinutes());
     }
+
+    @Test
+    void testObserverNotified() {
+        List<String> notifications = new ArrayList<>();
+        ProjectObserver observer = new ProjectObserver() {
+            @Override
+            public void taskAdded(Task task) {
+                notifications.add("added " + task.getName());
+            }
+
+            @Override
+            public void timeRecorded(Task task, LocalDate date, int minutesCompleted) {
+                notifications.add("recorded " + minutesCompleted);
+            }
+
+            @Override
+            public void durationsChanged(Task task) {
+                notifications.add("durations " + task.getWorkDurationMinutes());
+            }
+        };
+        testProject.addObserver(observer);
+        testProject.addTask(testTask1);
+        testTask1.recordTime(testDate1, 10);
+        testTask1.setDurations(40, 10, 20);
+        testProject.removeObserver(observer);
+        testTask1.recordTime(testDate1, 10);
+        assertEquals(List.of("added Task1", "recorded 10", "durations 40"), notifications);
+    }
+
+    @Test
+    void testAddTasks() {
+        Task testTask3 = new Task("Task3");
+        assertEquals(3, testProject.addTasks(List.of(testTask1, testTask2, testTask1Dup, testTask3)));
+        taskList = testProject.getTaskList();
+        assertEquals(3, taskList.size());
+        assertEquals(testTask1, taskList.get(0));
+        assertEquals(testTask3, taskList.get(2));
+        assertEquals(testTask3, testProject.getTaskFromString("Task3"));
+        assertEquals(0, testProject.addTasks(List.of(testTask1Dup)));
+        assertThrows(UnsupportedOperationException.class, () -> testProject.getTaskList().add(testTask1Dup));
+    }
+
+    @Test
+    void testCaseInsensitiveNames() {
+        Project insensitiveProject = new Project("insensitive", true);
+        assertTrue(insensitiveProject.hasCaseInsensitiveNames());
+        assertFalse(testProject.hasCaseInsensitiveNames());
+        assertTrue(insensitiveProject.addTask(testTask1));
+        assertFalse(insensitiveProject.addTask(new Task(" task1 ")));
+        assertEquals(testTask1, insensitiveProject.getTaskFromString("TASK1"));
+        assertTrue(testProject.addTask(testTask1));
+        assertTrue(testProject.addTask(new Task("task1")));
+        assertNull(testProject.getTaskFromString("TASK1"));
+        assertNull(testProject.getTaskFromString(null));
+    }
+
+    @Test
+    void testMostWorkedOnTaskUpdatedOnRecord() {
+        testProject.addTask(testTask1);
+        testProject.addTask(testTask2);
+        assertEquals(testTask2, testProject.determineMostWorkedOnTask());
+        testTask1.recordTime(testDate1, 25);
+        assertEquals(testTask1, testProject.determineMostWorkedOnTask());
+        testTask2.recordTime(testDate2, 1);
+        assertEquals(testTask2, testProject.determineMostWorkedOnTask());
+        assertEquals(101, testProject.calculateTotalMinutes());
+        Task testTask3 = new Task("Task3");
+        testTask3.recordTime(testDate1, 200);
+        testProject.addTask(testTask3);
+        assertEquals(testTask3, testProject.determineMostWorkedOnTask());
+        assertEquals(301, testProject.calculateTotalMinutes());
+    }
+
+    @Test
+    void testMinutesBetween() {
+        assertEquals(0, testProject.minutesBetween(testDate1, testDate2));
+        testProject.addTask(testTask1);
+        testProject.addTask(testTask2);
+        assertEquals(75, testProject.minutesBetween(testDate1, testDate2));
+        assertEquals(50, testProject.minutesBetween(testDate2, testDate2));
+        testTask1.recordTime(testDate2, 5);
+        assertEquals(80, testProject.minutesInWeek(testDate2));
+        assertEquals(0, testProject.minutesInWeek(testDate2.plusDays(1)));
+    }
+
+    @Test
+    void testCopy() {
+        testProject.addTask(testTask1);
+        testProject.addTask(testTask2);
+        Project copy = testProject.copy();
+        testTask1.recordTime(testDate1, 100);
+        assertEquals("testProject", copy.getName());
+        assertEquals(2, copy.getTaskList().size());
+        assertEquals(75, copy.calculateTotalMinutes());
+        assertEquals(25, copy.getTaskFromString("Task1").getHistoryMap().get(testDate1));
+        assertEquals("Task2", copy.determineMostWorkedOnTask().getName());
+        assertEquals(175, testProject.calculateTotalMinutes());
+        assertSame(testProject.getIdentity(), copy.getIdentity());
+        assertSame(testProject.getIdentity(), copy.copy().getIdentity());
+        assertNotSame(testProject.getIdentity(), new Project("testProject").getIdentity());
+    }
+
+    @Test
+    void testRestoreTasks() {
+        testProject.addTask(testTask1);
+        EventLog.getInstance().clear();
+        List<Task> restored = new ArrayList<>();
+        DayMinutesMap history = new DayMinutesMap();
+        history.add((int) testDate1.toEpochDay(), 40);
+        history.add((int) testDate2.toEpochDay(), 60);
+        restored.add(new Task("Task3", 25, 5, 15, history));
+        restored.add(testTask1Dup);
+        restored.add(testTask2);
+        assertEquals(2, testProject.restoreTasks(restored));
+        assertEquals(3, testProject.getTaskList().size());
+        assertEquals(175, testProject.calculateTotalMinutes());
+        assertEquals("Task3", testProject.determineMostWorkedOnTask().getName());
+        List<String> descriptions = new ArrayList<>();
+        for (Event event : EventLog.getInstance()) {
+            descriptions.add(event.getDescription());
+        }
+        assertEquals(List.of("Event log cleared.", "Restored 2 task(s) with 150 minute(s) into project (testProject)"),
+                descriptions);
+    }
+
+    @Test
+    void testModCount() {
+        assertEquals(0, testProject.getModCount());
+        testProject.addTask(testTask1);
+        testProject.addTask(testTask1Dup);
+        assertEquals(1, testProject.getModCount());
+        testTask1.recordTime(testDate1, 10);
+        assertEquals(1, testProject.getModCount());
+        testProject.restoreTasks(List.of(testTask2));
+        assertEquals(2, testProject.getModCount());
+        assertEquals(2, testProject.copy().getModCount());
+    }
 }
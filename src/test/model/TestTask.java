@@ -4,6 +4,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -65,4 +67,85 @@ public class TestTask {
         assertEquals(1, testMap.get(testDate1));
         assertEquals(29, testMap.get(testDate2));
     }
+
+    @Test
+    void testHistoryMapReadOnly() {
+        testTask.recordTime(testDate1, 1);
+        testMap = testTask.getHistoryMap();
+        assertTrue(testMap.containsKey(testDate1));
+        assertFalse(testMap.containsKey(testDate2));
+        assertNull(testMap.get(testDate2));
+        assertThrows(UnsupportedOperationException.class, () -> testMap.put(testDate2, 5));
+        assertEquals(Map.of(testDate1, 1), testMap);
+    }
+
+    @Test
+    void testMinutesBetween() {
+        testTask.recordTime(testDate1, 1);
+        testTask.recordTime(testDate2, 5);
+        assertEquals(6, testTask.minutesBetween(testDate1, testDate2));
+        assertEquals(5, testTask.minutesBetween(testDate2, testDate2));
+        testTask.recordTime(testDate2, 10);
+        testTask.recordTime(LocalDate.of(1999, 12, 31), 100);
+        assertEquals(15, testTask.minutesBetween(testDate2, LocalDate.MAX));
+        assertEquals(116, testTask.minutesBetween(LocalDate.MIN, LocalDate.MAX));
+        assertEquals(0, testTask.minutesBetween(testDate2, testDate1));
+    }
+
+    @Test
+    void testMinutesInWeekMonthYear() {
+        testTask.recordTime(LocalDate.of(2023, 10, 23), 1);
+        testTask.recordTime(LocalDate.of(2023, 10, 29), 2);
+        testTask.recordTime(LocalDate.of(2023, 10, 30), 4);
+        testTask.recordTime(LocalDate.of(2023, 11, 1), 8);
+        testTask.recordTime(LocalDate.of(2024, 1, 1), 16);
+        assertEquals(3, testTask.minutesInWeek(LocalDate.of(2023, 10, 25)));
+        assertEquals(12, testTask.minutesInWeek(LocalDate.of(2023, 10, 30)));
+        assertEquals(7, testTask.minutesInMonth(YearMonth.of(2023, 10)));
+        assertEquals(15, testTask.minutesInYear(Year.of(2023)));
+        assertEquals(16, testTask.minutesInYear(Year.of(2024)));
+    }
+
+    @Test
+    void testModCount() {
+        assertEquals(0, testTask.getModCount());
+        testTask.recordTime(testDate1, 1);
+        testTask.recordTime(testDate1, 2);
+        testTask.setDurations(4, 5, 6);
+        assertEquals(3, testTask.getModCount());
+        Task copy = testTask.copy();
+        assertEquals(3, copy.getModCount());
+        copy.recordTime(testDate2, 1);
+        assertEquals(4, copy.getModCount());
+        assertEquals(3, testTask.getModCount());
+    }
+
+    @Test
+    void testKnownTotalConstructor() {
+        DayMinutesMap history = new DayMinutesMap();
+        history.add((int) testDate1.toEpochDay(), 20);
+        Task restored = new Task("restored", 1, 2, 3, history, 20);
+        assertEquals(20, restored.getTotalMinutes());
+        restored.recordTime(testDate1, 5);
+        assertEquals(25, restored.getTotalMinutes());
+        assertEquals(25, restored.copy().getHistoryMap().get(testDate1));
+    }
+
+    @Test
+    void testCopySharesHistoryUntilChanged() {
+        testTask.recordTime(testDate1, 10);
+        Map<LocalDate, Integer> originalMap = testTask.getHistoryMap();
+        Task copy = testTask.copy();
+        Task second = testTask.copy();
+        testTask.recordTime(testDate1, 5);
+        copy.recordTime(testDate2, 20);
+        assertEquals(15, originalMap.get(testDate1));
+        assertNull(originalMap.get(testDate2));
+        assertEquals(10, copy.getHistoryMap().get(testDate1));
+        assertEquals(20, copy.getHistoryMap().get(testDate2));
+        assertEquals(30, copy.getTotalMinutes());
+        assertEquals(1, second.getHistoryMap().size());
+        assertEquals(10, second.getHistoryMap().get(testDate1));
+        assertEquals(10, second.getTotalMinutes());
+    }
 }
@@ -3,14 +3,21 @@ package model;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class TestTimerSession {
     TimerSession testTimerSession;
+    ManualClock clock;
 
     @BeforeEach
     void startUp() {
-        testTimerSession = new TimerSession(30);
+        clock = new ManualClock();
+        testTimerSession = new TimerSession(30, clock);
     }
 
     @Test
@@ -19,6 +26,7 @@ public class TestTimerSession {
         testTimerSession.startTimer();
         assertTrue(testTimerSession.isTimerRunning());
         assertFalse(testTimerSession.isTimerComplete());
+        assertEquals(1, clock.getScheduledCount());
     }
 
     @Test
@@ -27,6 +35,7 @@ public class TestTimerSession {
         testTimerSession.pauseTimer();
         assertFalse(testTimerSession.isTimerRunning());
         assertFalse(testTimerSession.isTimerComplete());
+        assertEquals(0, clock.getScheduledCount());
         testTimerSession.startTimer();
         assertTrue(testTimerSession.isTimerRunning());
         assertFalse(testTimerSession.isTimerComplete());
@@ -35,62 +44,58 @@ public class TestTimerSession {
     @Test
     void testGetMinutesRemaining() {
         assertEquals(30, testTimerSession.getMinutesRemaining());
-        testTimerSession.fastForwardTimer(29, 0);
+        testTimerSession.startTimer();
+        clock.advanceSeconds(29 * 60);
         assertEquals(1, testTimerSession.getMinutesRemaining());
-        testTimerSession.fastForwardTimer(1, 0);
+        clock.advanceSeconds(60);
         assertEquals(0, testTimerSession.getMinutesRemaining());
     }
 
     @Test
-    void testGetSecondsRemainingAndCompleted() throws InterruptedException {
+    void testGetSecondsRemainingAndCompleted() {
         assertEquals(0, testTimerSession.getSecondsRemaining());
         assertEquals(0, testTimerSession.getSecondsCompleted());
         testTimerSession.startTimer();
         assertEquals(0, testTimerSession.getSecondsRemaining());
         assertEquals(0, testTimerSession.getSecondsCompleted());
-        Thread.sleep(2500);
+        clock.advanceMillis(2500);
+        assertEquals(29, testTimerSession.getMinutesRemaining());
         assertEquals(58, testTimerSession.getSecondsRemaining());
         assertEquals(2, testTimerSession.getSecondsCompleted());
     }
 
     @Test
-    void testCalculateCompletedMinutes() throws InterruptedException {
+    void testCalculateCompletedMinutes() {
         assertEquals(0, testTimerSession.calculateCompletedMinutes());
         testTimerSession.startTimer();
-        Thread.sleep(2000);
+        clock.advanceSeconds(2);
         assertEquals(0, testTimerSession.calculateCompletedMinutes());
-        testTimerSession.fastForwardTimer(29, 0);
+        clock.advanceSeconds(29 * 60);
         assertEquals(29, testTimerSession.calculateCompletedMinutes());
     }
 
     @Test
-    void testTimerComplete() throws InterruptedException {
-        // 30 min, 0 sec
+    void testTimerComplete() {
         assertFalse(testTimerSession.isTimerComplete());
-        testTimerSession.fastForwardTimer(28, 0);
         testTimerSession.startTimer();
-        Thread.sleep(1100);
-        // 1 min, ~59 sec
-        assertFalse(testTimerSession.isTimerComplete());
-        testTimerSession.fastForwardTimer(1, 0);
-        // 0 min, ~59 sec
+        clock.advanceSeconds(30 * 60 - 1);
+        // 0 min, 1 sec
         assertFalse(testTimerSession.isTimerComplete());
-        testTimerSession.fastForwardTimer(0, 58);
-        // 0 min, ~1 sec
+        assertTrue(testTimerSession.isTimerRunning());
+        clock.advanceSeconds(1);
+        // the tick lands just after the deadline
         assertFalse(testTimerSession.isTimerComplete());
-        Thread.sleep(1100);
-        // 0 min, 0 sec
+        clock.advanceMillis(10);
         assertTrue(testTimerSession.isTimerComplete());
+        assertFalse(testTimerSession.isTimerRunning());
+        assertEquals(30, testTimerSession.calculateCompletedMinutes());
+        assertEquals(0, clock.getScheduledCount());
     }
 
     @Test
     void testAwaitTimer() throws InterruptedException {
         testTimerSession.startTimer();
-        Thread.sleep(1200);
-        // 29 min, 59 sec
-        testTimerSession.fastForwardTimer(29, 58);
-        // 1 second remaining
-        assertFalse(testTimerSession.isTimerComplete());
+        clock.advanceSeconds(31 * 60);
         testTimerSession.awaitTimer();
         assertTrue(testTimerSession.isTimerComplete());
     }
@@ -100,8 +105,196 @@ public class TestTimerSession {
         testTimerSession.startTimer();
         testTimerSession.cancelTimer();
         assertFalse(testTimerSession.isTimerRunning());
-        assertFalse(testTimerSession.isTimerRunning());
         assertTrue(testTimerSession.isTimerCancelled());
+        assertEquals(0, clock.getScheduledCount());
+        testTimerSession.startTimer();
+        assertFalse(testTimerSession.isTimerRunning());
+    }
+
+    @Test
+    void testStalledSchedulerDoesNotSlowTimer() {
+        testTimerSession.startTimer();
+        clock.advanceSeconds(29 * 60 + 58);
+        clock.stall(TimeUnit.MILLISECONDS.toNanos(2500));
+        // ticks were held back, but the remaining time is measured from the clock
+        assertEquals(0, testTimerSession.getMinutesRemaining());
+        assertEquals(0, testTimerSession.getSecondsRemaining());
+        assertEquals(30, testTimerSession.calculateCompletedMinutes());
+        assertFalse(testTimerSession.isTimerComplete());
+        clock.advance(0);
+        assertTrue(testTimerSession.isTimerComplete());
     }
 
+    @Test
+    void testPausedTimerKeepsElapsedTime() {
+        testTimerSession.startTimer();
+        clock.advanceMillis(1200);
+        testTimerSession.pauseTimer();
+        clock.advanceSeconds(60);
+        assertEquals(1, testTimerSession.getSecondsCompleted());
+        assertEquals(29, testTimerSession.getMinutesRemaining());
+        assertEquals(59, testTimerSession.getSecondsRemaining());
+        testTimerSession.startTimer();
+        clock.advanceMillis(800);
+        assertEquals(2, testTimerSession.getSecondsCompleted());
+        assertEquals(58, testTimerSession.getSecondsRemaining());
+    }
+
+    @Test
+    void testTicksOnlyAtDeadline() {
+        int[] ticks = {0};
+        testTimerSession = new TimerSession(1, clock) {
+            @Override
+            public void tick() {
+                ticks[0]++;
+                super.tick();
+            }
+        };
+        testTimerSession.startTimer();
+        clock.advanceSeconds(61);
+        assertEquals(1, ticks[0]);
+        assertTrue(testTimerSession.isTimerComplete());
+    }
+
+    @Test
+    void testTicksEverySecondWhenDisplayed() {
+        int[] ticks = {0};
+        testTimerSession = new TimerSession(1, clock) {
+            @Override
+            protected boolean ticksEverySecond() {
+                return true;
+            }
+
+            @Override
+            public void tick() {
+                ticks[0]++;
+                super.tick();
+            }
+        };
+        testTimerSession.startTimer();
+        clock.advanceMillis(1500);
+        assertEquals(1, ticks[0]);
+        clock.advanceSeconds(60);
+        assertEquals(60, ticks[0]);
+        assertTrue(testTimerSession.isTimerComplete());
+    }
+
+    @Test
+    void testStateTransitionsAfterCompleteOrCancel() {
+        testTimerSession.startTimer();
+        clock.advanceSeconds(30 * 60 + 1);
+        assertTrue(testTimerSession.isTimerComplete());
+        testTimerSession.cancelTimer();
+        testTimerSession.pauseTimer();
+        testTimerSession.startTimer();
+        assertTrue(testTimerSession.isTimerComplete());
+        assertFalse(testTimerSession.isTimerCancelled());
+        assertFalse(testTimerSession.isTimerRunning());
+        assertEquals(0, testTimerSession.getTotalSecondsRemaining());
+        assertEquals(30 * 60, testTimerSession.getDurationSeconds());
+    }
+
+    @Test
+    void testStaleTickIsIgnored() {
+        testTimerSession = new TimerSession(1, new TimerClock() {
+            @Override
+            public long nanoTime() {
+                return clock.nanoTime();
+            }
+
+            @Override
+            public Cancellable schedule(Runnable task, long delayNanos) {
+                // cancelling is too late, the tick still wakes up
+                clock.schedule(task, delayNanos);
+                return () -> { };
+            }
+        });
+        testTimerSession.startTimer();
+        clock.advanceSeconds(30);
+        testTimerSession.pauseTimer();
+        clock.advanceSeconds(40);
+        assertFalse(testTimerSession.isTimerComplete());
+        assertEquals(30, testTimerSession.getTotalSecondsRemaining());
+        testTimerSession.startTimer();
+        clock.advanceSeconds(31);
+        assertTrue(testTimerSession.isTimerComplete());
+    }
+
+    @Test
+    void testHeldUpTickDoesNotCancelRestartedSession() throws InterruptedException {
+        AtomicBoolean gateArmed = new AtomicBoolean();
+        AtomicLong pausedNanos = new AtomicLong();
+        CountDownLatch tickScheduling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TimerClock gatedClock = new TimerClock() {
+            @Override
+            public long nanoTime() {
+                return clock.nanoTime() + pausedNanos.get();
+            }
+
+            @Override
+            public Cancellable schedule(Runnable task, long delayNanos) {
+                if (gateArmed.getAndSet(false)) {
+                    // hold the tick thread inside schedule while the test pauses and restarts the session
+                    tickScheduling.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return clock.schedule(task, delayNanos);
+            }
+        };
+        testTimerSession = new TimerSession(1, gatedClock) {
+            @Override
+            protected boolean ticksEverySecond() {
+                return true;
+            }
+        };
+        testTimerSession.startTimer();
+        gateArmed.set(true);
+        Thread tickThread = new Thread(() -> clock.advanceMillis(1500));
+        tickThread.start();
+        tickScheduling.await();
+        testTimerSession.pauseTimer();
+        // restarting later gives the session a new deadline, so the held up tick is stale
+        pausedNanos.set(TimeUnit.MILLISECONDS.toNanos(100));
+        testTimerSession.startTimer();
+        release.countDown();
+        tickThread.join();
+
+        assertTrue(testTimerSession.isTimerRunning());
+        assertEquals(1, clock.getScheduledCount());
+        clock.advanceSeconds(60);
+        assertTrue(testTimerSession.isTimerComplete());
+    }
+
+    @Test
+    void testConcurrentControls() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel();
+        wheel.start();
+        TimerSession session = new TimerSession(1, wheel);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    session.startTimer();
+                    session.pauseTimer();
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        wheel.stop();
+        assertFalse(session.isTimerRunning());
+        assertFalse(session.isTimerComplete());
+        assertTrue(session.getTotalSecondsRemaining() <= 60);
+        session.cancelTimer();
+        session.awaitTimer();
+        assertTrue(session.isTimerCancelled());
+        assertEquals(0, wheel.size());
+    }
 }
@@ -0,0 +1,115 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestTimingWheel {
+    private static final long TICK = TimeUnit.MILLISECONDS.toNanos(10);
+    private TimingWheel testWheel;
+    private long now;
+    private List<String> fired;
+
+    @BeforeEach
+    void startUp() {
+        now = 0;
+        testWheel = new TimingWheel(TICK, () -> now);
+        fired = new ArrayList<>();
+    }
+
+    @Test
+    void testFiresAtDeadline() {
+        testWheel.schedule(() -> fired.add("a"), TimeUnit.MILLISECONDS.toNanos(25));
+        assertEquals(1, testWheel.size());
+        advanceMillis(20);
+        assertTrue(fired.isEmpty());
+        advanceMillis(10);
+        assertEquals(List.of("a"), fired);
+        assertEquals(0, testWheel.size());
+    }
+
+    @Test
+    void testFiresAcrossLevelsInOrder() {
+        long[] delaysMillis = {TimeUnit.HOURS.toMillis(30), 700, TimeUnit.MINUTES.toMillis(25), 50, 41_000};
+        for (long delay : delaysMillis) {
+            testWheel.schedule(() -> fired.add(Long.toString(delay)), TimeUnit.MILLISECONDS.toNanos(delay));
+        }
+        advanceMillis(40_990);
+        assertEquals(List.of("50", "700"), fired);
+        advanceMillis(10);
+        assertEquals(List.of("50", "700", "41000"), fired);
+        advanceMillis(TimeUnit.MINUTES.toMillis(25) - 41_010);
+        assertEquals(3, fired.size());
+        advanceMillis(10);
+        assertEquals(4, fired.size());
+        advanceMillis(TimeUnit.HOURS.toMillis(30));
+        assertEquals("108000000", fired.get(4));
+    }
+
+    @Test
+    void testBeyondWheelRange() {
+        long delay = TimeUnit.DAYS.toNanos(900);
+        testWheel.schedule(() -> fired.add("late"), delay);
+        now = delay - TICK;
+        testWheel.advanceTo(now);
+        assertTrue(fired.isEmpty());
+        now = delay;
+        testWheel.advanceTo(now);
+        assertEquals(List.of("late"), fired);
+    }
+
+    @Test
+    void testCancel() {
+        TimerClock.Cancellable handle = testWheel.schedule(() -> fired.add("a"), TICK * 100);
+        testWheel.schedule(() -> fired.add("b"), TICK * 100);
+        handle.cancel();
+        handle.cancel();
+        assertEquals(1, testWheel.size());
+        advanceMillis(2000);
+        assertEquals(List.of("b"), fired);
+    }
+
+    @Test
+    void testBatchCanCancelLaterEntryOfSameBatch() {
+        TimerClock.Cancellable[] second = new TimerClock.Cancellable[1];
+        testWheel.schedule(() -> {
+            fired.add("a");
+            second[0].cancel();
+        }, TICK);
+        second[0] = testWheel.schedule(() -> fired.add("b"), TICK);
+        advanceMillis(10);
+        assertEquals(List.of("a"), fired);
+    }
+
+    @Test
+    void testZeroDelayFiresOnNextTick() {
+        advanceMillis(1000);
+        testWheel.schedule(() -> fired.add("now"), 0);
+        assertTrue(fired.isEmpty());
+        advanceMillis(10);
+        assertEquals(List.of("now"), fired);
+    }
+
+    @Test
+    void testDrivesTimerSessions() {
+        TimerSession first = new TimerSession(1, testWheel);
+        TimerSession second = new TimerSession(2, testWheel);
+        first.startTimer();
+        second.startTimer();
+        advanceMillis(TimeUnit.MINUTES.toMillis(1) + 10);
+        assertTrue(first.isTimerComplete());
+        assertFalse(second.isTimerComplete());
+        second.cancelTimer();
+        assertEquals(0, testWheel.size());
+    }
+
+    private void advanceMillis(long millis) {
+        now += TimeUnit.MILLISECONDS.toNanos(millis);
+        testWheel.advanceTo(now);
+    }
+}
@@ -0,0 +1,36 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestWorkspace {
+    private Workspace testWorkspace;
+    private Project testProject1;
+    private Project testProject2;
+
+    @BeforeEach
+    void startUp() {
+        testWorkspace = new Workspace();
+        testProject1 = new Project("Project1");
+        testProject2 = new Project("Project2");
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(0, testWorkspace.size());
+        assertTrue(testWorkspace.getProjects().isEmpty());
+        assertNull(testWorkspace.getProject("Project1"));
+    }
+
+    @Test
+    void testAddProject() {
+        assertTrue(testWorkspace.addProject(testProject1));
+        assertTrue(testWorkspace.addProject(testProject2));
+        assertFalse(testWorkspace.addProject(new Project("Project1")));
+        assertEquals(2, testWorkspace.size());
+        assertEquals(testProject1, testWorkspace.getProject("Project1"));
+        assertEquals(testProject2, testWorkspace.getProjects().toArray()[1]);
+    }
+}
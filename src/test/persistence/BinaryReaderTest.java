@@ -0,0 +1,32 @@
+package persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryReaderTest {
+
+    @Test
+    void testReaderNonExistentFile() {
+        BinaryReader reader = new BinaryReader("./data/noSuchFile.bin");
+        try {
+            reader.read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testReaderNotBinarySnapshot() {
+        BinaryReader reader = new BinaryReader("./data/testReaderEmptyProject.json");
+        try {
+            reader.read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+}
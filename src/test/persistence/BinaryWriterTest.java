@@ -0,0 +1,98 @@
+package persistence;
+
+import model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryWriterTest {
+    // written files are test output, kept out of version control
+    private static final String OUTPUT = "./data/testWriterOutput";
+    private static final String EMPTY_PROJECT = OUTPUT + "/emptyProject.bin";
+    private static final String GENERAL_PROJECT = OUTPUT + "/generalProject.bin";
+    private Project project;
+    private List<Task> taskList;
+
+    @BeforeEach
+    void startUp() throws IOException {
+        Files.createDirectories(Paths.get(OUTPUT));
+        project = new Project("testProject");
+    }
+
+    @Test
+    void testWriterInvalidFile() {
+        try {
+            BinaryWriter writer = new BinaryWriter("./data/my\0illegal:fileName.bin");
+            writer.open();
+            fail("IOException was expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testWriterEmptyProject() {
+        try {
+            BinaryWriter writer = new BinaryWriter(EMPTY_PROJECT);
+            writer.open();
+            writer.write(project);
+            writer.close();
+
+            BinaryReader reader = new BinaryReader(EMPTY_PROJECT);
+            project = reader.read();
+            taskList = project.getTaskList();
+            assertEquals("testProject", project.getName());
+            assertEquals(0, project.calculateTotalMinutes());
+            assertEquals(0, taskList.size());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testWriterGeneralProject() {
+        try {
+            Task cpsc210 = new Task("CPSC210", 1, 2, 3);
+            Task cpsc121 = new Task("CPSC121", 2, 2, 2);
+            cpsc121.recordTime(LocalDate.of(2023, 10, 23), 5);
+            cpsc121.recordTime(LocalDate.of(2023, 10, 19), 100);
+            cpsc121.recordTime(LocalDate.of(1969, 12, 31), 300);
+            cpsc121.recordTime(LocalDate.of(2023, 10, 22), 10);
+            project.addTask(cpsc210);
+            project.addTask(cpsc121);
+
+            BinaryWriter writer = new BinaryWriter(GENERAL_PROJECT);
+            writer.open();
+            writer.write(project);
+            writer.close();
+
+            BinaryReader reader = new BinaryReader(GENERAL_PROJECT);
+            project = reader.read();
+            assertEquals("testProject", project.getName());
+            taskList = project.getTaskList();
+            assertEquals(2, taskList.size());
+
+            Task firstTask = taskList.get(0);
+            assertEquals("CPSC210", firstTask.getName());
+            assertEquals(1, firstTask.getWorkDurationMinutes());
+            assertEquals(2, firstTask.getBreakDurationMinutes());
+            assertEquals(3, firstTask.getLongBreakDurationMinutes());
+            assertEquals(0, firstTask.getHistoryMap().size());
+
+            Task secondTask = taskList.get(1);
+            assertEquals(415, secondTask.getTotalMinutes());
+            assertEquals(4, secondTask.getHistoryMap().size());
+            assertEquals(300, secondTask.getHistoryMap().get(LocalDate.of(1969, 12, 31)));
+            assertEquals(10, secondTask.getHistoryMap().get(LocalDate.of(2023, 10, 22)));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package persistence;
+
+import model.Project;
+import model.Task;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonMigratorTest {
+    private static final String MIGRATED = "./data/testMigratorProject.json";
+
+    @BeforeEach
+    void startUp() throws IOException {
+        Files.copy(Paths.get("./data/testReaderLegacyProject.json"), Paths.get(MIGRATED),
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Test
+    void testMigrateLegacyInPlace() {
+        try {
+            JsonMigrator migrator = new JsonMigrator(MIGRATED);
+            assertEquals(MigrationPipeline.LEGACY_VERSION, migrator.readVersion());
+            assertEquals(MigrationPipeline.LEGACY_VERSION, migrator.migrate());
+            assertEquals(MigrationPipeline.CURRENT_VERSION, migrator.readVersion());
+
+            JSONObject migrated = readObject(MIGRATED);
+            assertEquals("kept by migration", migrated.getString("notes"));
+            JSONObject reading = migrated.getJSONArray("tasks").getJSONObject(0);
+            assertEquals(30, reading.getInt("totalMinutes"));
+            assertEquals(25, reading.getInt("workDurationMinutes"));
+
+            Project project = new JsonReader(MIGRATED).read();
+            assertEquals("legacyProject", project.getName());
+            assertEquals(30, project.calculateTotalMinutes());
+            Task writing = project.getTaskFromString("Writing");
+            assertEquals(30, writing.getLongBreakDurationMinutes());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testMigrateCurrentLeavesFile() {
+        try {
+            JsonMigrator migrator = new JsonMigrator(MIGRATED);
+            migrator.migrate();
+            long modified = Files.getLastModifiedTime(Paths.get(MIGRATED)).toMillis();
+            String contents = Files.readString(Paths.get(MIGRATED));
+            assertEquals(MigrationPipeline.CURRENT_VERSION, migrator.migrate());
+            assertEquals(contents, Files.readString(Paths.get(MIGRATED)));
+            assertEquals(modified, Files.getLastModifiedTime(Paths.get(MIGRATED)).toMillis());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testMigrateToLeavesSource() {
+        try {
+            String source = Files.readString(Paths.get(MIGRATED));
+            JsonMigrator migrator = new JsonMigrator(MIGRATED);
+            Path destination = Paths.get("./data/testMigratorDestination.json");
+            assertEquals(MigrationPipeline.LEGACY_VERSION, migrator.migrateTo(destination.toString()));
+            assertEquals(source, Files.readString(Paths.get(MIGRATED)));
+            assertEquals(MigrationPipeline.CURRENT_VERSION,
+                    new JsonMigrator(destination.toString()).readVersion());
+            Files.delete(destination);
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testMigrateFailureKeepsFile() {
+        try {
+            Files.copy(Paths.get("./data/testReaderTruncatedProject.json"), Paths.get(MIGRATED),
+                    StandardCopyOption.REPLACE_EXISTING);
+            new JsonMigrator(MIGRATED).migrate();
+            fail("IOException was expected");
+        } catch (IOException e) {
+            try {
+                assertEquals(Files.readString(Paths.get("./data/testReaderTruncatedProject.json")),
+                        Files.readString(Paths.get(MIGRATED)));
+            } catch (IOException readFailure) {
+                fail("Exception should not have been thrown");
+            }
+        }
+    }
+
+    @Test
+    void testMigrateMisplacedVersion() {
+        try {
+            Files.copy(Paths.get("./data/testReaderMisplacedVersionProject.json"), Paths.get(MIGRATED),
+                    StandardCopyOption.REPLACE_EXISTING);
+            JsonMigrator migrator = new JsonMigrator(MIGRATED);
+            assertEquals(MigrationPipeline.CURRENT_VERSION, migrator.readVersion());
+            Path destination = Paths.get("./data/testMigratorDestination.json");
+            assertEquals(MigrationPipeline.CURRENT_VERSION, migrator.migrateTo(destination.toString()));
+            assertTrue(Files.readString(destination).startsWith("{\"schema_version\":2,"));
+            Project project = new JsonReader(destination.toString()).read();
+            assertEquals(30, project.getTaskFromString("Reading").getTotalMinutes());
+            assertEquals(40, project.getTaskFromString("Reading").getWorkDurationMinutes());
+            Files.delete(destination);
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testMigrateFutureVersion() {
+        try {
+            new JsonMigrator("./data/testReaderFutureVersionProject.json").readVersion();
+            fail("IOException was expected");
+        } catch (IOException e) {
+            // pass
+        }
+        try {
+            new JsonMigrator("./data/testReaderLateFutureVersionProject.json").readVersion();
+            fail("IOException was expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    // EFFECTS: reads the JSON object in the given file
+    private JSONObject readObject(String path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            return new JSONObject(new JSONTokener(reader));
+        }
+    }
+}
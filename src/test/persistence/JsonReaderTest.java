@@ -1,11 +1,13 @@
 package persistence;
 
 import model.*;
+import org.json.JSONException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -72,4 +74,98 @@ class JsonReaderTest {
             fail("Couldn't read from file");
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testReaderTasksBeforeProjectName() {
+        JsonReader reader = new JsonReader("./data/testReaderReorderedProject.json");
+        try {
+            project = reader.read();
+            assertEquals("testProject", project.getName());
+            taskList = project.getTaskList();
+            assertEquals(1, taskList.size());
+            assertEquals("CPSC210", taskList.get(0).getName());
+            assertEquals(20, taskList.get(0).getTotalMinutes());
+            assertEquals(20, taskList.get(0).getHistoryMap().get(LocalDate.of(2023, 10, 23)));
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderTruncatedFile() {
+        JsonReader reader = new JsonReader("./data/testReaderTruncatedProject.json");
+        try {
+            reader.read();
+            fail("JSONException expected");
+        } catch (JSONException e) {
+            // pass
+        } catch (IOException e) {
+            fail("JSONException expected");
+        }
+    }
+
+    @Test
+    void testReaderLegacyProject() {
+        JsonReader reader = new JsonReader("./data/testReaderLegacyProject.json");
+        try {
+            project = reader.read();
+            assertEquals("legacyProject", project.getName());
+            taskList = project.getTaskList();
+            assertEquals(2, taskList.size());
+            Task reading = taskList.get(0);
+            assertEquals(25, reading.getWorkDurationMinutes());
+            assertEquals(5, reading.getBreakDurationMinutes());
+            assertEquals(15, reading.getLongBreakDurationMinutes());
+            assertEquals(30, reading.getTotalMinutes());
+            Task writing = taskList.get(1);
+            assertEquals(50, writing.getWorkDurationMinutes());
+            assertEquals(0, writing.getHistoryMap().size());
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderFutureVersion() {
+        JsonReader reader = new JsonReader("./data/testReaderFutureVersionProject.json");
+        try {
+            reader.read();
+            fail("JSONException expected");
+        } catch (JSONException e) {
+            assertTrue(e.getMessage().contains("schema_version 99"));
+        } catch (IOException e) {
+            fail("JSONException expected");
+        }
+    }
+
+    @Test
+    void testReaderMisplacedVersion() {
+        JsonReader reader = new JsonReader("./data/testReaderMisplacedVersionProject.json");
+        List<Integer> progress = new ArrayList<>();
+        reader.setProgressListener(progress::add);
+        try {
+            Project project = reader.read();
+            assertEquals("misplacedProject", project.getName());
+            assertEquals(List.of("Reading", "Writing"), project.tasksToStringList());
+            assertEquals(30, project.calculateTotalMinutes());
+            assertEquals(40, project.getTaskFromString("Reading").getWorkDurationMinutes());
+            assertEquals(20, project.getTaskFromString("Writing").getLongBreakDurationMinutes());
+            assertEquals(List.of(1, 2), progress);
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderMisplacedFutureVersion() {
+        JsonReader reader = new JsonReader("./data/testReaderLateFutureVersionProject.json");
+        try {
+            reader.read();
+            fail("JSONException expected");
+        } catch (JSONException e) {
+            assertTrue(e.getMessage().contains("schema_version 99"));
+        } catch (IOException e) {
+            fail("JSONException expected");
+        }
+    }
+}
@@ -1,23 +1,40 @@
 package persistence;
 
 import model.*;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 // Code influenced by JsonSerializationDemo: https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo
 
 class JsonWriterTest {
+    // written files are test output, kept out of version control
+    private static final String OUTPUT = "./data/testWriterOutput";
+    private static final String EMPTY_PROJECT = OUTPUT + "/emptyProject.json";
+    private static final String GENERAL_PROJECT = OUTPUT + "/generalProject.json";
     private Project project;
     private List<Task> taskList;
 
     @BeforeEach
-    void startUp() {
+    void startUp() throws IOException {
+        Files.createDirectories(Paths.get(OUTPUT));
         project = new Project("testProject");
     }
 
@@ -35,12 +52,12 @@ class JsonWriterTest {
     @Test
     void testWriterEmptyProject() {
         try {
-            JsonWriter writer = new JsonWriter("./data/testWriterEmptyProject.json");
+            JsonWriter writer = new JsonWriter(EMPTY_PROJECT);
             writer.open();
             writer.write(project);
             writer.close();
 
-            JsonReader reader = new JsonReader("./data/testWriterEmptyProject.json");
+            JsonReader reader = new JsonReader(EMPTY_PROJECT);
             project = reader.read();
             taskList = project.getTaskList();
             assertEquals("testProject", project.getName());
@@ -73,12 +90,12 @@ class JsonWriterTest {
             project.addTask(cpsc213);
             project.addTask(cpsc221);
 
-            JsonWriter writer = new JsonWriter("./data/testWriterGeneralProject.json");
+            JsonWriter writer = new JsonWriter(GENERAL_PROJECT);
             writer.open();
             writer.write(project);
             writer.close();
 
-            JsonReader reader = new JsonReader("./data/testWriterGeneralProject.json");
+            JsonReader reader = new JsonReader(GENERAL_PROJECT);
             project = reader.read();
             assertEquals("testProject", project.getName());
             taskList = project.getTaskList();
@@ -99,4 +116,148 @@ class JsonWriterTest {
             fail("Exception should not have been thrown");
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testWriterFailureKeepsDestination() {
+        try {
+            JsonWriter writer = new JsonWriter(EMPTY_PROJECT, false);
+            writer.open();
+            writer.write(project);
+            writer.close();
+
+            Project failing = new Project("failingProject") {
+                @Override
+                public void toJson(JSONWriter writer) {
+                    writer.object().key("project_name").value(getName());
+                    throw new JSONException("serialization failed");
+                }
+            };
+            writer = new JsonWriter(EMPTY_PROJECT);
+            writer.open();
+            try {
+                writer.write(failing);
+                fail("JSONException was expected");
+            } catch (JSONException e) {
+                // pass
+            }
+            writer.close();
+
+            assertEquals("testProject", new JsonReader(EMPTY_PROJECT).read().getName());
+            assertEquals(0, countTemporaryFiles());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testWriterLeavesNoTemporaryFile() {
+        try {
+            JsonWriter writer = new JsonWriter(EMPTY_PROJECT);
+            writer.open();
+            assertEquals(1, countTemporaryFiles());
+            writer.write(project);
+            writer.close();
+            writer.close();
+            assertEquals(0, countTemporaryFiles());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testWriterKeepsPermissions() {
+        Path destination = Paths.get(EMPTY_PROJECT);
+        assumeTrue(Files.getFileAttributeView(Paths.get(OUTPUT), PosixFileAttributeView.class) != null);
+        try {
+            Files.deleteIfExists(destination);
+            Files.createFile(destination);
+            Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r-----");
+            Files.setPosixFilePermissions(destination, permissions);
+            JsonWriter writer = new JsonWriter(EMPTY_PROJECT);
+            writer.open();
+            writer.write(project);
+            writer.close();
+            assertEquals(permissions, Files.getPosixFilePermissions(destination));
+            assertEquals("testProject", new JsonReader(EMPTY_PROJECT).read().getName());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testWriterPrettyPrint() {
+        try {
+            Task task = new Task("CPSC210 \"{a, b}: [c]\"", 1, 2, 3);
+            task.recordTime(LocalDate.of(2000, 1, 1), 5);
+            project.addTask(task);
+            JsonWriter writer = new JsonWriter(GENERAL_PROJECT, false);
+            writer.setPrettyPrint(true);
+            writer.open();
+            writer.write(project);
+            writer.close();
+
+            String written = Files.readString(Paths.get(GENERAL_PROJECT));
+            assertEquals(String.join("\n",
+                    "{",
+                    "    \"schema_version\": 2,",
+                    "    \"project_name\": \"testProject\",",
+                    "    \"tasks\": [",
+                    "        {",
+                    "            \"task_name\": \"CPSC210 \\\"{a, b}: [c]\\\"\",",
+                    "            \"workDurationMinutes\": 1,",
+                    "            \"breakDurationMinutes\": 2,",
+                    "            \"longBreakDurationMinutes\": 3,",
+                    "            \"totalMinutes\": 5,",
+                    "            \"historyMap\": [",
+                    "                {",
+                    "                    \"date\": \"2000-01-01\",",
+                    "                    \"minutes_completed\": 5",
+                    "                }",
+                    "            ]",
+                    "        }",
+                    "    ]",
+                    "}"), written);
+            assertTrue(project.toJson().similar(new JSONObject(written)));
+
+            project = new Project("testProject");
+            writer.open();
+            writer.write(project);
+            writer.close();
+            assertEquals("{\n    \"schema_version\": 2,\n    \"project_name\": \"testProject\",\n    \"tasks\": []\n}",
+                    Files.readString(Paths.get(GENERAL_PROJECT)));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testWriterMissingDirectory() {
+        try {
+            JsonWriter writer = new JsonWriter("./data/noSuchDirectory/project.json");
+            writer.open();
+            fail("IOException was expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    private long countTemporaryFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Paths.get(OUTPUT))) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".tmp")).count();
+        }
+    }
+
+    @Test
+    void testWriterStreamsSameJsonAsTree() {
+        Task task = new Task("CPSC210", 1, 2, 3);
+        task.recordTime(LocalDate.of(2000, 1, 1), 5);
+        task.recordTime(LocalDate.of(2000, 1, 3), 10);
+        project.addTask(task);
+        project.addTask(new Task("PHIL220"));
+        StringBuilder streamed = new StringBuilder();
+        project.toJson(new JSONWriter(streamed));
+        assertTrue(project.toJson().similar(new JSONObject(streamed.toString())));
+        assertTrue(streamed.indexOf("{\"schema_version\":2,\"project_name\":\"testProject\",\"tasks\":"
+                + "[{\"task_name\"") == 0);
+    }
+}
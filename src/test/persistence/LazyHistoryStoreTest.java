@@ -0,0 +1,110 @@
+package persistence;
+
+import model.DayMinutesMap;
+import model.HistoryStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyHistoryStoreTest {
+    private int loads;
+    private LazyHistoryStore store;
+
+    @BeforeEach
+    void startUp() {
+        loads = 0;
+        store = new LazyHistoryStore(this::loadHistory);
+    }
+
+    @Test
+    void testLoadsOnFirstAccess() {
+        assertFalse(store.isLoaded());
+        assertEquals(0, loads);
+        assertEquals(25, store.get(10957));
+        assertTrue(store.isLoaded());
+        store.add(10959, 5);
+        assertEquals(3, store.size());
+        int[] total = new int[1];
+        store.forEach((epochDay, minutes) -> total[0] += minutes);
+        assertEquals(80, total[0]);
+        assertEquals(1, loads);
+    }
+
+    @Test
+    void testCopyBeforeLoad() {
+        HistoryStore copy = store.copy();
+        assertEquals(0, loads);
+        assertFalse(store.isLoaded());
+        copy.add(10957, 5);
+        assertEquals(30, copy.get(10957));
+        assertEquals(25, store.get(10957));
+        assertEquals(2, loads);
+    }
+
+    @Test
+    void testCopyAfterLoad() {
+        store.add(10957, 5);
+        HistoryStore copy = store.copy();
+        store.add(10957, 5);
+        assertEquals(30, copy.get(10957));
+        assertEquals(35, store.get(10957));
+        assertEquals(1, loads);
+    }
+
+    @Test
+    void testSourceFails() {
+        LazyHistoryStore failing = new LazyHistoryStore(() -> {
+            throw new IOException("missing");
+        });
+        try {
+            failing.get(10957);
+            fail("UncheckedIOException was expected");
+        } catch (UncheckedIOException e) {
+            assertEquals("missing", e.getCause().getMessage());
+        }
+        assertFalse(failing.isLoaded());
+    }
+
+    @Test
+    void testRecentEntriesWithoutLoading() {
+        DayMinutesMap recent = new DayMinutesMap();
+        recent.add(10958, 50);
+        LazyHistoryStore summarized = new LazyHistoryStore(this::loadHistory, 10958, recent);
+        assertEquals(50, summarized.get(10958));
+        assertEquals(HistoryStore.NO_ENTRY, summarized.get(10959));
+        assertEquals(50, summarized.knownMinutesBetween(10958, 10964));
+        assertEquals(0, summarized.knownMinutesBetween(10959, 10964));
+        int[] total = new int[1];
+        assertEquals(10958, summarized.forEachSince(10950, (epochDay, minutes) -> total[0] += minutes));
+        assertEquals(50, total[0]);
+        assertEquals(50, summarized.copy().get(10958));
+        assertEquals(0, loads);
+
+        assertEquals(HistoryStore.UNKNOWN, summarized.knownMinutesBetween(10957, 10964));
+        assertEquals(25, summarized.get(10957));
+        assertEquals(1, loads);
+        assertEquals(HistoryStore.UNKNOWN, summarized.knownMinutesBetween(10958, 10964));
+    }
+
+    @Test
+    void testForEachSinceLoadsWithoutRecentEntries() {
+        assertEquals(HistoryStore.UNKNOWN, store.knownMinutesBetween(10957, 10964));
+        int[] total = new int[1];
+        assertEquals(10958, store.forEachSince(10958, (epochDay, minutes) -> total[0] += minutes));
+        assertEquals(50, total[0]);
+        assertEquals(1, loads);
+    }
+
+    // EFFECTS: counts the load and returns the history the stores under test read
+    private HistoryStore loadHistory() {
+        loads++;
+        DayMinutesMap history = new DayMinutesMap();
+        history.add(10957, 25);
+        history.add(10958, 50);
+        return history;
+    }
+}
@@ -0,0 +1,152 @@
+package persistence;
+
+import model.HistoryStore;
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedHistoryStoreTest {
+    private static final String STORE = "./data/testMappedHistory.days";
+    private int testDay;
+
+    @BeforeEach
+    void startUp() {
+        new File(STORE).delete();
+        testDay = (int) LocalDate.of(2023, 10, 23).toEpochDay();
+    }
+
+    @Test
+    void testEmptyStore() throws IOException {
+        MappedHistoryStore store = new MappedHistoryStore(STORE);
+        assertEquals(0, store.size());
+        assertEquals(HistoryStore.NO_ENTRY, store.get(testDay));
+        store.close();
+    }
+
+    @Test
+    void testAddAndGrow() throws IOException {
+        MappedHistoryStore store = new MappedHistoryStore(STORE);
+        store.add(testDay, 5);
+        store.add(testDay, 10);
+        store.add(testDay + 1000, 20);
+        store.add(testDay - 3000, 30);
+        store.add(testDay - 1, 0);
+        assertEquals(4, store.size());
+        assertEquals(15, store.get(testDay));
+        assertEquals(20, store.get(testDay + 1000));
+        assertEquals(30, store.get(testDay - 3000));
+        assertEquals(0, store.get(testDay - 1));
+        assertEquals(HistoryStore.NO_ENTRY, store.get(testDay + 1));
+        List<Integer> days = new ArrayList<>();
+        store.forEach((epochDay, minutes) -> days.add(epochDay));
+        assertEquals(List.of(testDay - 3000, testDay - 1, testDay, testDay + 1000), days);
+        store.close();
+    }
+
+    @Test
+    void testReopen() throws IOException {
+        MappedHistoryStore store = new MappedHistoryStore(STORE);
+        Task task = new Task("CPSC210", 1, 2, 3, store);
+        task.recordTime(LocalDate.ofEpochDay(testDay), 25);
+        task.recordTime(LocalDate.ofEpochDay(testDay - 400), 50);
+        store.close();
+
+        store = new MappedHistoryStore(STORE);
+        task = new Task("CPSC210", 1, 2, 3, store);
+        assertEquals(75, task.getTotalMinutes());
+        assertEquals(2, task.getHistoryMap().size());
+        assertEquals(50, task.getHistoryMap().get(LocalDate.ofEpochDay(testDay - 400)));
+        store.close();
+    }
+
+    @Test
+    void testNotAHistoryStore() throws IOException {
+        // the store maps files read-write, so it is pointed at a copy rather than the tracked fixture
+        Path notAStore = Files.createTempFile("testNotAHistoryStore", ".json");
+        try {
+            Files.copy(Paths.get("./data/testReaderEmptyProject.json"), notAStore,
+                    StandardCopyOption.REPLACE_EXISTING);
+            new MappedHistoryStore(notAStore.toString());
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        } finally {
+            Files.delete(notAStore);
+        }
+    }
+
+    @Test
+    void testTruncatedStore() throws IOException {
+        MappedHistoryStore store = new MappedHistoryStore(STORE);
+        Task task = new Task("CPSC210", 1, 2, 3, store);
+        task.recordTime(LocalDate.ofEpochDay(testDay), 25);
+        task.recordTime(LocalDate.ofEpochDay(testDay - 400), 50);
+        store.close();
+        byte[] bytes = Files.readAllBytes(Paths.get(STORE));
+        Files.write(Paths.get(STORE), Arrays.copyOf(bytes, bytes.length / 2));
+        try {
+            new MappedHistoryStore(STORE);
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+        try {
+            MappedHistoryStore.openReadOnly(Paths.get(STORE));
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testWriteAndOpenReadOnly() throws IOException {
+        Task task = new Task("CPSC210");
+        task.recordTime(LocalDate.ofEpochDay(testDay), 25);
+        task.recordTime(LocalDate.ofEpochDay(testDay - 400), 50);
+        assertTrue(MappedHistoryStore.write(Paths.get(STORE), task, false));
+
+        MappedHistoryStore store = MappedHistoryStore.openReadOnly(Paths.get(STORE));
+        assertTrue(store.isReadOnly());
+        assertEquals(2, store.size());
+        assertEquals(25, store.get(testDay));
+        assertEquals(HistoryStore.NO_ENTRY, store.get(testDay - 1));
+        try {
+            store.add(testDay, 5);
+            fail("UnsupportedOperationException expected");
+        } catch (UnsupportedOperationException e) {
+            // pass
+        }
+        HistoryStore copy = store.copy();
+        copy.add(testDay, 5);
+        assertEquals(30, copy.get(testDay));
+        assertEquals(25, store.get(testDay));
+
+        MappedHistoryStore writable = new MappedHistoryStore(STORE);
+        writable.add(testDay + 1, 10);
+        assertEquals(3, writable.size());
+        writable.close();
+    }
+
+    @Test
+    void testWriteEmptyAndTooWideHistory() throws IOException {
+        Task task = new Task("CPSC210");
+        assertTrue(MappedHistoryStore.write(Paths.get(STORE), task, false));
+        assertEquals(0, MappedHistoryStore.openReadOnly(Paths.get(STORE)).size());
+        task.recordTime(LocalDate.ofEpochDay(testDay), 25);
+        task.recordTime(LocalDate.ofEpochDay(testDay - MappedHistoryStore.MAX_FILE_DAYS), 50);
+        assertFalse(MappedHistoryStore.write(Paths.get(STORE), task, false));
+    }
+}
@@ -0,0 +1,221 @@
+package persistence;
+
+import model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectJournalTest {
+    private static final String JOURNAL = "./data/testJournalProject.journal";
+    private static final String STORE = "./data/testJournalProject.store";
+    private ProjectJournal journal;
+    private SegmentedProjectStore store;
+    private LocalDate testDate;
+
+    @BeforeEach
+    void startUp() throws IOException {
+        new File(JOURNAL).delete();
+        Path directory = Paths.get(STORE);
+        if (Files.exists(directory)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+        journal = new ProjectJournal(JOURNAL);
+        store = new SegmentedProjectStore(STORE, false);
+        testDate = LocalDate.of(2023, 10, 23);
+    }
+
+    @Test
+    void testRecoverWithoutJournal() throws IOException {
+        assertNull(journal.recover(store));
+        assertFalse(journal.isOpen());
+    }
+
+    @Test
+    void testRecoverEmptyJournal() throws IOException {
+        journal.start(ProjectJournal.newId(), SegmentedProjectStore.NO_SAVE, "testProject");
+        journal.close();
+        assertNull(new ProjectJournal(JOURNAL).recover(store));
+    }
+
+    @Test
+    void testReplayOntoEmptyProject() throws IOException {
+        journal.start(ProjectJournal.newId(), SegmentedProjectStore.NO_SAVE, "testProject");
+        Project project = new Project("testProject");
+        record(project);
+        Task task = new Task("CPSC210", 1, 2, 3);
+        task.recordTime(testDate, 5);
+        project.addTask(task);
+        task.recordTime(testDate, 10);
+        task.setDurations(4, 5, 6);
+        assertEquals(3, journal.getPosition());
+        journal.close();
+
+        ProjectJournal reopened = new ProjectJournal(JOURNAL);
+        project = reopened.recover(store);
+        assertEquals("testProject", project.getName());
+        Task replayed = project.getTaskFromString("CPSC210");
+        assertEquals(15, replayed.getTotalMinutes());
+        assertEquals(15, replayed.getHistoryMap().get(testDate));
+        assertEquals(4, replayed.getWorkDurationMinutes());
+        assertEquals(6, replayed.getLongBreakDurationMinutes());
+        assertTrue(reopened.isOpen());
+        assertEquals(3, reopened.getPosition());
+        reopened.close();
+    }
+
+    @Test
+    void testReplayOnTopOfStore() throws IOException {
+        Project saved = new Project("stored");
+        saved.addTask(new Task("CPSC210", 1, 2, 3));
+        store.save(saved);
+        Project project = store.load();
+        journal.start(ProjectJournal.newId(), store.getSaveId(), null);
+        record(project);
+        project.getTaskFromString("CPSC210").recordTime(testDate, 5);
+        project.addTask(new Task("MATH200"));
+        journal.close();
+
+        project = new ProjectJournal(JOURNAL).recover(new SegmentedProjectStore(STORE, false));
+        assertEquals("stored", project.getName());
+        assertEquals(List.of("CPSC210", "MATH200"), project.tasksToStringList());
+        assertEquals(5, project.getTaskFromString("CPSC210").getTotalMinutes());
+    }
+
+    @Test
+    void testSaveSkipsHeldRecords() throws IOException {
+        long id = ProjectJournal.newId();
+        journal.start(id, SegmentedProjectStore.NO_SAVE, "testProject");
+        Project project = new Project("testProject");
+        record(project);
+        project.addTask(new Task("CPSC210"));
+        project.getTaskFromString("CPSC210").recordTime(testDate, 5);
+        store.save(project.copy(), id, journal.getPosition());
+        project.getTaskFromString("CPSC210").recordTime(testDate, 7);
+        journal.close();
+
+        // a crash between the save and the compaction leaves every record in the journal
+        ProjectJournal reopened = new ProjectJournal(JOURNAL);
+        project = reopened.recover(new SegmentedProjectStore(STORE, false));
+        assertEquals(12, project.getTaskFromString("CPSC210").getTotalMinutes());
+        assertEquals(3, reopened.getPosition());
+        reopened.close();
+    }
+
+    @Test
+    void testCompactKeepsUnsavedRecords() throws IOException {
+        long id = ProjectJournal.newId();
+        journal.start(id, SegmentedProjectStore.NO_SAVE, "testProject");
+        Project project = new Project("testProject");
+        record(project);
+        project.addTask(new Task("CPSC210"));
+        project.getTaskFromString("CPSC210").recordTime(testDate, 5);
+        Project snapshot = project.copy();
+        long saved = journal.getPosition();
+        project.getTaskFromString("CPSC210").recordTime(testDate, 7);
+        store.save(snapshot, id, saved);
+        long sizeBefore = Files.size(Paths.get(JOURNAL));
+        journal.compact(saved);
+        assertTrue(Files.size(Paths.get(JOURNAL)) < sizeBefore);
+        assertEquals(3, journal.getPosition());
+        project.getTaskFromString("CPSC210").recordTime(testDate, 1);
+        journal.close();
+
+        ProjectJournal reopened = new ProjectJournal(JOURNAL);
+        project = reopened.recover(new SegmentedProjectStore(STORE, false));
+        assertEquals(13, project.getTaskFromString("CPSC210").getTotalMinutes());
+        assertEquals(4, reopened.getPosition());
+        reopened.close();
+    }
+
+    @Test
+    void testAppendCommitsBatch() throws IOException {
+        journal.start(ProjectJournal.newId(), SegmentedProjectStore.NO_SAVE, "testProject");
+        Task task = new Task("CPSC210");
+        journal.append(List.of(ProjectJournal.taskAdded(task),
+                ProjectJournal.timeRecorded(task, testDate, 5), ProjectJournal.timeRecorded(task, testDate, 6)));
+        assertEquals(3, journal.getPosition());
+        journal.close();
+
+        Project project = new ProjectJournal(JOURNAL).recover(store);
+        assertEquals(11, project.getTaskFromString("CPSC210").getTotalMinutes());
+    }
+
+    @Test
+    void testTornRecordDropped() throws IOException {
+        journal.start(ProjectJournal.newId(), SegmentedProjectStore.NO_SAVE, "testProject");
+        Project project = new Project("testProject");
+        record(project);
+        Task task = new Task("CPSC210", 1, 2, 3);
+        project.addTask(task);
+        task.recordTime(testDate, 5);
+        task.recordTime(testDate, 10);
+        journal.close();
+        try (RandomAccessFile file = new RandomAccessFile(JOURNAL, "rw")) {
+            file.setLength(file.length() - 1);
+        }
+
+        journal = new ProjectJournal(JOURNAL);
+        project = journal.recover(store);
+        assertEquals(5, project.getTaskFromString("CPSC210").getTotalMinutes());
+        record(project);
+        project.getTaskFromString("CPSC210").recordTime(testDate, 1);
+        journal.close();
+
+        project = new ProjectJournal(JOURNAL).recover(store);
+        assertEquals(6, project.getTaskFromString("CPSC210").getTotalMinutes());
+    }
+
+    @Test
+    void testJournalOfReplacedSaveSkipped() throws IOException {
+        Project saved = new Project("stored");
+        saved.addTask(new Task("CPSC210"));
+        store.save(saved);
+        Project project = store.load();
+        journal.start(ProjectJournal.newId(), store.getSaveId(), null);
+        record(project);
+        project.getTaskFromString("CPSC210").recordTime(testDate, 5);
+        journal.close();
+        Project other = new Project("other");
+        other.addTask(new Task("Other"));
+        new SegmentedProjectStore(STORE, false).save(other);
+
+        assertNull(new ProjectJournal(JOURNAL).recover(new SegmentedProjectStore(STORE, false)));
+    }
+
+    @Test
+    void testRecordForUnknownTask() throws IOException {
+        journal.start(ProjectJournal.newId(), SegmentedProjectStore.NO_SAVE, "testProject");
+        journal.append(List.of(ProjectJournal.timeRecorded(new Task("Missing"), testDate, 5)));
+        journal.close();
+        try {
+            new ProjectJournal(JOURNAL).recover(store);
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("unknown task Missing"));
+        }
+    }
+
+    // EFFECTS: appends every change to project to the journal as it is made
+    private void record(Project project) {
+        project.addObserver(new ProjectJournal.Recorder(record -> {
+            try {
+                journal.append(List.of(record));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+}
@@ -0,0 +1,191 @@
+package persistence;
+
+import model.Event;
+import model.EventLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RotatingEventFileSinkTest {
+    private static final String DIRECTORY = "./data/testEventLogs";
+
+    @BeforeEach
+    void clearDirectory() throws IOException {
+        Path directory = Paths.get(DIRECTORY);
+        if (Files.exists(directory)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSinkWritesLines() {
+        RotatingEventFileSink sink = new RotatingEventFileSink(DIRECTORY);
+        try {
+            sink.open();
+            sink.accept(Event.timeRecorded("Task\t1", 25, 10957));
+            sink.accept(new Event("line one\nline two"));
+            sink.close();
+            List<String> lines = readAllLines();
+            assertEquals(2, lines.size());
+            String[] recorded = lines.get(0).split("\t");
+            assertEquals(7, recorded.length);
+            assertEquals("TIME_RECORDED", recorded[1]);
+            assertEquals("Task\\t1", recorded[2]);
+            assertEquals("25", recorded[3]);
+            assertEquals("10957", recorded[4]);
+            assertEquals("Logged 25 minutes in task(Task\\t1) mapped to 2000-01-01", recorded[6]);
+            assertTrue(lines.get(1).endsWith("MESSAGE\t\t0\t0\t0\tline one\\nline two"));
+            assertEquals(0, sink.getDroppedCount());
+            assertNull(sink.getLastError());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testSinkRotatesBySize() {
+        RotatingEventFileSink sink = new RotatingEventFileSink(DIRECTORY, "rotating", 200, 60_000, 64);
+        try {
+            sink.open();
+            for (int i = 0; i < 10; i++) {
+                sink.accept(Event.taskCreated("Task" + i));
+            }
+            sink.close();
+            assertTrue(listFiles().size() > 1);
+            assertEquals(10, readAllLines().size());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testSinkDeletesOldestFiles() {
+        RotatingEventFileSink sink = new RotatingEventFileSink(DIRECTORY, "rotating", 100, 60_000, 64, 3);
+        try {
+            Files.createDirectories(Paths.get(DIRECTORY));
+            Path other = Files.writeString(Paths.get(DIRECTORY, "other-20000101-000000-000.log"), "kept\n");
+            sink.open();
+            for (int i = 0; i < 20; i++) {
+                sink.accept(Event.taskCreated("Task" + i));
+            }
+            sink.close();
+            assertNull(sink.getLastError());
+            assertTrue(Files.exists(other));
+            Files.delete(other);
+            assertEquals(3, listFiles().size());
+            List<String> lines = readAllLines();
+            assertTrue(lines.size() < 20);
+            assertTrue(lines.stream().anyMatch(line -> line.contains("\tTask19\t")));
+            assertTrue(lines.stream().noneMatch(line -> line.contains("\tTask0\t")));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testSinkRotatesByAge() throws InterruptedException {
+        RotatingEventFileSink sink = new RotatingEventFileSink(DIRECTORY, "aging", 1 << 20, 1, 64);
+        try {
+            sink.open();
+            sink.accept(Event.taskCreated("Task1"));
+            Thread.sleep(20);
+            sink.accept(Event.taskCreated("Task2"));
+            sink.close();
+            assertEquals(2, listFiles().size());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testSinkDropsWhenQueueFull() {
+        RotatingEventFileSink sink = new RotatingEventFileSink(DIRECTORY, "full", 1 << 20, 60_000, 2);
+        sink.accept(Event.taskCreated("Task1"));
+        sink.accept(Event.taskCreated("Task2"));
+        sink.accept(Event.taskCreated("Task3"));
+        assertEquals(1, sink.getDroppedCount());
+        try {
+            sink.open();
+            sink.close();
+            assertEquals(2, readAllLines().size());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testSinkSurvivesUncheckedFailure() {
+        RotatingEventFileSink sink = new RotatingEventFileSink(DIRECTORY, "failing", 1 << 20, 60_000, 2);
+        try {
+            sink.open();
+            sink.accept(new Event("broken") {
+                @Override
+                public String getDescription() {
+                    throw new IllegalStateException("broken");
+                }
+            });
+            sink.close();
+            assertTrue(sink.getLastError().getCause() instanceof IllegalStateException);
+            assertEquals(1, sink.getDroppedCount());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testSinkAttachedToEventLog() {
+        RotatingEventFileSink sink = new RotatingEventFileSink(DIRECTORY);
+        try {
+            sink.attachTo(EventLog.getInstance());
+            EventLog.getInstance().logEvent(new Event("attached"));
+            sink.close();
+            EventLog.getInstance().logEvent(new Event("detached"));
+            List<String> lines = readAllLines();
+            assertEquals(1, lines.size());
+            assertTrue(lines.get(0).endsWith("\tattached"));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testSinkInvalidDirectory() {
+        RotatingEventFileSink sink = new RotatingEventFileSink("./data/project.json/logs");
+        try {
+            sink.open();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+        sink.close();
+    }
+
+    private List<Path> listFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Paths.get(DIRECTORY))) {
+            List<Path> sorted = new ArrayList<>();
+            files.sorted().forEach(sorted::add);
+            return sorted;
+        }
+    }
+
+    private List<String> readAllLines() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (Path file : listFiles()) {
+            lines.addAll(Files.readAllLines(file));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,472 @@
+package persistence;
+
+import model.Project;
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentedProjectStoreTest {
+    private static final String DIRECTORY = "./data/testSegmentedProject";
+    private Project project;
+    private Task task1;
+    private Task task2;
+    private LocalDate date1;
+
+    @BeforeEach
+    void startUp() throws IOException {
+        Path directory = Paths.get(DIRECTORY);
+        if (Files.exists(directory)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+        project = new Project("testProject");
+        task1 = new Task("Task1", 25, 5, 15);
+        task2 = new Task("Task2", 50, 10, 20);
+        date1 = LocalDate.of(2000, 1, 1);
+        task1.recordTime(date1, 30);
+        task2.recordTime(date1, 45);
+        project.addTask(task1);
+        project.addTask(task2);
+    }
+
+    @Test
+    void testSaveAndLoad() {
+        try {
+            SegmentedProjectStore store = new SegmentedProjectStore(DIRECTORY, false);
+            assertFalse(store.exists());
+            assertEquals(2, store.save(project));
+            assertTrue(store.exists());
+            assertTrue(Files.readString(Paths.get(DIRECTORY, SegmentedProjectStore.MANIFEST))
+                    .startsWith("{\"schema_version\":2,"));
+
+            Project loaded = new SegmentedProjectStore(DIRECTORY, false).load();
+            assertEquals("testProject", loaded.getName());
+            assertEquals(List.of("Task1", "Task2"), loaded.tasksToStringList());
+            assertEquals(75, loaded.calculateTotalMinutes());
+            Task loadedTask2 = loaded.getTaskFromString("Task2");
+            assertEquals(50, loadedTask2.getWorkDurationMinutes());
+            assertEquals(20, loadedTask2.getLongBreakDurationMinutes());
+            assertEquals(45, loadedTask2.getHistoryMap().get(date1));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testSaveWritesOnlyChangedTasks() {
+        try {
+            SegmentedProjectStore store = new SegmentedProjectStore(DIRECTORY, false);
+            store.save(project);
+            assertEquals(0, store.save(project));
+            task2.recordTime(date1.plusDays(1), 10);
+            assertEquals(1, store.save(project));
+            task1.setDurations(30, 5, 15);
+            assertEquals(1, store.save(project.copy()));
+            project.addTask(new Task("Task3", 25, 5, 15));
+            assertEquals(1, store.save(project));
+            assertEquals(0, store.save(project));
+
+            Project loaded = new SegmentedProjectStore(DIRECTORY, false).load();
+            assertEquals(List.of("Task1", "Task2", "Task3"), loaded.tasksToStringList());
+            assertEquals(30, loaded.getTaskFromString("Task1").getWorkDurationMinutes());
+            assertEquals(55, loaded.getTaskFromString("Task2").getTotalMinutes());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testSaveAfterLoadWritesOnlyChangedTasks() {
+        try {
+            new SegmentedProjectStore(DIRECTORY, false).save(project);
+            SegmentedProjectStore store = new SegmentedProjectStore(DIRECTORY, false);
+            Project loaded = store.load();
+            assertEquals(0, store.save(loaded));
+            loaded.getTaskFromString("Task1").recordTime(date1, 5);
+            assertEquals(1, store.save(loaded));
+            loaded.addTask(new Task("Task3", 25, 5, 15));
+            assertEquals(1, store.save(loaded));
+            // the changed task moved to a new segment and the old one was removed once the manifest was written
+            assertEquals(List.of("task-1.json", "task-2.json", "task-3.json"), segmentFiles());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testSaveIdAndJournalPosition() {
+        try {
+            SegmentedProjectStore store = new SegmentedProjectStore(DIRECTORY, false);
+            store.save(project);
+            long saveId = store.getSaveId();
+            assertNotEquals(SegmentedProjectStore.NO_SAVE, saveId);
+            assertEquals(SegmentedProjectStore.NO_SAVE, store.getJournalId());
+            store.save(project);
+            assertEquals(saveId, store.getSaveId());
+            // only the journal position moved, so the manifest is written with a new save id
+            assertEquals(0, store.save(project, 42, 3));
+            assertNotEquals(saveId, store.getSaveId());
+
+            SegmentedProjectStore reloaded = new SegmentedProjectStore(DIRECTORY, false);
+            reloaded.load();
+            assertEquals(store.getSaveId(), reloaded.getSaveId());
+            assertEquals(42, reloaded.getJournalId());
+            assertEquals(3, reloaded.getJournalPosition());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testForgetRewritesEveryTaskAndRemovesOldSegments() {
+        try {
+            SegmentedProjectStore store = new SegmentedProjectStore(DIRECTORY, false);
+            store.save(project);
+            Project replacement = new Project("replacement");
+            replacement.addTask(new Task("Other", 25, 5, 15));
+            store.forget();
+            assertEquals(1, store.save(replacement));
+            assertEquals(List.of("task-2.json"), segmentFiles());
+            assertFalse(Files.exists(Paths.get(DIRECTORY, "task-0.days")));
+            assertTrue(Files.exists(Paths.get(DIRECTORY, "task-2.days")));
+
+            Project loaded = new SegmentedProjectStore(DIRECTORY, false).load();
+            assertEquals("replacement", loaded.getName());
+            assertEquals(List.of("Other"), loaded.tasksToStringList());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testSaveDifferentProjectsWithSameTaskNames() {
+        try {
+            SegmentedProjectStore store = new SegmentedProjectStore(DIRECTORY, false);
+            store.save(project);
+            Project other = new Project("testProject");
+            Task otherTask1 = new Task("Task1", 40, 5, 15);
+            Task otherTask2 = new Task("Task2", 50, 10, 20);
+            otherTask1.recordTime(date1, 60);
+            otherTask2.recordTime(date1, 90);
+            other.addTask(otherTask1);
+            other.addTask(otherTask2);
+            assertEquals(task1.getModCount(), otherTask1.getModCount());
+            assertEquals(project.getModCount(), other.getModCount());
+            assertEquals(2, store.save(other));
+            assertEquals(0, store.save(other.copy()));
+            assertEquals(2, store.save(project));
+
+            store.save(other);
+            Project loaded = new SegmentedProjectStore(DIRECTORY, false).load();
+            assertEquals(40, loaded.getTaskFromString("Task1").getWorkDurationMinutes());
+            assertEquals(150, loaded.calculateTotalMinutes());
+            assertEquals(90, loaded.getTaskFromString("Task2").getHistoryMap().get(date1));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testLazyLoad() {
+        try {
+            new SegmentedProjectStore(DIRECTORY, false).save(project);
+            SegmentedProjectStore store = new SegmentedProjectStore(DIRECTORY, false);
+            store.setLazyHistory(true);
+            Project loaded = store.load();
+            Files.delete(Paths.get(DIRECTORY, "task-1.json"));
+            Files.delete(Paths.get(DIRECTORY, "task-1.days"));
+            assertEquals(75, loaded.calculateTotalMinutes());
+            assertEquals("Task2", loaded.determineMostWorkedOnTask().getName());
+            Task loadedTask2 = loaded.getTaskFromString("Task2");
+            assertEquals(50, loadedTask2.getWorkDurationMinutes());
+            assertEquals(45, loadedTask2.getTotalMinutes());
+            assertEquals(30, loaded.getTaskFromString("Task1").getHistoryMap().get(date1));
+            try {
+                loadedTask2.getHistoryMap().get(date1);
+                fail("UncheckedIOException was expected");
+            } catch (UncheckedIOException e) {
+                // pass
+            }
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testLazyLoadAnswersRecentTotalsFromManifest() {
+        try {
+            LocalDate today = LocalDate.now();
+            task1.recordTime(today, 20);
+            new SegmentedProjectStore(DIRECTORY, false).save(project);
+            SegmentedProjectStore store = new SegmentedProjectStore(DIRECTORY, false);
+            store.setLazyHistory(true);
+            Project loaded = store.load();
+            for (String file : List.of("task-0.json", "task-0.days", "task-1.json", "task-1.days")) {
+                Files.delete(Paths.get(DIRECTORY, file));
+            }
+            Task loadedTask1 = loaded.getTaskFromString("Task1");
+            assertEquals(20, loaded.minutesInWeek(today));
+            assertEquals(20, loadedTask1.minutesBetween(today, today));
+            assertEquals(20, loadedTask1.getHistoryMap().get(today));
+            assertNull(loaded.getTaskFromString("Task2").getHistoryMap().get(today));
+
+            // the manifest rewritten without reading the histories keeps their recent entries
+            loaded.addTask(new Task("Task3"));
+            assertEquals(1, store.save(loaded));
+            Project reloaded = store.load();
+            assertEquals(20, reloaded.minutesInWeek(today));
+            try {
+                reloaded.getTaskFromString("Task1").getHistoryMap().get(date1);
+                fail("UncheckedIOException was expected");
+            } catch (UncheckedIOException e) {
+                // pass
+            }
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testLazyLoadMapsHistoryFile() {
+        try {
+            new SegmentedProjectStore(DIRECTORY, false).save(project);
+            assertTrue(Files.isRegularFile(Paths.get(DIRECTORY, "task-0.days")));
+            SegmentedProjectStore store = new SegmentedProjectStore(DIRECTORY, false);
+            store.setLazyHistory(true);
+            Project loaded = store.load();
+            Files.delete(Paths.get(DIRECTORY, "task-1.json"));
+            Task loadedTask2 = loaded.getTaskFromString("Task2");
+            assertEquals(45, loadedTask2.getHistoryMap().get(date1));
+            loadedTask2.recordTime(date1, 5);
+            loadedTask2.recordTime(date1.plusDays(1), 10);
+            assertEquals(50, loadedTask2.getHistoryMap().get(date1));
+            assertEquals(60, loadedTask2.getTotalMinutes());
+            assertEquals(1, store.save(loaded));
+
+            Project reloaded = new SegmentedProjectStore(DIRECTORY, false).load();
+            assertEquals(10, reloaded.getTaskFromString("Task2").getHistoryMap().get(date1.plusDays(1)));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testLazyLoadIgnoresStaleHistoryFile() {
+        try {
+            SegmentedProjectStore store = new SegmentedProjectStore(DIRECTORY, false);
+            store.save(project);
+            byte[] before = Files.readAllBytes(Paths.get(DIRECTORY, "task-1.days"));
+            task2.recordTime(date1, 5);
+            store.save(project);
+            // a history file that no longer adds up to the task's total
+            Files.write(Paths.get(DIRECTORY, "task-2.days"), before);
+            store = new SegmentedProjectStore(DIRECTORY, false);
+            store.setLazyHistory(true);
+            Project loaded = store.load();
+            assertEquals(50, loaded.getTaskFromString("Task2").getHistoryMap().get(date1));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testInterruptedSaveKeepsPreviousProject() {
+        try {
+            LocalDate today = LocalDate.now();
+            task2.recordTime(today, 15);
+            SegmentedProjectStore store = new SegmentedProjectStore(DIRECTORY, false);
+            store.save(project);
+            Map<Path, byte[]> saved = new HashMap<>();
+            try (Stream<Path> files = Files.list(Paths.get(DIRECTORY))) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    saved.put(file, Files.readAllBytes(file));
+                }
+            }
+            task2.recordTime(today, 5);
+            store.save(project);
+            // as if the save had stopped after writing the segments, before the manifest and any deletion
+            for (Map.Entry<Path, byte[]> file : saved.entrySet()) {
+                if (!Files.exists(file.getKey()) || file.getKey().endsWith(SegmentedProjectStore.MANIFEST)) {
+                    Files.write(file.getKey(), file.getValue());
+                }
+            }
+
+            store = new SegmentedProjectStore(DIRECTORY, false);
+            store.setLazyHistory(true);
+            Project loaded = store.load();
+            Task loadedTask2 = loaded.getTaskFromString("Task2");
+            assertEquals(15, loaded.minutesInWeek(today));
+            assertEquals(60, loadedTask2.getTotalMinutes());
+            assertEquals(60, loadedTask2.minutesBetween(date1, today));
+            assertEquals(15, loadedTask2.getHistoryMap().get(today));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testWideHistoryIsOnlyKeptInSegment() {
+        try {
+            task1.recordTime(date1.minusYears(200), 10);
+            new SegmentedProjectStore(DIRECTORY, false).save(project);
+            assertFalse(Files.exists(Paths.get(DIRECTORY, "task-0.days")));
+            assertTrue(Files.exists(Paths.get(DIRECTORY, "task-1.days")));
+            SegmentedProjectStore store = new SegmentedProjectStore(DIRECTORY, false);
+            store.setLazyHistory(true);
+            Task loadedTask1 = store.load().getTaskFromString("Task1");
+            assertEquals(10, loadedTask1.getHistoryMap().get(date1.minusYears(200)));
+            assertEquals(40, loadedTask1.getTotalMinutes());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testLazyLoadSaveKeepsHistory() {
+        try {
+            new SegmentedProjectStore(DIRECTORY, false).save(project);
+            SegmentedProjectStore store = new SegmentedProjectStore(DIRECTORY, false);
+            store.setLazyHistory(true);
+            Project loaded = store.load();
+            loaded.getTaskFromString("Task2").setDurations(40, 10, 20);
+            assertEquals(1, store.save(loaded.copy()));
+            // the history not read before the save is read from the task's new segment
+            assertFalse(Files.exists(Paths.get(DIRECTORY, "task-1.json")));
+            assertEquals(45, loaded.getTaskFromString("Task2").getHistoryMap().get(date1));
+
+            Project reloaded = new SegmentedProjectStore(DIRECTORY, false).load();
+            Task reloadedTask2 = reloaded.getTaskFromString("Task2");
+            assertEquals(40, reloadedTask2.getWorkDurationMinutes());
+            assertEquals(45, reloadedTask2.getHistoryMap().get(date1));
+            assertEquals(45, reloadedTask2.getTotalMinutes());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testLazyLoadManifestWithoutSummary() {
+        try {
+            new SegmentedProjectStore(DIRECTORY, false).save(project);
+            Files.writeString(Paths.get(DIRECTORY, SegmentedProjectStore.MANIFEST),
+                    "{\"project_name\": \"old\", \"tasks\": "
+                            + "[{\"task_name\": \"Task1\", \"segment\": \"task-0.json\"}]}");
+            SegmentedProjectStore store = new SegmentedProjectStore(DIRECTORY, false);
+            store.setLazyHistory(true);
+            Project loaded = store.load();
+            assertEquals(30, loaded.calculateTotalMinutes());
+            assertEquals(30, loaded.getTaskFromString("Task1").getHistoryMap().get(date1));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testSegmentsCarryVersion() {
+        try {
+            new SegmentedProjectStore(DIRECTORY, false).save(project);
+            for (String file : segmentFiles()) {
+                assertTrue(Files.readString(Paths.get(DIRECTORY, file)).startsWith("{\"schema_version\":2,"));
+            }
+            // a segment is read by its own version rather than the manifest's
+            Files.writeString(Paths.get(DIRECTORY, "task-1.json"),
+                    "{\"schema_version\": 99, \"task_name\": \"Task2\"}");
+            new SegmentedProjectStore(DIRECTORY, false).load();
+            fail("IOException was expected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("schema_version 99"));
+        }
+    }
+
+    @Test
+    void testLoadOlderVersionRewritesEverySegment() {
+        try {
+            new SegmentedProjectStore(DIRECTORY, false).save(project);
+            Path manifest = Paths.get(DIRECTORY, SegmentedProjectStore.MANIFEST);
+            Files.writeString(manifest, Files.readString(manifest)
+                    .replace("\"schema_version\":2", "\"schema_version\":1"));
+            // a legacy segment without a version or durations
+            Files.writeString(Paths.get(DIRECTORY, "task-0.json"), "{\"task_name\": \"Task1\", "
+                    + "\"historyMap\": [{\"date\": \"2000-01-01\", \"minutes_completed\": 30}]}");
+            SegmentedProjectStore store = new SegmentedProjectStore(DIRECTORY, false);
+            Project loaded = store.load();
+            assertEquals(30, loaded.getTaskFromString("Task1").getTotalMinutes());
+            assertEquals(2, store.save(loaded));
+            assertEquals(0, store.save(loaded));
+            assertTrue(Files.readString(manifest).startsWith("{\"schema_version\":2,"));
+            assertEquals(List.of("task-2.json", "task-3.json"), segmentFiles());
+            assertTrue(Files.readString(Paths.get(DIRECTORY, "task-2.json")).startsWith("{\"schema_version\":2,"));
+
+            Project reloaded = new SegmentedProjectStore(DIRECTORY, false).load();
+            assertEquals(25, reloaded.getTaskFromString("Task1").getWorkDurationMinutes());
+            assertEquals(75, reloaded.calculateTotalMinutes());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testLoadMissingSegment() {
+        try {
+            SegmentedProjectStore store = new SegmentedProjectStore(DIRECTORY, false);
+            store.save(project);
+            Files.delete(Paths.get(DIRECTORY, "task-1.json"));
+            store.load();
+            fail("IOException was expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testLoadInvalidManifest() {
+        try {
+            Files.createDirectories(Paths.get(DIRECTORY));
+            Files.writeString(Paths.get(DIRECTORY, SegmentedProjectStore.MANIFEST), "{\"tasks\": []}");
+            new SegmentedProjectStore(DIRECTORY, false).load();
+            fail("IOException was expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testLoadFutureVersion() {
+        try {
+            Files.createDirectories(Paths.get(DIRECTORY));
+            Files.writeString(Paths.get(DIRECTORY, SegmentedProjectStore.MANIFEST),
+                    "{\"schema_version\": 99, \"project_name\": \"future\", \"tasks\": []}");
+            new SegmentedProjectStore(DIRECTORY, false).load();
+            fail("IOException was expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    // EFFECTS: returns the names of the segment files in the test directory in sorted order
+    private List<String> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Paths.get(DIRECTORY))) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith("task-") && name.endsWith(".json"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
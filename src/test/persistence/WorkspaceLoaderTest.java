@@ -0,0 +1,75 @@
+package persistence;
+
+import model.Workspace;
+import org.json.JSONException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkspaceLoaderTest {
+
+    @Test
+    void testLoaderNonExistentDirectory() {
+        WorkspaceLoader loader = new WorkspaceLoader("./data/noSuchDirectory");
+        try {
+            loader.load();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        } finally {
+            loader.close();
+        }
+    }
+
+    @Test
+    void testLoaderOwnPool() {
+        try (WorkspaceLoader loader = new WorkspaceLoader("./data/testWorkspace")) {
+            assertEquals(2, loader.load().size());
+            assertEquals(2, loader.getFailures().size());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testLoaderWorkspace() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        WorkspaceLoader loader = new WorkspaceLoader("./data/testWorkspace", pool);
+        try {
+            Workspace workspace = loader.load();
+            assertEquals(2, workspace.size());
+            assertEquals(15, workspace.getProject("alpha").calculateTotalMinutes());
+            assertEquals(0, workspace.getProject("beta").getTaskList().size());
+            assertNull(workspace.getProject("broken"));
+
+            Map<Path, Long> loadTimes = loader.getLoadTimes();
+            assertEquals(List.of(file("alpha.json"), file("beta.json"), file("broken.json"),
+                    file("duplicateAlpha.json")), List.copyOf(loadTimes.keySet()));
+            for (long nanos : loadTimes.values()) {
+                assertTrue(nanos > 0);
+            }
+
+            Map<Path, Exception> failures = loader.getFailures();
+            assertEquals(2, failures.size());
+            assertTrue(failures.get(file("broken.json")) instanceof JSONException);
+            assertTrue(failures.get(file("duplicateAlpha.json")) instanceof IOException);
+            loader.close();
+            assertFalse(pool.isShutdown());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private Path file(String name) {
+        return Paths.get("./data/testWorkspace").resolve(name);
+    }
+}
@@ -0,0 +1,109 @@
+package ui;
+
+import model.Project;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import persistence.SegmentedProjectStore;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutosaverTest {
+    private static final String DIRECTORY = "./data/testAutosave";
+    private static final int INTERVAL_MILLIS = 50;
+    private static final long WAIT_MILLIS = 5000;
+    private List<String> messages;
+    private ProjectPersistence persistence;
+    private Autosaver autosaver;
+    private Project project;
+
+    @BeforeEach
+    void startUp() throws IOException {
+        Path directory = Paths.get(DIRECTORY);
+        if (Files.exists(directory)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+        messages = new CopyOnWriteArrayList<>();
+        persistence = new ProjectPersistence(DIRECTORY, DIRECTORY + "/missing.json", messages::add);
+        autosaver = new Autosaver(persistence, INTERVAL_MILLIS);
+        project = new Project("autosaved");
+    }
+
+    @AfterEach
+    void tearDown() {
+        persistence.shutdown();
+    }
+
+    @Test
+    void testSavesOnceAfterInterval() throws Exception {
+        onEventThread(() -> {
+            autosaver.watch(project);
+            project.addTask(new Task("Task1"));
+            project.addTask(new Task("Task2"));
+        });
+        assertFalse(new SegmentedProjectStore(DIRECTORY).exists());
+        awaitMessage("Saved project autosaved");
+        assertEquals(List.of("Task1", "Task2"), new SegmentedProjectStore(DIRECTORY).load().tasksToStringList());
+        Thread.sleep(INTERVAL_MILLIS * 4);
+        assertEquals(1, messages.stream().filter(message -> message.startsWith("Saved")).count());
+    }
+
+    @Test
+    void testFlushSavesImmediately() throws Exception {
+        onEventThread(() -> {
+            autosaver.watch(project);
+            project.addTask(new Task("Task1"));
+            autosaver.flush();
+        });
+        persistence.shutdown();
+        assertEquals(List.of("Task1"), new SegmentedProjectStore(DIRECTORY).load().tasksToStringList());
+    }
+
+    @Test
+    void testWatchDropsPendingSaveOfPreviousProject() throws Exception {
+        Project replacement = new Project("replacement");
+        onEventThread(() -> {
+            autosaver.watch(project);
+            project.addTask(new Task("Task1"));
+            autosaver.watch(replacement);
+            project.addTask(new Task("Task2"));
+        });
+        Thread.sleep(INTERVAL_MILLIS * 4);
+        assertTrue(messages.isEmpty());
+
+        onEventThread(() -> replacement.addTask(new Task("Other")));
+        awaitMessage("Saved project replacement");
+        persistence.shutdown();
+        assertEquals(1, messages.stream().filter(message -> message.startsWith("Saved")).count());
+        assertEquals(List.of("Other"), new SegmentedProjectStore(DIRECTORY).load().tasksToStringList());
+    }
+
+    // EFFECTS: runs the action on the event dispatch thread and waits for it
+    private static void onEventThread(Runnable action) throws InterruptedException, InvocationTargetException {
+        SwingUtilities.invokeAndWait(action);
+    }
+
+    // EFFECTS: waits until a status message starting with prefix has been reported, fails if none arrives in time
+    private void awaitMessage(String prefix) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (messages.stream().noneMatch(message -> message.startsWith(prefix))) {
+            assertTrue(System.currentTimeMillis() < deadline, "No status starting with " + prefix + " in " + messages);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package ui;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClockLabelsTest {
+    private static final int TABLE_SECONDS = 4 * 60 * 60;
+
+    @Test
+    void testFormat() {
+        assertEquals("0:00", ClockLabels.of(0));
+        assertEquals("0:05", ClockLabels.of(5));
+        assertEquals("0:59", ClockLabels.of(59));
+        assertEquals("1:00", ClockLabels.of(60));
+        assertEquals("4:05", ClockLabels.of(245));
+        assertEquals("25:00", ClockLabels.of(25 * 60));
+    }
+
+    @Test
+    void testEveryTableLabel() {
+        for (int seconds = 0; seconds <= TABLE_SECONDS + 1; seconds++) {
+            assertEquals(String.format("%d:%02d", seconds / 60, seconds % 60), ClockLabels.of(seconds));
+        }
+    }
+
+    @Test
+    void testTableBoundary() {
+        assertEquals("240:00", ClockLabels.of(TABLE_SECONDS));
+        assertSame(ClockLabels.of(TABLE_SECONDS), ClockLabels.of(TABLE_SECONDS));
+        assertSame(ClockLabels.of(0), ClockLabels.of(0));
+        assertEquals("240:01", ClockLabels.of(TABLE_SECONDS + 1));
+        assertEquals("1666:40", ClockLabels.of(100_000));
+        assertEquals("35791394:07", ClockLabels.of(Integer.MAX_VALUE));
+    }
+}
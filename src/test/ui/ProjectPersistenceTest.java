@@ -0,0 +1,176 @@
+package ui;
+
+import model.Project;
+import model.Task;
+import model.Workspace;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import persistence.JsonReader;
+import persistence.ProjectJournal;
+import persistence.SegmentedProjectStore;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectPersistenceTest {
+    private static final String DIRECTORY = "./data/testAutosave";
+    private static final long WAIT_MILLIS = 5000;
+    private List<String> messages;
+    private List<Project> loaded;
+    private ProjectPersistence persistence;
+    private Project project;
+
+    @BeforeEach
+    void startUp() throws IOException {
+        Path directory = Paths.get(DIRECTORY);
+        if (Files.exists(directory)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+        messages = new CopyOnWriteArrayList<>();
+        loaded = new CopyOnWriteArrayList<>();
+        persistence = new ProjectPersistence(DIRECTORY, DIRECTORY + "/missing.json", messages::add);
+        project = new Project("current");
+        project.addTask(new Task("Task1"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        persistence.shutdown();
+    }
+
+    @Test
+    void testSaveDuringLoadIsDropped() throws Exception {
+        Project stored = new Project("stored");
+        stored.addTask(new Task("Stored"));
+        new SegmentedProjectStore(DIRECTORY, false).save(stored);
+        SwingUtilities.invokeAndWait(() -> {
+            persistence.load(loaded::add);
+            persistence.save(project);
+        });
+        awaitMessage("Loaded project stored");
+        persistence.shutdown();
+        assertEquals("stored", loaded.get(0).getName());
+        assertEquals("stored", new SegmentedProjectStore(DIRECTORY).load().getName());
+    }
+
+    @Test
+    void testSaveDuringFailedLoadIsWritten() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            persistence.load(loaded::add);
+            persistence.save(project);
+        });
+        awaitMessage("Saved project current");
+        assertTrue(loaded.isEmpty());
+        assertTrue(messages.stream().anyMatch(message -> message.startsWith("Unable to read")));
+        assertEquals(List.of("Task1"), new SegmentedProjectStore(DIRECTORY).load().tasksToStringList());
+    }
+
+    @Test
+    void testLoadWaitsForQueuedSave() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            persistence.save(project);
+            persistence.load(loaded::add);
+        });
+        awaitMessage("Loaded project current");
+        assertEquals(List.of("Task1"), loaded.get(0).tasksToStringList());
+    }
+
+    @Test
+    void testExportWritesIndentedJson() throws Exception {
+        String destination = DIRECTORY + "/export.json";
+        SwingUtilities.invokeAndWait(() -> persistence.export(project, destination));
+        awaitMessage("Exported project current");
+        assertTrue(Files.readString(Paths.get(destination)).startsWith("{\n    \"schema_version\": 2,\n"));
+        assertEquals(List.of("Task1"), new JsonReader(destination).read().tasksToStringList());
+    }
+
+    @Test
+    void testOpenWorkspaceAndReplaceProject() throws Exception {
+        new SegmentedProjectStore(DIRECTORY, false).save(project);
+        List<Workspace> workspaces = new CopyOnWriteArrayList<>();
+        SwingUtilities.invokeAndWait(() -> persistence.openWorkspace("./data/testWorkspace", workspaces::add));
+        awaitMessage("Opened workspace ./data/testWorkspace (2 project(s), 2 file(s) skipped)");
+        Project alpha = workspaces.get(0).getProject("alpha");
+        SwingUtilities.invokeAndWait(() -> {
+            persistence.replaceProject(alpha);
+            persistence.save(alpha);
+        });
+        awaitMessage("Saved project alpha");
+        Project stored = new SegmentedProjectStore(DIRECTORY).load();
+        assertEquals("alpha", stored.getName());
+        assertEquals(alpha.tasksToStringList(), stored.tasksToStringList());
+    }
+
+    @Test
+    void testLoadReplacesJournaledProject() throws Exception {
+        String journal = DIRECTORY + "/session.journal";
+        Project stored = new Project("stored");
+        stored.addTask(new Task("Stored"));
+        new SegmentedProjectStore(DIRECTORY, false).save(stored);
+        SwingUtilities.invokeAndWait(() -> persistence.openJournal(journal, new Project("School"), loaded::add));
+        awaitMessage("Journaling changes to " + journal);
+        SwingUtilities.invokeAndWait(() -> persistence.load(loaded::add));
+        awaitMessage("Loaded project stored from " + DIRECTORY);
+        SwingUtilities.invokeAndWait(() -> loaded.get(0).getTaskFromString("Stored").recordTime(LocalDate.now(), 5));
+        persistence.shutdown();
+        assertFalse(messages.stream().anyMatch(message -> message.startsWith("Unable")));
+
+        Project restored = new ProjectJournal(journal).recover(new SegmentedProjectStore(DIRECTORY));
+        assertEquals("stored", restored.getName());
+        assertEquals(5, restored.getTaskFromString("Stored").getTotalMinutes());
+    }
+
+    @Test
+    void testOpenJournalRestoresAndSavesProject() throws Exception {
+        String journal = DIRECTORY + "/session.journal";
+        Project school = new Project("School");
+        SwingUtilities.invokeAndWait(() -> {
+            persistence.openJournal(journal, school, loaded::add);
+            school.addTask(new Task("Task1"));
+            school.getTaskFromString("Task1").recordTime(LocalDate.now(), 5);
+        });
+        persistence.shutdown();
+        assertTrue(loaded.isEmpty());
+
+        persistence = new ProjectPersistence(DIRECTORY, DIRECTORY + "/missing.json", messages::add);
+        SwingUtilities.invokeAndWait(() -> persistence.openJournal(journal, new Project("School"), loaded::add));
+        awaitMessage("Restored project School from " + journal);
+        awaitMessage("Saved project School");
+        assertEquals(5, loaded.get(0).getTaskFromString("Task1").getTotalMinutes());
+        SwingUtilities.invokeAndWait(() -> loaded.get(0).getTaskFromString("Task1").recordTime(LocalDate.now(), 1));
+        persistence.shutdown();
+
+        assertEquals(5, new SegmentedProjectStore(DIRECTORY).load().getTaskFromString("Task1").getTotalMinutes());
+        Project restored = new ProjectJournal(journal).recover(new SegmentedProjectStore(DIRECTORY));
+        assertEquals(6, restored.getTaskFromString("Task1").getTotalMinutes());
+    }
+
+    @Test
+    void testOpenMissingWorkspace() throws Exception {
+        SwingUtilities.invokeAndWait(() -> persistence.openWorkspace(DIRECTORY + "/missing", loaded -> fail()));
+        awaitMessage("Unable to read from directory");
+    }
+
+    // EFFECTS: waits until a status message starting with prefix has been reported, fails if none arrives in time
+    private void awaitMessage(String prefix) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (messages.stream().noneMatch(message -> message.startsWith(prefix))) {
+            assertTrue(System.currentTimeMillis() < deadline, "No status starting with " + prefix + " in " + messages);
+            Thread.sleep(10);
+        }
+    }
+}
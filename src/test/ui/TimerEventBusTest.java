@@ -0,0 +1,122 @@
+package ui;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerEventBusTest {
+    private TimerEventBus bus;
+    private List<String> received;
+    private List<Runnable> queued;
+    private TimerEventListener recorder;
+
+    @BeforeEach
+    void startUp() {
+        bus = new TimerEventBus(60);
+        received = new ArrayList<>();
+        queued = new ArrayList<>();
+        recorder = (secondsRemaining, secondsCompleted, timerComplete) ->
+                received.add(secondsRemaining + "/" + secondsCompleted + "/" + timerComplete);
+    }
+
+    @Test
+    void testSyncDelivery() {
+        bus.subscribe(recorder, TimerEventBus.Delivery.SYNC, null);
+        assertTrue(received.isEmpty());
+        bus.publish(TimerEventBus.pack(59, false));
+        bus.publish(TimerEventBus.pack(0, true));
+        assertEquals(List.of("59/1/false", "0/60/true"), received);
+        assertEquals(1, bus.getSubscriptionCount());
+    }
+
+    @Test
+    void testSubscribeReceivesLatestUpdate() {
+        bus.publish(TimerEventBus.pack(45, false));
+        bus.publish(TimerEventBus.pack(44, false));
+        bus.subscribe(recorder, TimerEventBus.Delivery.SYNC, null);
+        assertEquals(List.of("44/16/false"), received);
+    }
+
+    @Test
+    void testAsyncDeliversEveryUpdateOnExecutor() {
+        bus.subscribe(recorder, TimerEventBus.Delivery.ASYNC, queued::add);
+        bus.publish(TimerEventBus.pack(59, false));
+        bus.publish(TimerEventBus.pack(58, false));
+        bus.publish(TimerEventBus.pack(57, false));
+        assertTrue(received.isEmpty());
+        assertEquals(3, queued.size());
+        runQueued();
+        assertEquals(List.of("59/1/false", "58/2/false", "57/3/false"), received);
+    }
+
+    @Test
+    void testCoalescedDropsIntermediateUpdates() {
+        bus.subscribe(recorder, TimerEventBus.Delivery.COALESCED, queued::add);
+        bus.publish(TimerEventBus.pack(59, false));
+        bus.publish(TimerEventBus.pack(58, false));
+        bus.publish(TimerEventBus.pack(57, false));
+        assertEquals(1, queued.size());
+        runQueued();
+        assertEquals(List.of("57/3/false"), received);
+
+        bus.publish(TimerEventBus.pack(0, true));
+        assertEquals(1, queued.size());
+        runQueued();
+        assertEquals(List.of("57/3/false", "0/60/true"), received);
+    }
+
+    @Test
+    void testPackRoundTrip() {
+        bus.subscribe(recorder, TimerEventBus.Delivery.SYNC, null);
+        int[] seconds = {0, 1, 60, 4 * 60 * 60, Integer.MAX_VALUE};
+        List<String> expected = new ArrayList<>();
+        for (int secondsRemaining : seconds) {
+            for (boolean timerComplete : new boolean[]{false, true}) {
+                bus.publish(TimerEventBus.pack(secondsRemaining, timerComplete));
+                expected.add(secondsRemaining + "/" + (60 - secondsRemaining) + "/" + timerComplete);
+            }
+        }
+        assertEquals(expected, received);
+        assertNotEquals(TimerEventBus.NOTHING_PUBLISHED, TimerEventBus.pack(Integer.MAX_VALUE, true));
+    }
+
+    @Test
+    void testCancelDuringDelivery() {
+        TimerEventBus.Subscription[] later = new TimerEventBus.Subscription[1];
+        bus.subscribe((secondsRemaining, secondsCompleted, timerComplete) -> later[0].cancel(),
+                TimerEventBus.Delivery.SYNC, null);
+        later[0] = bus.subscribe(recorder, TimerEventBus.Delivery.SYNC, null);
+        bus.publish(TimerEventBus.pack(59, false));
+        assertTrue(received.isEmpty());
+        assertEquals(1, bus.getSubscriptionCount());
+    }
+
+    @Test
+    void testCancelDropsQueuedUpdates() {
+        TimerEventBus.Subscription async = bus.subscribe(recorder, TimerEventBus.Delivery.ASYNC, queued::add);
+        TimerEventBus.Subscription coalesced =
+                bus.subscribe(recorder, TimerEventBus.Delivery.COALESCED, queued::add);
+        bus.publish(TimerEventBus.pack(59, false));
+        bus.publish(TimerEventBus.pack(58, false));
+        async.cancel();
+        coalesced.cancel();
+        runQueued();
+        assertTrue(received.isEmpty());
+        assertEquals(0, bus.getSubscriptionCount());
+        bus.publish(TimerEventBus.pack(57, false));
+        assertTrue(queued.isEmpty());
+    }
+
+    // EFFECTS: runs and clears the deliveries queued on the test executor
+    private void runQueued() {
+        List<Runnable> tasks = new ArrayList<>(queued);
+        queued.clear();
+        for (Runnable task : tasks) {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package ui;
+
+import model.ManualClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerSessionSubjectTest {
+    private ManualClock clock;
+    private TimerSessionSubject session;
+    private List<String> received;
+
+    @BeforeEach
+    void startUp() {
+        clock = new ManualClock();
+        session = new TimerSessionSubject(1, clock);
+        received = new ArrayList<>();
+        session.subscribe((secondsRemaining, secondsCompleted, timerComplete) ->
+                        received.add(secondsRemaining + "/" + secondsCompleted + "/" + timerComplete),
+                TimerEventBus.Delivery.SYNC, null);
+    }
+
+    @Test
+    void testSubscribeReceivesCurrentClock() {
+        assertEquals(List.of("60/0/false"), received);
+    }
+
+    @Test
+    void testPublishesOncePerDisplayedSecond() {
+        session.startTimer();
+        clock.advanceMillis(500);
+        assertEquals(1, received.size());
+        clock.advanceMillis(600);
+        assertEquals(List.of("60/0/false", "59/1/false"), received);
+        clock.advanceSeconds(10);
+        assertEquals(12, received.size());
+        assertEquals("49/11/false", received.get(11));
+    }
+
+    @Test
+    void testUnchangedClockIsSkipped() {
+        session.startTimer();
+        clock.advanceMillis(1100);
+        session.publishUpdate();
+        session.tick();
+        clock.advanceMillis(300);
+        session.publishUpdate();
+        assertEquals(List.of("60/0/false", "59/1/false"), received);
+        session.pauseTimer();
+        clock.advanceSeconds(30);
+        session.publishUpdate();
+        assertEquals(2, received.size());
+    }
+
+    @Test
+    void testCompletePublishedOnce() {
+        session.startTimer();
+        clock.advanceSeconds(61);
+        assertTrue(session.isTimerComplete());
+        assertEquals(61, received.size());
+        assertEquals("1/59/false", received.get(59));
+        assertEquals("0/60/true", received.get(60));
+        session.publishUpdate();
+        clock.advanceSeconds(5);
+        assertEquals(61, received.size());
+    }
+}